@@ -0,0 +1,106 @@
+package geometries;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the closest intersection of rays with a sphere set, with the Vector API kernel and
+ * with the scalar loop, compared with the same spheres as separate geometries of a collection.
+ * The kernel is used when the benchmark's fork runs with {@code --add-modules jdk.incubator.vector}.
+ * <p>
+ * Run with {@code java org.openjdk.jmh.Main SphereSetBenchmark} on the benchmarks classpath
+ * (the compiled sources, benchmarks and JMH).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SphereSetBenchmark {
+    /** The number of random spheres */
+    private static final int COUNT = 1000;
+    /** The number of rays of an invocation */
+    private static final int RAYS = 5000;
+
+    /** The spheres as a set */
+    private SphereSet set;
+    /** The spheres as separate geometries */
+    private Geometries separate;
+    /** The rays through the spheres */
+    private final Ray[] rays = new Ray[RAYS];
+    /** The reused hit record */
+    private final Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+    /**
+     * Creates the random spheres and rays.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1640);
+        double[] centers = new double[3 * COUNT];
+        double[] radii = new double[COUNT];
+        separate = new Geometries();
+        for (int i = 0; i < COUNT; i++) {
+            for (int k = 0; k < 3; k++)
+                centers[3 * i + k] = random.nextDouble() * 100 - 50;
+            radii[i] = 0.5 + random.nextDouble() * 2;
+            separate.add(new Sphere(new Point(centers[3 * i], centers[3 * i + 1], centers[3 * i + 2]), radii[i]));
+        }
+        set = new SphereSet(centers, radii);
+        for (int i = 0; i < RAYS; i++)
+            rays[i] = new Ray(new Point(0, 0, 100), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+    }
+
+    /**
+     * Finds the closest intersections of all the rays.
+     *
+     * @param geometries the geometries to intersect
+     * @return the number of rays that hit the geometries
+     */
+    private int closestHits(Intersectable geometries) {
+        int hits = 0;
+        for (Ray ray : rays)
+            if (geometries.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)))
+                hits++;
+        return hits;
+    }
+
+    /**
+     * The sphere set with the Vector API kernel.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int setVector() {
+        return closestHits(set);
+    }
+
+    /**
+     * The sphere set with the scalar loop.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgs = {})
+    public int setScalar() {
+        return closestHits(set);
+    }
+
+    /**
+     * The spheres as separate geometries.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgs = {})
+    public int separateSpheres() {
+        return closestHits(separate);
+    }
+}
@@ -0,0 +1,168 @@
+package geometries;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the closest intersection of rays with triangle batches, with the Vector API kernel
+ * and with the scalar loop, compared with separate triangles, and of a BVH of the triangles with
+ * and without batching. The kernel is used when the benchmark's fork runs with
+ * {@code --add-modules jdk.incubator.vector}.
+ * <p>
+ * Run with {@code java org.openjdk.jmh.Main TriangleBatchBenchmark} on the benchmarks classpath
+ * (the compiled sources, benchmarks and JMH).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TriangleBatchBenchmark {
+    /** The number of full batches of random triangles */
+    private static final int GROUPS = 100;
+    /** The number of rays of an invocation */
+    private static final int RAYS = 2000;
+    /** The number of triangles of the mesh in the BVH, per side of its grid */
+    private static final int GRID = 100;
+
+    /** The random triangles */
+    private final Triangle[] triangles = new Triangle[GROUPS * TriangleBatch.MAX_SIZE];
+    /** The random triangles in batches */
+    private final TriangleBatch[] batches = new TriangleBatch[GROUPS];
+    /** A BVH of a bumpy mesh without batches */
+    private BVH plain;
+    /** A BVH of the same mesh with batches */
+    private BVH batched;
+    /** The rays through the triangles */
+    private final Ray[] rays = new Ray[RAYS];
+    /** The reused hit record */
+    private final Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+    /**
+     * Creates the random triangles, the mesh and the rays.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1640);
+        for (int i = 0; i < triangles.length; i++) {
+            Point p1 = new Point(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10);
+            triangles[i] = new Triangle(p1,
+                    p1.add(new Vector(random.nextDouble() * 8 + 1, random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1)),
+                    p1.add(new Vector(random.nextDouble() * 2 - 1, random.nextDouble() * 8 + 1, random.nextDouble() * 2 - 1)));
+        }
+        for (int group = 0; group < GROUPS; group++) {
+            Triangle[] batch = new Triangle[TriangleBatch.MAX_SIZE];
+            System.arraycopy(triangles, group * TriangleBatch.MAX_SIZE, batch, 0, batch.length);
+            batches[group] = new TriangleBatch(batch);
+        }
+
+        Point[][] grid = new Point[GRID + 1][GRID + 1];
+        for (int i = 0; i <= GRID; i++)
+            for (int j = 0; j <= GRID; j++)
+                grid[i][j] = new Point(i * 20.0 / GRID - 10, j * 20.0 / GRID - 10, random.nextDouble() * 0.5 - 10);
+        Triangle[] mesh = new Triangle[2 * GRID * GRID];
+        for (int i = 0, k = 0; i < GRID; i++)
+            for (int j = 0; j < GRID; j++) {
+                mesh[k++] = new Triangle(grid[i][j], grid[i + 1][j], grid[i][j + 1]);
+                mesh[k++] = new Triangle(grid[i + 1][j], grid[i + 1][j + 1], grid[i][j + 1]);
+            }
+        plain = new BVH(mesh);
+        batched = new BVH(mesh).setBatching(true);
+        plain.getStatistics();
+        batched.getStatistics();
+
+        for (int i = 0; i < RAYS; i++)
+            rays[i] = new Ray(new Point(0, 0, 30), new Vector((random.nextDouble() - 0.5) / 2, (random.nextDouble() - 0.5) / 2, -1));
+    }
+
+    /**
+     * Finds the closest intersections of all the rays with a group of geometries.
+     *
+     * @param geometries the geometries to intersect
+     * @return the number of rays that hit the geometries
+     */
+    private int closestHits(Intersectable[] geometries) {
+        int hits = 0;
+        for (Ray ray : rays) {
+            hit.reset(Double.POSITIVE_INFINITY);
+            boolean found = false;
+            for (Intersectable geometry : geometries)
+                found |= geometry.intersect(ray, hit);
+            if (found)
+                hits++;
+        }
+        return hits;
+    }
+
+    /**
+     * The batches with the Vector API kernel.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int batchesVector() {
+        return closestHits(batches);
+    }
+
+    /**
+     * The batches with the scalar loop.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgs = {})
+    public int batchesScalar() {
+        return closestHits(batches);
+    }
+
+    /**
+     * The triangles one by one.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgs = {})
+    public int separateTriangles() {
+        return closestHits(triangles);
+    }
+
+    /**
+     * The BVH of the mesh with batches and the Vector API kernel.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int bvhBatchedVector() {
+        return closestHits(new Intersectable[]{batched});
+    }
+
+    /**
+     * The BVH of the mesh with batches and the scalar loop.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgs = {})
+    public int bvhBatchedScalar() {
+        return closestHits(new Intersectable[]{batched});
+    }
+
+    /**
+     * The BVH of the mesh without batches.
+     *
+     * @return the number of hits
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgs = {})
+    public int bvhPlain() {
+        return closestHits(new Intersectable[]{plain});
+    }
+}
@@ -0,0 +1,81 @@
+package primitives;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the shading math of a secondary ray (a reflected direction, a moved head and a point
+ * along the ray), done by the validated API and by the unchecked operations of {@link VectorMath}.
+ * The scores are per secondary ray; run with {@code -prof gc} to compare the allocations too.
+ * <p>
+ * Run with {@code java org.openjdk.jmh.Main VectorMathBenchmark} on the benchmarks classpath
+ * (the compiled sources, benchmarks and JMH).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(VectorMathBenchmark.COUNT)
+public class VectorMathBenchmark {
+    /** The number of secondary rays of an invocation */
+    static final int COUNT = 4096;
+
+    /** The unit normal of the surface */
+    private final Vector n = new Vector(0, 0.6, 0.8);
+    /** The random directions of the incoming rays */
+    private final Vector[] directions = new Vector[COUNT];
+    /** The random points of the surface */
+    private final Point[] points = new Point[COUNT];
+
+    /**
+     * Creates the random directions and points.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1640);
+        for (int i = 0; i < COUNT; i++) {
+            directions[i] = new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, random.nextDouble() - 1).normalize();
+            points[i] = new Point(random.nextDouble(), random.nextDouble(), random.nextDouble());
+        }
+    }
+
+    /**
+     * The secondary rays by the validated API.
+     *
+     * @return the sum of the x coordinates of the points along the rays
+     */
+    @Benchmark
+    public double validated() {
+        double sum = 0;
+        for (int i = 0; i < COUNT; i++) {
+            Vector d = directions[i];
+            double dn = d.dotProduct(n);
+            Vector r = d.subtract(n.scale(2 * dn)).normalize();
+            Point head = points[i].add(n.scale(dn < 0 ? 0.1 : -0.1));
+            sum += head.add(r.scale(2)).getX();
+        }
+        return sum;
+    }
+
+    /**
+     * The secondary rays by the unchecked operations.
+     *
+     * @return the sum of the x coordinates of the points along the rays
+     */
+    @Benchmark
+    public double unchecked() {
+        double sum = 0;
+        for (int i = 0; i < COUNT; i++) {
+            Vector d = directions[i];
+            double dn = d.dotProduct(n);
+            Vector r = VectorMath.reflect(d, n, dn);
+            Point head = VectorMath.moved(points[i], n, dn < 0 ? 0.1 : -0.1);
+            sum += VectorMath.moved(head, r, 2).getX();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,117 @@
+package renderer;
+
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.SpotLight;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of tracing an image of a scene with reflections and refractions several bounces deep.
+ * The scores are per pixel; run with {@code -prof gc} to get the bytes allocated per pixel
+ * ({@code gc.alloc.rate.norm}).
+ * <p>
+ * Run with {@code java org.openjdk.jmh.Main SimpleRayTracerBenchmark} on the benchmarks classpath
+ * (the compiled sources, benchmarks and JMH).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(SimpleRayTracerBenchmark.SIZE * SimpleRayTracerBenchmark.SIZE)
+public class SimpleRayTracerBenchmark {
+    /** The number of pixels along each side of the image */
+    static final int SIZE = 96;
+
+    /** The camera that views the whole scene */
+    private Camera camera;
+    /** The ray tracer with hard shadows */
+    private SimpleRayTracer hardShadows;
+    /** The ray tracer with soft shadows of 8 rays per light */
+    private SimpleRayTracer softShadows;
+
+    /**
+     * Creates the scene, the camera and the ray tracers.
+     *
+     * @throws CloneNotSupportedException if the camera cannot be built
+     */
+    @Setup
+    public void setup() throws CloneNotSupportedException {
+        Scene scene = new Scene("Benchmark scene");
+        scene.geometries.add(
+                new Sphere(new Point(-950, -900, -1000), 400d).setEmission(new Color(0, 50, 100))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)
+                                .setKT(new Double3(0.5, 0, 0))),
+                new Sphere(new Point(-950, -900, -1000), 200d).setEmission(new Color(100, 50, 20))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(670, 670, 3000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKR(1)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(-1500, -1500, -2000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKR(new Double3(0.5, 0, 0.4))));
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150), new Vector(-1, -1, -4))
+                .setKl(0.00001).setKq(0.000005));
+        hardShadows = new SimpleRayTracer(scene);
+        softShadows = new SimpleRayTracer(scene, true).setCountBeam(8);
+        camera = Camera.getBuilder()
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setRayTracer(hardShadows)
+                .setLocation(new Point(0, 0, 10000)).setVpDistance(10000)
+                .setVpSize(2500, 2500)
+                .setImageWriter(new ImageWriter("Benchmark", SIZE, SIZE))
+                .build();
+    }
+
+    /**
+     * Traces a single ray per pixel, with hard shadows.
+     *
+     * @param blackhole consumes the colors
+     */
+    @Benchmark
+    public void singleRay(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++)
+            for (int j = 0; j < SIZE; j++)
+                blackhole.consume(hardShadows.traceRay(camera.constructRay(SIZE, SIZE, j, i)));
+    }
+
+    /**
+     * Traces a beam of the 3 x 3 sub-pixels of every pixel, with hard shadows.
+     *
+     * @param blackhole consumes the colors
+     */
+    @Benchmark
+    public void beam(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++)
+            for (int j = 0; j < SIZE; j++) {
+                List<Ray> rays = new ArrayList<>(9);
+                for (int k = 0; k < 9; k++)
+                    rays.add(camera.constructRay(3 * SIZE, 3 * SIZE, 3 * j + k % 3, 3 * i + k / 3));
+                blackhole.consume(hardShadows.traceBeamRay(rays));
+            }
+    }
+
+    /**
+     * Traces a single ray per pixel, with soft shadows of 8 rays per light.
+     *
+     * @param blackhole consumes the colors
+     */
+    @Benchmark
+    public void softShadows(Blackhole blackhole) {
+        for (int i = 0; i < SIZE; i++)
+            for (int j = 0; j < SIZE; j++)
+                blackhole.consume(softShadows.traceRay(camera.constructRay(SIZE, SIZE, j, i)));
+    }
+}
@@ -0,0 +1,118 @@
+package renderer;
+
+import geometries.BVH;
+import geometries.Intersectable;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import org.openjdk.jmh.annotations.*;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of rendering a scene depth first and in the wavefront mode of {@link SimpleRayTracer},
+ * with hard and with soft shadows. The scene is a large reflective mesh (in a {@link BVH}) under
+ * reflective and transparent spheres, lit by two point lights, so every bounce casts many shadow rays.
+ * The image is rendered on a single thread in tiles of 16 x 16 pixels, with packets of 8 x 8 primary
+ * rays, and in wavefront mode each tile is traced a bounce at a time. The scores are per image.
+ * <p>
+ * Run with {@code java org.openjdk.jmh.Main WavefrontBenchmark} on the benchmarks classpath
+ * (the compiled sources, benchmarks and JMH).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WavefrontBenchmark {
+    /** The number of pixels along each side of the image */
+    private static final int SIZE = 200;
+    /** The number of mesh cells along each side of the mesh, of 2 triangles each */
+    private static final int GRID = 300;
+
+    /** Tells whether the points are lit with soft shadows of 8 rays per light */
+    @Param({"false", "true"})
+    public boolean softShadows;
+
+    /** The scene */
+    private Scene scene;
+
+    /**
+     * Creates the scene.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(1640);
+        scene = new Scene("Wavefront benchmark scene");
+        List<Intersectable> geometries = new ArrayList<>();
+        Point[][] grid = new Point[GRID + 1][GRID + 1];
+        for (int i = 0; i <= GRID; i++)
+            for (int j = 0; j <= GRID; j++)
+                grid[i][j] = new Point(i * 400.0 / GRID - 200, random.nextDouble() * 4 - 100, j * 400.0 / GRID - 300);
+        Material mesh = new Material().setKd(0.5).setKs(0.3).setShininess(30).setKR(0.4);
+        for (int i = 0; i < GRID; i++)
+            for (int j = 0; j < GRID; j++) {
+                geometries.add(new Triangle(grid[i][j], grid[i + 1][j], grid[i][j + 1])
+                        .setEmission(new Color(30, 30, 40)).setMaterial(mesh));
+                geometries.add(new Triangle(grid[i + 1][j], grid[i + 1][j + 1], grid[i][j + 1])
+                        .setEmission(new Color(30, 30, 40)).setMaterial(mesh));
+            }
+        for (int k = 0; k < 40; k++)
+            geometries.add(new Sphere(new Point(random.nextDouble() * 300 - 150, random.nextDouble() * 60 - 80,
+                    random.nextDouble() * 300 - 350), 10 + random.nextDouble() * 15)
+                    .setEmission(new Color(60, 20, 20))
+                    .setMaterial(new Material().setKd(0.4).setKs(0.4).setShininess(50)
+                            .setKT(k % 3 == 0 ? 0.5 : 0).setKR(0.3)));
+        scene.setGeometries(new BVH(geometries.toArray(new Intersectable[0])));
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.lights.add(new PointLight(new Color(500, 400, 300), new Point(100, 150, -100)).setKl(0.0005).setKq(0.00002));
+        scene.lights.add(new PointLight(new Color(300, 300, 500), new Point(-150, 100, 0)).setKl(0.0005).setKq(0.00002));
+    }
+
+    /**
+     * Renders the image.
+     *
+     * @param wavefront true to trace the tiles breadth first
+     * @return the camera, after rendering
+     * @throws CloneNotSupportedException if the camera cannot be built
+     */
+    private Camera render(boolean wavefront) throws CloneNotSupportedException {
+        return Camera.getBuilder()
+                .setDirection(new Vector(0, -0.3, -1), new Vector(0, 1, -0.3))
+                .setRayTracer(new SimpleRayTracer(scene, softShadows).setCountBeam(8).setWavefront(wavefront))
+                .setLocation(new Point(0, 100, 300)).setVpDistance(500)
+                .setVpSize(400, 400)
+                .setImageWriter(new ImageWriter("Wavefront", SIZE, SIZE))
+                .setCountThread(1).setPacketSize(8)
+                .build().renderImage();
+    }
+
+    /**
+     * Renders the image depth first.
+     *
+     * @return the camera, after rendering
+     * @throws CloneNotSupportedException if the camera cannot be built
+     */
+    @Benchmark
+    public Camera depthFirst() throws CloneNotSupportedException {
+        return render(false);
+    }
+
+    /**
+     * Renders the image in wavefront mode.
+     *
+     * @return the camera, after rendering
+     * @throws CloneNotSupportedException if the camera cannot be built
+     */
+    @Benchmark
+    public Camera wavefront() throws CloneNotSupportedException {
+        return render(true);
+    }
+}
@@ -0,0 +1,1044 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Ray;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Represents a collection of intersectable geometries organized in a bounding volume hierarchy (BVH).
+ * The hierarchy is built with the surface area heuristic (SAH), so a ray skips every group of
+ * geometries whose bounding box it misses and the intersection cost grows logarithmically with the
+ * number of geometries instead of linearly. Unbounded geometries (e.g. planes) have no box and are
+ * tested for every ray.
+ * <p>
+ * A BVH can replace {@link Geometries} anywhere (e.g. as the geometries of a scene). The hierarchy
+ * is built lazily on the first query after the collection has changed, or on demand by
+ * {@link #getStatistics()}. Large hierarchies are split with a binned SAH and their sub-hierarchies
+ * are built in parallel on the common fork-join pool; the build time and the quality of the
+ * resulting tree are reported by {@link #getStatistics()}.
+ * <p>
+ * After the build, the tree is compiled into arrays: the node boxes are packed depth first into a
+ * single array of doubles, the children and leaf ranges into int arrays and the geometries are
+ * reordered to match the leaves, so a traversal is a loop over arrays with an explicit stack
+ * instead of following node objects scattered over the heap. On request ({@link #setBatching(boolean)}),
+ * sub-hierarchies of up to {@link TriangleBatch#MAX_SIZE} triangles are compiled into a single leaf
+ * holding a {@link TriangleBatch}.
+ * <p>
+ * For animations, after geometries have moved (e.g. by {@link Sphere#setCenter(primitives.Point)}),
+ * {@link #refit()} updates the boxes of the existing tree bottom-up, which is much cheaper than a new build.
+ * When the refitted boxes overlap so much that the estimated cost of the tree has degraded
+ * past a threshold, the tree is rebuilt instead. A build or refit never changes the current tree: the
+ * new tree replaces it as a whole, so the hierarchy may be refitted while it is queried.
+ */
+public class BVH extends Geometries {
+    /** The cost of traversing a node relative to the cost of intersecting a geometry */
+    private static final double TRAVERSAL_COST = 0.125;
+    /** The maximal number of geometries that may be stored in a single leaf */
+    private static final int MAX_LEAF_SIZE = 4;
+    /** The number of geometries up to which every split position is evaluated instead of binning */
+    private static final int SWEEP_SIZE = 64;
+    /** The number of bins of the binned SAH */
+    private static final int BIN_COUNT = 16;
+    /** The number of geometries from which the two halves of a sub-hierarchy are built in parallel */
+    private static final int PARALLEL_SIZE = 1024;
+    /**
+     * The ratio between the SAH cost of a refitted tree and the cost it had when it was built,
+     * above which a refit rebuilds the tree instead
+     */
+    private static final double REBUILD_THRESHOLD = 1.5;
+    /**
+     * A packet of rays is traversed together as long as at least 1 of every this many of its rays
+     * reach the node; below that, the remaining rays are traversed one by one
+     */
+    private static final int MIN_PACKET_COHERENCE = 4;
+
+    /** Tells whether small sub-hierarchies of triangles are compiled into triangle batches */
+    private volatile boolean batching = false;
+    /** The current tree, null before the first build */
+    private volatile Tree tree = null;
+
+    /**
+     * The statistics of a hierarchy build, for tuning the hierarchy.
+     *
+     * @param geometries      the number of geometries in the collection
+     * @param unbounded       the number of unbounded geometries, tested for every ray
+     * @param buildMillis     the build time in milliseconds
+     * @param nodes           the number of nodes in the tree
+     * @param leaves          the number of leaves in the tree
+     * @param maxDepth        the depth of the deepest leaf (the root is at depth 0)
+     * @param averageLeafSize the average number of geometries in a leaf
+     * @param sahCost         the estimated cost of a ray that hits the root box, by the surface area heuristic,
+     *                        in units of a geometry intersection test (updated by {@link #refit()})
+     */
+    public record Statistics(int geometries, int unbounded, double buildMillis, int nodes, int leaves,
+                             int maxDepth, double averageLeafSize, double sahCost) {
+    }
+
+    /**
+     * A split of geometries into two groups, with its surface area heuristic cost
+     * (the sum of each group's box area times its size).
+     */
+    private static final class Split {
+        final double cost;
+        final List<Entry> left;
+        final List<Entry> right;
+
+        Split(double cost, List<Entry> left, List<Entry> right) {
+            this.cost = cost;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    /**
+     * A fork-join task that builds a sub-hierarchy.
+     */
+    private static final class BuildTask extends RecursiveTask<Node> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Entry> entries;
+
+        BuildTask(List<Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        protected Node compute() {
+            return build(entries);
+        }
+    }
+
+    /**
+     * A node of the hierarchy. An inner node has two children, a leaf holds geometries.
+     */
+    private static final class Node {
+        final BoundingBox box;
+        final Node left;
+        final Node right;
+        final Intersectable[] geometries;
+
+        Node(BoundingBox box, Node left, Node right) {
+            this.box = box;
+            this.left = left;
+            this.right = right;
+            this.geometries = null;
+        }
+
+        Node(BoundingBox box, Intersectable[] geometries) {
+            this.box = box;
+            this.left = null;
+            this.right = null;
+            this.geometries = geometries;
+        }
+    }
+
+    /**
+     * A bounded geometry with its box and box center, used while building the hierarchy.
+     */
+    private static final class Entry {
+        final Intersectable geometry;
+        final BoundingBox box;
+        final double[] center;
+
+        Entry(Intersectable geometry, BoundingBox box) {
+            this.geometry = geometry;
+            this.box = box;
+            this.center = new double[]{box.getCenter(0), box.getCenter(1), box.getCenter(2)};
+        }
+    }
+
+    /**
+     * A compiled hierarchy of the collection. It is not changed after it is built: a refit makes a new
+     * tree with the same structure and new boxes, so a query that took a tree finishes on it even if
+     * the hierarchy is refitted or rebuilt meanwhile.
+     */
+    private static final class Tree {
+        /** The version of the collection that was built */
+        final long version;
+        /** Tells whether the triangles were batched */
+        final boolean batching;
+        /** The number of nodes in the hierarchy of the bounded geometries, 0 if there are none */
+        final int nodes;
+        /**
+         * The boxes of the nodes, packed depth first (so the left child of a node follows it):
+         * minX, minY, minZ, maxX, maxY, maxZ for each node
+         */
+        final double[] nodeBoxes;
+        /**
+         * For a leaf - the position of its first geometry in {@link #primitives},
+         * for an inner node - the index of its right child
+         */
+        final int[] nodeFirst;
+        /** The number of geometries in a leaf, 0 for an inner node */
+        final int[] nodeCount;
+        /** The bounded geometries, in the order of the leaves */
+        final Intersectable[] primitives;
+        /** The size of the traversal stack, which is enough for the deepest leaf */
+        final int stackSize;
+        /** The geometries without a bounding box, tested for every ray */
+        final Intersectable[] unbounded;
+        /** The statistics of the tree */
+        final Statistics statistics;
+        /** The SAH cost of the tree when it was built */
+        final double builtCost;
+
+        /**
+         * Builds the hierarchy of geometries and packs it into the node arrays, depth first,
+         * and the geometries of its leaves into {@link #primitives}, in the order of the leaves.
+         *
+         * @param version    the version of the collection
+         * @param batching   true to batch the triangles
+         * @param geometries the geometries of the collection
+         */
+        Tree(long version, boolean batching, List<Intersectable> geometries) {
+            this.version = version;
+            this.batching = batching;
+            List<Entry> entries = new ArrayList<>();
+            List<Intersectable> infinite = new ArrayList<>();
+            for (Intersectable geometry : geometries) {
+                BoundingBox box = geometry.getBoundingBox();
+                if (box == null)
+                    infinite.add(geometry);
+                else
+                    entries.add(new Entry(geometry, box));
+            }
+            unbounded = infinite.toArray(new Intersectable[0]);
+            long start = System.nanoTime();
+            Node root = entries.isEmpty() ? null : ForkJoinPool.commonPool().invoke(new BuildTask(entries));
+            if (root != null && batching)
+                root = batch(root);
+            statistics = statistics(geometries.size(), unbounded.length, (System.nanoTime() - start) / 1e6, root);
+            builtCost = statistics.sahCost();
+            nodes = statistics.nodes();
+            nodeBoxes = new double[6 * nodes];
+            nodeFirst = new int[nodes];
+            nodeCount = new int[nodes];
+            primitives = new Intersectable[root == null ? 0 : count(root)];
+            stackSize = statistics.maxDepth() + 1;
+            if (root != null)
+                compile(root, 0, 0);
+        }
+
+        /**
+         * Makes a refitted tree, with the structure of a tree and new boxes.
+         *
+         * @param tree       the tree
+         * @param nodeBoxes  the new boxes of the nodes
+         * @param statistics the statistics with the new cost
+         */
+        private Tree(Tree tree, double[] nodeBoxes, Statistics statistics) {
+            this.version = tree.version;
+            this.batching = tree.batching;
+            this.nodes = tree.nodes;
+            this.nodeBoxes = nodeBoxes;
+            this.nodeFirst = tree.nodeFirst;
+            this.nodeCount = tree.nodeCount;
+            this.primitives = tree.primitives;
+            this.stackSize = tree.stackSize;
+            this.unbounded = tree.unbounded;
+            this.statistics = statistics;
+            this.builtCost = tree.builtCost;
+        }
+
+        /**
+         * Packs a sub-hierarchy into the node arrays.
+         *
+         * @param node      the root of the sub-hierarchy
+         * @param index     the index of the node in the arrays
+         * @param primitive the position of the sub-hierarchy's first geometry in {@link #primitives}
+         * @return the index that follows the sub-hierarchy's last node
+         */
+        private int compile(Node node, int index, int primitive) {
+            node.box.copyTo(nodeBoxes, 6 * index);
+            if (node.geometries != null) {
+                nodeFirst[index] = primitive;
+                nodeCount[index] = node.geometries.length;
+                System.arraycopy(node.geometries, 0, primitives, primitive, node.geometries.length);
+                return index + 1;
+            }
+            int right = compile(node.left, index + 1, primitive);
+            nodeFirst[index] = right;
+            nodeCount[index] = 0;
+            return compile(node.right, right, primitive + count(node.left));
+        }
+
+        /**
+         * Makes a tree with the boxes of the nodes updated bottom-up to the current boxes of the geometries,
+         * unless the cost of the tree has degraded.
+         *
+         * @return the refitted tree, or null if the tree must be rebuilt
+         */
+        Tree refit() {
+            if (nodes == 0)
+                return this;
+
+            // The children of a node follow it, so going backwards visits the children before their parent
+            double[] boxes = new double[nodeBoxes.length];
+            double cost = 0;
+            for (int node = nodes - 1; node >= 0; node--) {
+                int b = 6 * node;
+                int count = nodeCount[node];
+                if (count == 0) {
+                    int left = 6 * (node + 1), right = 6 * nodeFirst[node];
+                    for (int axis = 0; axis < 3; axis++) {
+                        boxes[b + axis] = Math.min(boxes[left + axis], boxes[right + axis]);
+                        boxes[b + 3 + axis] = Math.max(boxes[left + 3 + axis], boxes[right + 3 + axis]);
+                    }
+                    cost += surfaceArea(boxes, b) * TRAVERSAL_COST;
+                } else {
+                    BoundingBox box = primitives[nodeFirst[node]].getBoundingBox();
+                    int size = size(primitives[nodeFirst[node]]);
+                    for (int i = nodeFirst[node] + 1, end = nodeFirst[node] + count; i < end; i++) {
+                        box = box.union(primitives[i].getBoundingBox());
+                        size += size(primitives[i]);
+                    }
+                    box.copyTo(boxes, b);
+                    cost += surfaceArea(boxes, b) * size;
+                }
+            }
+            double rootArea = surfaceArea(boxes, 0);
+            cost = rootArea > 0 ? cost / rootArea : statistics.sahCost();
+            if (cost > builtCost * REBUILD_THRESHOLD)
+                return null;
+            return new Tree(this, boxes, new Statistics(statistics.geometries(), statistics.unbounded(),
+                    statistics.buildMillis(), statistics.nodes(), statistics.leaves(), statistics.maxDepth(),
+                    statistics.averageLeafSize(), cost));
+        }
+    }
+
+    /**
+     * default constructor
+     */
+    public BVH() {}
+
+    /**
+     * Constructor that adds given geometries to the hierarchy.
+     *
+     * @param geometries The intersectable geometries to add.
+     */
+    public BVH(Intersectable... geometries) {
+        super(geometries);
+    }
+
+    /**
+     * Constructor that builds a hierarchy over the content of a collection of geometries.
+     * Nested plain collections are flattened so that the hierarchy covers their geometries directly.
+     *
+     * @param geometries The collection to build the hierarchy from.
+     */
+    public BVH(Geometries geometries) {
+        super(geometries.flatten());
+    }
+
+    /**
+     * Sets whether the sub-hierarchies of 2 to {@link TriangleBatch#MAX_SIZE} triangles are compiled
+     * into leaves holding a single {@link TriangleBatch} (off by default). The batches pay off when
+     * their Vector API kernel is available; without it they are about as fast as the separate triangles.
+     * The hierarchy is rebuilt on the next query.
+     *
+     * @param batching true to batch the triangles
+     * @return the hierarchy itself
+     */
+    public BVH setBatching(boolean batching) {
+        this.batching = batching;
+        return this;
+    }
+
+    /**
+     * Tells whether a tree was built from the current content of the collection and batching.
+     *
+     * @param current the tree, may be null
+     * @return true if the tree is current
+     */
+    private boolean isCurrent(Tree current) {
+        return current != null && current.version == version() && current.batching == batching;
+    }
+
+    /**
+     * Returns the current tree, building it if the collection has changed since it was last built.
+     *
+     * @return the tree
+     */
+    private Tree tree() {
+        Tree current = tree;
+        if (isCurrent(current)) return current;
+        synchronized (this) {
+            current = tree;
+            if (isCurrent(current)) return current;
+            current = new Tree(version(), batching, getGeometries());
+            tree = current;
+            return current;
+        }
+    }
+
+    /**
+     * Recursively builds a sub-hierarchy, splitting the geometries where the surface area
+     * heuristic estimates the lowest intersection cost. Large sub-hierarchies are split by binning
+     * the box centers, small ones by sweeping over every split position, and when running in a
+     * fork-join pool the two halves of a large sub-hierarchy are built in parallel.
+     *
+     * @param entries the geometries of the sub-hierarchy
+     * @return the root node of the sub-hierarchy
+     */
+    private static Node build(List<Entry> entries) {
+        int n = entries.size();
+        BoundingBox box = entries.get(0).box;
+        for (Entry entry : entries)
+            box = box.union(entry.box);
+        if (n == 1)
+            return leaf(box, entries);
+
+        Split split = n <= SWEEP_SIZE ? sweepSplit(entries) : binnedSplit(entries);
+
+        // Compare the split with keeping all the geometries in one leaf
+        double parentArea = box.surfaceArea();
+        double splitCost = parentArea > 0 ? TRAVERSAL_COST + split.cost / parentArea : TRAVERSAL_COST + n;
+        if (n <= MAX_LEAF_SIZE && splitCost >= n)
+            return leaf(box, entries);
+
+        if (n >= PARALLEL_SIZE && ForkJoinTask.inForkJoinPool()) {
+            BuildTask leftTask = new BuildTask(split.left);
+            leftTask.fork();
+            Node right = build(split.right);
+            return new Node(box, leftTask.join(), right);
+        }
+        Node left = build(split.left);
+        Node right = build(split.right);
+        return new Node(box, left, right);
+    }
+
+    /**
+     * Finds the best split of the geometries by sorting their box centers along every axis
+     * and evaluating every split position.
+     *
+     * @param entries the geometries to split
+     * @return the best split
+     */
+    private static Split sweepSplit(List<Entry> entries) {
+        int n = entries.size();
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        int bestSplit = 0;
+        double[] rightAreas = new double[n];
+        for (int axis = 0; axis < 3; axis++) {
+            final int a = axis;
+            entries.sort(Comparator.comparingDouble(e -> e.center[a]));
+
+            // Sweep from the right to get the area of every right part
+            BoundingBox right = entries.get(n - 1).box;
+            for (int i = n - 1; i > 0; i--) {
+                right = right.union(entries.get(i).box);
+                rightAreas[i] = right.surfaceArea();
+            }
+            // Sweep from the left and evaluate every split position
+            BoundingBox left = entries.get(0).box;
+            for (int i = 1; i < n; i++) {
+                left = left.union(entries.get(i - 1).box);
+                double cost = left.surfaceArea() * i + rightAreas[i] * (n - i);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestSplit = i;
+                }
+            }
+        }
+
+        final int a = bestAxis;
+        entries.sort(Comparator.comparingDouble(e -> e.center[a]));
+        return new Split(bestCost, new ArrayList<>(entries.subList(0, bestSplit)),
+                new ArrayList<>(entries.subList(bestSplit, n)));
+    }
+
+    /**
+     * Finds the best split of the geometries by distributing their box centers into
+     * {@link #BIN_COUNT} equal bins along every axis and evaluating the splits between the bins.
+     * The cost is linear in the number of geometries. If all the centers coincide,
+     * the geometries are split into two halves.
+     *
+     * @param entries the geometries to split
+     * @return the best split
+     */
+    private static Split binnedSplit(List<Entry> entries) {
+        int n = entries.size();
+        double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (Entry entry : entries)
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], entry.center[axis]);
+                max[axis] = Math.max(max[axis], entry.center[axis]);
+            }
+
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        int bestBin = 0;
+        int[] counts = new int[BIN_COUNT];
+        BoundingBox[] boxes = new BoundingBox[BIN_COUNT];
+        double[] rightAreas = new double[BIN_COUNT];
+        int[] rightCounts = new int[BIN_COUNT];
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = max[axis] - min[axis];
+            if (extent <= 0)
+                continue;
+            Arrays.fill(counts, 0);
+            Arrays.fill(boxes, null);
+            for (Entry entry : entries) {
+                int bin = bin(entry, axis, min[axis], extent);
+                counts[bin]++;
+                boxes[bin] = boxes[bin] == null ? entry.box : boxes[bin].union(entry.box);
+            }
+
+            // Sweep from the right to get the area and size of every right part
+            BoundingBox right = null;
+            int rightCount = 0;
+            for (int i = BIN_COUNT - 1; i > 0; i--) {
+                if (boxes[i] != null)
+                    right = right == null ? boxes[i] : right.union(boxes[i]);
+                rightCount += counts[i];
+                rightAreas[i] = right == null ? 0 : right.surfaceArea();
+                rightCounts[i] = rightCount;
+            }
+            // Sweep from the left and evaluate the split before every bin
+            BoundingBox left = null;
+            int leftCount = 0;
+            for (int i = 1; i < BIN_COUNT; i++) {
+                if (boxes[i - 1] != null)
+                    left = left == null ? boxes[i - 1] : left.union(boxes[i - 1]);
+                leftCount += counts[i - 1];
+                if (leftCount == 0 || rightCounts[i] == 0)
+                    continue;
+                double cost = left.surfaceArea() * leftCount + rightAreas[i] * rightCounts[i];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = i;
+                }
+            }
+        }
+
+        if (bestAxis < 0) {
+            BoundingBox box = entries.get(0).box;
+            for (Entry entry : entries)
+                box = box.union(entry.box);
+            return new Split(box.surfaceArea() * n, new ArrayList<>(entries.subList(0, n / 2)),
+                    new ArrayList<>(entries.subList(n / 2, n)));
+        }
+
+        List<Entry> left = new ArrayList<>();
+        List<Entry> right = new ArrayList<>();
+        double extent = max[bestAxis] - min[bestAxis];
+        for (Entry entry : entries)
+            (bin(entry, bestAxis, min[bestAxis], extent) < bestBin ? left : right).add(entry);
+        return new Split(bestCost, left, right);
+    }
+
+    /**
+     * Finds the bin of a geometry's box center along an axis.
+     *
+     * @param entry  the geometry
+     * @param axis   the axis
+     * @param min    the minimal box center along the axis
+     * @param extent the extent of the box centers along the axis
+     * @return the bin index
+     */
+    private static int bin(Entry entry, int axis, double min, double extent) {
+        return Math.min(BIN_COUNT - 1, (int) ((entry.center[axis] - min) * BIN_COUNT / extent));
+    }
+
+    /**
+     * Creates a leaf holding the given geometries.
+     *
+     * @param box     the box of the leaf
+     * @param entries the geometries of the leaf
+     * @return the leaf node
+     */
+    private static Node leaf(BoundingBox box, List<Entry> entries) {
+        Intersectable[] leafGeometries = new Intersectable[entries.size()];
+        for (int i = 0; i < leafGeometries.length; i++)
+            leafGeometries[i] = entries.get(i).geometry;
+        return new Node(box, leafGeometries);
+    }
+
+    /**
+     * Replaces every sub-hierarchy of 2 to {@link TriangleBatch#MAX_SIZE} triangles by a leaf
+     * holding a single {@link TriangleBatch}, which intersects all of them in one pass.
+     *
+     * @param node the root of the sub-hierarchy
+     * @return the root of the sub-hierarchy with its triangles batched
+     */
+    private static Node batch(Node node) {
+        int count = count(node);
+        if (count > TriangleBatch.MAX_SIZE) {
+            Node left = batch(node.left), right = batch(node.right);
+            return left == node.left && right == node.right ? node : new Node(node.box, left, right);
+        }
+        if (count < 2)
+            return node;
+        Triangle[] triangles = new Triangle[count];
+        if (!collectTriangles(node, triangles, 0))
+            return node;
+        return new Node(node.box, new Intersectable[]{new TriangleBatch(triangles)});
+    }
+
+    /**
+     * Collects the geometries of a sub-hierarchy if they are all plain triangles
+     * (not of a subclass, which may intersect differently).
+     *
+     * @param node      the root of the sub-hierarchy
+     * @param triangles receives the triangles
+     * @param position  the position of the sub-hierarchy's first triangle in the array
+     * @return true if all the geometries are triangles
+     */
+    private static boolean collectTriangles(Node node, Triangle[] triangles, int position) {
+        if (node.geometries == null)
+            return collectTriangles(node.left, triangles, position)
+                    && collectTriangles(node.right, triangles, position + count(node.left));
+        for (Intersectable geometry : node.geometries) {
+            if (geometry.getClass() != Triangle.class)
+                return false;
+            triangles[position++] = (Triangle) geometry;
+        }
+        return true;
+    }
+
+    /**
+     * Builds the hierarchy if needed and returns the statistics of its build.
+     *
+     * @return the statistics of the current hierarchy
+     */
+    public Statistics getStatistics() {
+        return tree().statistics;
+    }
+
+    /**
+     * Updates the hierarchy to the current bounding boxes of its geometries, after some of them have moved.
+     * The boxes of the leaves are recalculated and the boxes of the inner nodes are updated bottom-up,
+     * keeping the structure of the tree. If the refitted tree's SAH cost is more than
+     * {@link #REBUILD_THRESHOLD} times its cost when it was built, the tree is rebuilt instead.
+     * The geometries of the hierarchy are refitted first. The new boxes are published as a new tree,
+     * so queries that run meanwhile finish on the old one.
+     *
+     * @return true if the tree (or a nested structure) was rebuilt, false if it was refitted
+     */
+    @Override
+    public boolean refit() {
+        boolean rebuilt = false;
+        for (Intersectable geometry : getGeometries())
+            rebuilt |= geometry.refit();
+        synchronized (this) {
+            Tree current = tree;
+            if (isCurrent(current)) {
+                Tree refitted = current.refit();
+                if (refitted != null) {
+                    tree = refitted;
+                    return rebuilt;
+                }
+            }
+            tree = new Tree(version(), batching, getGeometries());
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of geometries a primitive of a leaf stands for,
+     * so the statistics and SAH cost count the triangles of a batch separately.
+     *
+     * @param primitive the primitive
+     * @return the size of a triangle batch, 1 for any other geometry
+     */
+    private static int size(Intersectable primitive) {
+        return primitive instanceof TriangleBatch batch ? batch.size() : 1;
+    }
+
+    /**
+     * Calculates the surface area of a packed node box.
+     *
+     * @param boxes  the packed node boxes
+     * @param offset the index of the box's first coordinate in the array
+     * @return the surface area
+     */
+    private static double surfaceArea(double[] boxes, int offset) {
+        double dx = boxes[offset + 3] - boxes[offset];
+        double dy = boxes[offset + 4] - boxes[offset + 1];
+        double dz = boxes[offset + 5] - boxes[offset + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Calculates the statistics of a tree.
+     *
+     * @param geometries  the number of geometries in the collection
+     * @param unbounded   the number of unbounded geometries
+     * @param buildMillis the build time in milliseconds
+     * @param root        the root of the tree, null if it is empty
+     * @return the statistics
+     */
+    private static Statistics statistics(int geometries, int unbounded, double buildMillis, Node root) {
+        // nodes, leaves, maximal depth, geometries in leaves, cost
+        double[] totals = new double[5];
+        if (root != null)
+            collect(root, 0, root.box.surfaceArea(), totals);
+        return new Statistics(geometries, unbounded, buildMillis, (int) totals[0], (int) totals[1], (int) totals[2],
+                totals[1] == 0 ? 0 : totals[3] / totals[1], totals[4]);
+    }
+
+    /**
+     * Adds the nodes of a sub-hierarchy to the statistics totals.
+     *
+     * @param node     the root of the sub-hierarchy
+     * @param depth    the depth of the node
+     * @param rootArea the surface area of the root box
+     * @param totals   the nodes, leaves, maximal depth, geometries in leaves and cost counted so far
+     */
+    private static void collect(Node node, int depth, double rootArea, double[] totals) {
+        double probability = rootArea > 0 ? node.box.surfaceArea() / rootArea : 1;
+        totals[0]++;
+        if (node.geometries != null) {
+            int size = 0;
+            for (Intersectable geometry : node.geometries)
+                size += size(geometry);
+            totals[1]++;
+            totals[2] = Math.max(totals[2], depth);
+            totals[3] += size;
+            totals[4] += probability * size;
+            return;
+        }
+        totals[4] += probability * TRAVERSAL_COST;
+        collect(node.left, depth + 1, rootArea, totals);
+        collect(node.right, depth + 1, rootArea, totals);
+    }
+
+    /**
+     * Counts the geometries of a sub-hierarchy.
+     *
+     * @param node the root of the sub-hierarchy
+     * @return the number of geometries in its leaves
+     */
+    private static int count(Node node) {
+        return node.geometries != null ? node.geometries.length : count(node.left) + count(node.right);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        Tree tree = tree();
+        double[] boxes = tree.nodeBoxes;
+        return tree.nodes == 0 || tree.unbounded.length > 0 ? null
+                : new BoundingBox(boxes[0], boxes[1], boxes[2], boxes[3], boxes[4], boxes[5]);
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        Tree tree = tree();
+        List<GeoPoint> intersectionsResult = null;
+        for (Intersectable geometry : tree.unbounded)
+            intersectionsResult = addIntersections(intersectionsResult, geometry, ray, maxDistance);
+        if (tree.nodes == 0)
+            return intersectionsResult;
+
+        TraversalScratch scratch = TraversalScratch.acquire().forRay(tree.stackSize + 1);
+        try {
+            double[] data = BoundingBox.rayData(ray, scratch.ray);
+            int[] stack = scratch.nodes;
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                if (BoundingBox.intersectionDistance(tree.nodeBoxes, 6 * node, data, maxDistance) == Double.POSITIVE_INFINITY)
+                    continue;
+                int count = tree.nodeCount[node];
+                if (count == 0) {
+                    stack[top++] = tree.nodeFirst[node];
+                    stack[top++] = node + 1;
+                    continue;
+                }
+                for (int i = tree.nodeFirst[node], end = i + count; i < end; i++)
+                    intersectionsResult = addIntersections(intersectionsResult, tree.primitives[i], ray, maxDistance);
+            }
+            return intersectionsResult;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the geometries of the hierarchy. The children
+     * of every node are visited front to back, and a node is skipped when the ray enters it beyond
+     * the closest intersection already found.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Tree tree = tree();
+        GeoPoint closest = null;
+        for (Intersectable geometry : tree.unbounded) {
+            GeoPoint intersection = geometry.findClosestGeoIntersection(ray, maxDistance);
+            if (intersection != null) {
+                closest = intersection;
+                maxDistance = ray.getHead().distance(intersection.point);
+            }
+        }
+        if (tree.nodes == 0)
+            return closest;
+
+        TraversalScratch scratch = TraversalScratch.acquire().forRay(tree.stackSize + 1);
+        try {
+            double[] data = BoundingBox.rayData(ray, scratch.ray);
+            double distance = BoundingBox.intersectionDistance(tree.nodeBoxes, 0, data, maxDistance);
+            if (distance == Double.POSITIVE_INFINITY)
+                return closest;
+            int[] nodeStack = scratch.nodes;
+            double[] distanceStack = scratch.distances;
+            int top = 0;
+            nodeStack[top] = 0;
+            distanceStack[top++] = distance;
+            while (top > 0) {
+                int node = nodeStack[--top];
+                if (distanceStack[top] > maxDistance)
+                    continue;
+                int count = tree.nodeCount[node];
+                if (count == 0) {
+                    top = pushChildren(tree, node, data, maxDistance, nodeStack, distanceStack, top);
+                    continue;
+                }
+                for (int i = tree.nodeFirst[node], end = i + count; i < end; i++) {
+                    GeoPoint intersection = tree.primitives[i].findClosestGeoIntersection(ray, maxDistance);
+                    if (intersection != null) {
+                        closest = intersection;
+                        maxDistance = ray.getHead().distance(intersection.point);
+                    }
+                }
+            }
+            return closest;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Pushes the children of an inner node whose boxes are hit by a ray onto the traversal stack,
+     * the nearer child last so it is visited first.
+     *
+     * @param tree          the tree
+     * @param node          the inner node
+     * @param data          the ray data, see {@link BoundingBox#rayData(Ray, double[])}
+     * @param maxDistance   the distance beyond which the children are ignored
+     * @param nodeStack     the stack of nodes to visit
+     * @param distanceStack the entry distances of the nodes in the stack
+     * @param top           the size of the stack
+     * @return the new size of the stack
+     */
+    private static int pushChildren(Tree tree, int node, double[] data, double maxDistance, int[] nodeStack, double[] distanceStack, int top) {
+        int near = node + 1, far = tree.nodeFirst[node];
+        double nearDistance = BoundingBox.intersectionDistance(tree.nodeBoxes, 6 * near, data, maxDistance);
+        double farDistance = BoundingBox.intersectionDistance(tree.nodeBoxes, 6 * far, data, maxDistance);
+        if (farDistance < nearDistance) {
+            int n = near; near = far; far = n;
+            double d = nearDistance; nearDistance = farDistance; farDistance = d;
+        }
+        if (farDistance != Double.POSITIVE_INFINITY) {
+            nodeStack[top] = far;
+            distanceStack[top++] = farDistance;
+        }
+        if (nearDistance != Double.POSITIVE_INFINITY) {
+            nodeStack[top] = near;
+            distanceStack[top++] = nearDistance;
+        }
+        return top;
+    }
+
+    /**
+     * Accumulates the transparency of the geometries that block a ray,
+     * stopping as soon as the ray is blocked.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        Tree tree = tree();
+        for (Intersectable geometry : tree.unbounded) {
+            ktr = geometry.findTransparencyHelper(ray, maxDistance, ktr, minK);
+            if (ktr.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        if (tree.nodes == 0)
+            return ktr;
+
+        TraversalScratch scratch = TraversalScratch.acquire().forRay(tree.stackSize + 1);
+        try {
+            double[] data = BoundingBox.rayData(ray, scratch.ray);
+            int[] stack = scratch.nodes;
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                if (BoundingBox.intersectionDistance(tree.nodeBoxes, 6 * node, data, maxDistance) == Double.POSITIVE_INFINITY)
+                    continue;
+                int count = tree.nodeCount[node];
+                if (count == 0) {
+                    stack[top++] = tree.nodeFirst[node];
+                    stack[top++] = node + 1;
+                    continue;
+                }
+                for (int i = tree.nodeFirst[node], end = i + count; i < end; i++) {
+                    ktr = tree.primitives[i].findTransparencyHelper(ray, maxDistance, ktr, minK);
+                    if (ktr.lowerThan(minK))
+                        return Double3.ZERO;
+                }
+            }
+            return ktr;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the geometries of the hierarchy without
+     * allocating intersection points. The children of every node are visited front to back,
+     * and a node is skipped when the ray enters it beyond the closest intersection in the record.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        Tree tree = tree();
+        boolean found = false;
+        for (Intersectable geometry : tree.unbounded)
+            if (geometry.intersectHelper(ray, hit))
+                found = true;
+        if (tree.nodes == 0)
+            return found;
+        return traverse(tree, ray, hit, 0) || found;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the geometries of a sub-hierarchy.
+     *
+     * @param tree the tree
+     * @param ray  the ray
+     * @param hit  the record of the closest intersection found so far, updated in place
+     * @param root the index of the sub-hierarchy's root node
+     * @return true if a closer intersection was found, false otherwise
+     */
+    private static boolean traverse(Tree tree, Ray ray, HitRecord hit, int root) {
+        TraversalScratch scratch = TraversalScratch.acquire().forRay(tree.stackSize + 1);
+        try {
+            double[] data = BoundingBox.rayData(ray, scratch.ray);
+            double distance = BoundingBox.intersectionDistance(tree.nodeBoxes, 6 * root, data, hit.t);
+            if (distance == Double.POSITIVE_INFINITY)
+                return false;
+            boolean found = false;
+            int[] nodeStack = scratch.nodes;
+            double[] distanceStack = scratch.distances;
+            int top = 0;
+            nodeStack[top] = root;
+            distanceStack[top++] = distance;
+            while (top > 0) {
+                int node = nodeStack[--top];
+                if (distanceStack[top] > hit.t)
+                    continue;
+                int count = tree.nodeCount[node];
+                if (count == 0) {
+                    top = pushChildren(tree, node, data, hit.t, nodeStack, distanceStack, top);
+                    continue;
+                }
+                for (int i = tree.nodeFirst[node], end = i + count; i < end; i++)
+                    if (tree.primitives[i].intersectHelper(ray, hit))
+                        found = true;
+            }
+            return found;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the closest intersections of a packet of rays, traversing the hierarchy once for the packet.
+     * A node is skipped when it is outside the frustum of the packet, and otherwise only the rays that
+     * enter its box before their closest intersection so far go on to its children. When fewer than
+     * 1/{@link #MIN_PACKET_COHERENCE} of the packet's rays reach a node, the packet has diverged and
+     * each of those rays finishes the node's sub-hierarchy alone.
+     */
+    @Override
+    protected void intersectHelper(RayPacket packet, HitRecord[] hits) {
+        Tree tree = tree();
+        int n = packet.size();
+        for (Intersectable geometry : tree.unbounded)
+            for (int i = 0; i < n; i++)
+                geometry.intersectHelper(packet.getRay(i), hits[i]);
+        if (tree.nodes == 0)
+            return;
+
+        // The active rays of every node on the stack, in a slot of n places per stack entry
+        TraversalScratch scratch = TraversalScratch.acquire().forPacket(tree.stackSize + 1, n);
+        try {
+            int[] nodeStack = scratch.nodes;
+            int[] countStack = scratch.counts;
+            int[] activeStack = scratch.activeStack;
+            int[] active = scratch.active;
+            for (int i = 0; i < n; i++)
+                activeStack[i] = i;
+            int top = 0;
+            nodeStack[top] = 0;
+            countStack[top++] = n;
+            while (top > 0) {
+                int node = nodeStack[--top];
+                if (packet.culls(tree.nodeBoxes, 6 * node))
+                    continue;
+                int count = packet.hitBox(tree.nodeBoxes, 6 * node, hits, activeStack, top * n, countStack[top], active);
+                if (count == 0)
+                    continue;
+                if (count * MIN_PACKET_COHERENCE < n) {
+                    for (int k = 0; k < count; k++)
+                        traverse(tree, packet.getRay(active[k]), hits[active[k]], node);
+                    continue;
+                }
+                int primitiveCount = tree.nodeCount[node];
+                if (primitiveCount > 0) {
+                    for (int i = tree.nodeFirst[node], end = i + primitiveCount; i < end; i++)
+                        for (int k = 0; k < count; k++)
+                            tree.primitives[i].intersectHelper(packet.getRay(active[k]), hits[active[k]]);
+                    continue;
+                }
+                // The child the first active ray enters first is visited first
+                double[] data = BoundingBox.rayData(packet.getRay(active[0]), scratch.ray);
+                int near = node + 1, far = tree.nodeFirst[node];
+                if (BoundingBox.intersectionDistance(tree.nodeBoxes, 6 * far, data, Double.POSITIVE_INFINITY)
+                        < BoundingBox.intersectionDistance(tree.nodeBoxes, 6 * near, data, Double.POSITIVE_INFINITY)) {
+                    int child = near; near = far; far = child;
+                }
+                System.arraycopy(active, 0, activeStack, top * n, count);
+                nodeStack[top] = far;
+                countStack[top++] = count;
+                System.arraycopy(active, 0, activeStack, top * n, count);
+                nodeStack[top] = near;
+                countStack[top++] = count;
+            }
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Adds the intersections of a ray with a single geometry to the result.
+     *
+     * @param intersectionsResult the intersections found so far (may be null)
+     * @param geometry            the geometry to intersect
+     * @param ray                 the ray to intersect
+     * @param maxDistance         the distance beyond which intersections are ignored
+     * @return the updated result, or null if there are still no intersections
+     */
+    private static List<GeoPoint> addIntersections(List<GeoPoint> intersectionsResult, Intersectable geometry,
+                                                   Ray ray, double maxDistance) {
+        var intersections = geometry.findGeoIntersections(ray, maxDistance);
+        if (intersections != null) {
+            if (intersectionsResult == null)
+                intersectionsResult = new LinkedList<>();
+            intersectionsResult.addAll(intersections);
+        }
+        return intersectionsResult;
+    }
+}
@@ -0,0 +1,232 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+
+/**
+ * Represents an axis-aligned bounding box (AABB) in 3D space.
+ * The box is described by its minimal and maximal corners and is used
+ * to quickly reject rays that cannot hit the geometries enclosed by it.
+ */
+public final class BoundingBox {
+
+    /** The minimal corner of the box */
+    final double minX, minY, minZ;
+    /** The maximal corner of the box */
+    final double maxX, maxY, maxZ;
+
+    /**
+     * Constructs a bounding box from its minimal and maximal coordinates.
+     *
+     * @param minX minimal x coordinate
+     * @param minY minimal y coordinate
+     * @param minZ minimal z coordinate
+     * @param maxX maximal x coordinate
+     * @param maxY maximal y coordinate
+     * @param maxZ maximal z coordinate
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest bounding box that contains all the given points.
+     *
+     * @param points the points to enclose
+     * @throws IllegalArgumentException if no points are given
+     */
+    public BoundingBox(Point... points) {
+        if (points.length == 0)
+            throw new IllegalArgumentException("A bounding box needs at least one point");
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            x0 = Math.min(x0, p.getX());
+            y0 = Math.min(y0, p.getY());
+            z0 = Math.min(z0, p.getZ());
+            x1 = Math.max(x1, p.getX());
+            y1 = Math.max(y1, p.getY());
+            z1 = Math.max(z1, p.getZ());
+        }
+        minX = x0;
+        minY = y0;
+        minZ = z0;
+        maxX = x1;
+        maxY = y1;
+        maxZ = z1;
+    }
+
+    /**
+     * Returns the minimal corner of the box.
+     *
+     * @return the minimal corner
+     */
+    public Point getMin() {
+        return new Point(minX, minY, minZ);
+    }
+
+    /**
+     * Returns the maximal corner of the box.
+     *
+     * @return the maximal corner
+     */
+    public Point getMax() {
+        return new Point(maxX, maxY, maxZ);
+    }
+
+    /**
+     * Returns the smallest box that contains both this box and the other one.
+     *
+     * @param other the other box
+     * @return the union box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(
+                Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Returns the center of the box along the given axis.
+     *
+     * @param axis 0 for x, 1 for y, 2 for z
+     * @return the center coordinate on that axis
+     */
+    public double getCenter(int axis) {
+        return switch (axis) {
+            case 0 -> (minX + maxX) / 2;
+            case 1 -> (minY + maxY) / 2;
+            default -> (minZ + maxZ) / 2;
+        };
+    }
+
+    /**
+     * Calculates the surface area of the box, used by the surface area heuristic.
+     *
+     * @return the surface area of the box
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX;
+        double dy = maxY - minY;
+        double dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Checks whether a ray hits the box before a given distance (slab test).
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the distance along the ray beyond which hits are ignored
+     * @return true if the ray enters the box within the distance, false otherwise
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        return intersectionDistance(ray, maxDistance) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Calculates the distance along a ray at which it enters the box (slab test).
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the distance along the ray beyond which hits are ignored
+     * @return the entry distance (0 if the ray starts inside the box),
+     *         or positive infinity if the ray misses the box within the distance
+     */
+    public double intersectionDistance(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        double tNear = 0;
+        double tFar = maxDistance;
+
+        double inv = ray.getInvX();
+        double t0 = (minX - head.getX()) * inv;
+        double t1 = (maxX - head.getX()) * inv;
+        if (inv < 0) { double t = t0; t0 = t1; t1 = t; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        inv = ray.getInvY();
+        t0 = (minY - head.getY()) * inv;
+        t1 = (maxY - head.getY()) * inv;
+        if (inv < 0) { double t = t0; t0 = t1; t1 = t; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        inv = ray.getInvZ();
+        t0 = (minZ - head.getZ()) * inv;
+        t1 = (maxZ - head.getZ()) * inv;
+        if (inv < 0) { double t = t0; t0 = t1; t1 = t; }
+        if (t0 > tNear) tNear = t0;
+        if (t1 < tFar) tFar = t1;
+        return tNear <= tFar ? tNear : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Writes the box into an array of packed boxes, as minX, minY, minZ, maxX, maxY, maxZ.
+     *
+     * @param boxes  the packed boxes
+     * @param offset the index of the box's first coordinate in the array
+     */
+    void copyTo(double[] boxes, int offset) {
+        boxes[offset] = minX;
+        boxes[offset + 1] = minY;
+        boxes[offset + 2] = minZ;
+        boxes[offset + 3] = maxX;
+        boxes[offset + 4] = maxY;
+        boxes[offset + 5] = maxZ;
+    }
+
+    /**
+     * Packs the ray data used by {@link #intersectionDistance(double[], int, double[], double)} into a
+     * reused array, so a traversal reads the inverse direction of the ray once for all of its box tests.
+     *
+     * @param ray  the ray
+     * @param data receives the ray head coordinates followed by the inverse direction components
+     * @return the data array
+     */
+    static double[] rayData(Ray ray, double[] data) {
+        Point head = ray.getHead();
+        data[0] = head.getX();
+        data[1] = head.getY();
+        data[2] = head.getZ();
+        data[3] = ray.getInvX();
+        data[4] = ray.getInvY();
+        data[5] = ray.getInvZ();
+        return data;
+    }
+
+    /**
+     * Calculates the distance along a ray at which it enters a box packed in an array (slab test),
+     * as in {@link #intersectionDistance(Ray, double)}.
+     *
+     * @param boxes       the packed boxes: minX, minY, minZ, maxX, maxY, maxZ of each box
+     * @param offset      the index of the box's first coordinate in the array
+     * @param ray         the ray data, see {@link #rayData(Ray, double[])}
+     * @param maxDistance the distance along the ray beyond which hits are ignored
+     * @return the entry distance (0 if the ray starts inside the box),
+     *         or positive infinity if the ray misses the box within the distance
+     */
+    static double intersectionDistance(double[] boxes, int offset, double[] ray, double maxDistance) {
+        double tNear = 0, tFar = maxDistance;
+        for (int axis = 0; axis < 3; axis++) {
+            double inv = ray[3 + axis];
+            double t0 = (boxes[offset + axis] - ray[axis]) * inv;
+            double t1 = (boxes[offset + 3 + axis] - ray[axis]) * inv;
+            if (inv < 0) { double t = t0; t0 = t1; t1 = t; }
+            if (t0 > tNear) tNear = t0;
+            if (t1 < tFar) tFar = t1;
+            if (tNear > tFar) return Double.POSITIVE_INFINITY;
+        }
+        return tNear;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox: min= (" + minX + "," + minY + "," + minZ + "), max= (" + maxX + "," + maxY + "," + maxZ + ")";
+    }
+}
@@ -2,6 +2,10 @@ package geometries;
 
 import primitives.*;
 
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
@@ -12,6 +16,9 @@ public class Cylinder extends Tube {
 
     private final double height;
 
+    /** The bounding box of the cylinder */
+    private final BoundingBox box;
+
     /**
      * Constructs a new Cylinder with the specified radius, axis, and height.
      *
@@ -25,6 +32,27 @@ public class Cylinder extends Tube {
             throw new IllegalArgumentException("Height must be greater than 0.");
         }
         this.height = height;
+
+        // The box of a cylinder is the box of its two bases, each base extends
+        // radius*sqrt(1-d^2) along an axis whose direction component is d
+        Point bottom = axis.getHead();
+        Point top = axis.getPoint(height);
+        Vector v = axis.getDirection();
+        double eX = radius * Math.sqrt(Math.max(0, 1 - v.getX() * v.getX()));
+        double eY = radius * Math.sqrt(Math.max(0, 1 - v.getY() * v.getY()));
+        double eZ = radius * Math.sqrt(Math.max(0, 1 - v.getZ() * v.getZ()));
+        box = new BoundingBox(
+                Math.min(bottom.getX(), top.getX()) - eX,
+                Math.min(bottom.getY(), top.getY()) - eY,
+                Math.min(bottom.getZ(), top.getZ()) - eZ,
+                Math.max(bottom.getX(), top.getX()) + eX,
+                Math.max(bottom.getY(), top.getY()) + eY,
+                Math.max(bottom.getZ(), top.getZ()) + eZ);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
     }
 
 
@@ -40,4 +68,73 @@ public class Cylinder extends Tube {
        //Calculation of the normal to the point on the side of the cylinder:
         return super.getNormal(point);
     }
+
+    /**
+     * Calculates the distance along a ray to its intersection with a base of the cylinder.
+     * Points on the rim of the base are not considered intersections.
+     *
+     * @param ray the ray
+     * @param s   the axial coordinate of the base: 0 for the bottom, height for the top
+     * @return the distance (may be negative), or NaN if the ray is parallel to the base or misses it
+     */
+    private double baseDistance(Ray ray, double s) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double vd = direction.getX() * dx + direction.getY() * dy + direction.getZ() * dz;
+        if (isZero(vd))
+            return Double.NaN;
+        double t = alignZero((s - ((head.getX() - ax) * dx + (head.getY() - ay) * dy + (head.getZ() - az) * dz)) / vd);
+        // The vector from the center of the base to the point
+        double x = head.getX() + direction.getX() * t - (ax + dx * s);
+        double y = head.getY() + direction.getY() * t - (ay + dy * s);
+        double z = head.getZ() + direction.getZ() * t - (az + dz * s);
+        return alignZero(x * x + y * y + z * z - radius * radius) < 0 ? t : Double.NaN;
+    }
+
+    /**
+     * Finds the intersection points between the given ray and the cylinder: its side between
+     * the bases and the two bases.
+     *
+     * @param ray         the ray to check for intersections with the cylinder.
+     * @param maxDistance the distance beyond which intersections are ignored.
+     * @return the intersection points, sorted by distance, or null if there are none.
+     */
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = sideIntersections(ray, maxDistance, 0, height);
+        Point head = ray.getHead();
+        for (int k = 0; k < 2; k++) {
+            double t = baseDistance(ray, k == 0 ? 0 : height);
+            if (t > 0 && alignZero(t - maxDistance) <= 0) {
+                if (intersections == null)
+                    intersections = new LinkedList<>();
+                // the side points are sorted, so the base point is inserted in place (of at most 4 points)
+                int position = 0;
+                while (position < intersections.size() && intersections.get(position).point.distance(head) < t)
+                    position++;
+                intersections.add(position, new GeoPoint(this, ray.getPoint(t)));
+            }
+        }
+        return intersections;
+    }
+
+    /**
+     * Finds the closest intersection point between the given ray and the cylinder without allocations.
+     *
+     * @param ray the ray to check for intersections with the cylinder.
+     * @param hit the record of the closest intersection found so far.
+     * @return true if the cylinder has a closer intersection point, false otherwise.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        boolean found = intersectSide(ray, hit, 0, height);
+        for (int k = 0; k < 2; k++) {
+            double t = baseDistance(ray, k == 0 ? 0 : height);
+            if (t > 0 && alignZero(t - hit.t) < 0) {
+                hit.set(this, ray, t);
+                found = true;
+            }
+        }
+        return found;
+    }
 }
@@ -1,15 +1,43 @@
 package geometries;
 import primitives.*;
-import java.util.Collections;
+
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
  * Represents a collection of intersectable geometries.
+ * The bounded geometries are kept apart from the unbounded ones (e.g. planes): the bounding box of
+ * every bounded geometry is kept alongside it, and a ray skips the geometries whose box it does not
+ * hit - or all of them, if it misses the box of the whole bounded part - without running their full
+ * intersection test. The few unbounded geometries have no box to test, so they are tested for every
+ * ray by a separate loop, and they don't prevent culling the bounded part.
+ * The boxes are taken on the first query after the content of the collection has changed. A change
+ * inside a child (e.g. a moved sphere or a geometry added to a nested collection) is taken by
+ * {@link #refit()}, which publishes the new boxes as a whole, so it may run while the collection is queried.
  */
 public class Geometries extends Intersectable{
 
-    protected List<Intersectable> geometries =new LinkedList<>();
+    private final List<Intersectable> geometries =new ArrayList<>();
+
+    /** The number of changes made to the content of the collection */
+    private volatile long version = 0;
+    /** The bounded and unbounded parts of the collection, null until the first query */
+    private volatile Parts parts = null;
+
+    /**
+     * The geometries of the collection split into bounded and unbounded ones,
+     * with the boxes they had when the parts were taken.
+     *
+     * @param version       the version of the collection's content that was split
+     * @param bounded       the geometries that have a bounding box
+     * @param boxes         the bounding boxes of the bounded geometries, in the same order
+     * @param unbounded     the geometries without a bounding box, tested for every ray
+     * @param box           the bounding box of the bounded geometries, null if there are none
+     */
+    private record Parts(long version, Intersectable[] bounded, BoundingBox[] boxes,
+                         Intersectable[] unbounded, BoundingBox box) {
+    }
 
     /**
      * default constructor
@@ -30,12 +58,123 @@ public class Geometries extends Intersectable{
      *
      * @param geometries The geometries to add.
      */
-    public void add(Intersectable... geometries){
-        Collections.addAll(this.geometries,geometries);
+    public synchronized void add(Intersectable... geometries){
+        this.geometries.addAll(List.of(geometries));
+        version++;
+    }
+
+    /**
+     * Returns the geometries of the collection, for the subclasses that organize them.
+     *
+     * @return a copy of the geometries, in the order they were added
+     */
+    protected synchronized List<Intersectable> getGeometries() {
+        return List.copyOf(geometries);
+    }
+
+    /**
+     * Returns the version of the collection's content, which grows with every change of the content
+     * (e.g. adding geometries), so a subclass can tell whether what it has built is still current.
+     *
+     * @return the number of changes made to the content of the collection
+     */
+    protected final long version() {
+        return version;
+    }
+
+    /**
+     * Returns the bounded and unbounded parts of the collection,
+     * splitting the collection again if its content has changed since the last split.
+     *
+     * @return the parts of the collection
+     */
+    private Parts parts() {
+        Parts current = parts;
+        if (current != null && current.version() == version)
+            return current;
+        synchronized (this) {
+            current = parts;
+            if (current != null && current.version() == version)
+                return current;
+            current = split();
+            parts = current;
+            return current;
+        }
+    }
+
+    /**
+     * Splits the collection into bounded and unbounded parts with the current boxes of the geometries.
+     * Must be called while holding the lock of the collection.
+     *
+     * @return the parts of the collection
+     */
+    private Parts split() {
+        List<Intersectable> bounded = new ArrayList<>();
+        List<BoundingBox> boxes = new ArrayList<>();
+        List<Intersectable> unbounded = new ArrayList<>();
+        BoundingBox box = null;
+        for (Intersectable geometry : geometries) {
+            BoundingBox geometryBox = geometry.getBoundingBox();
+            if (geometryBox == null)
+                unbounded.add(geometry);
+            else {
+                bounded.add(geometry);
+                boxes.add(geometryBox);
+                box = box == null ? geometryBox : box.union(geometryBox);
+            }
+        }
+        return new Parts(version, bounded.toArray(new Intersectable[0]), boxes.toArray(new BoundingBox[0]),
+                unbounded.toArray(new Intersectable[0]), box);
+    }
+
+    /**
+     * Refits the geometries of the collection and then takes their boxes again.
+     */
+    @Override
+    public boolean refit() {
+        boolean rebuilt = false;
+        for (Intersectable geometry : getGeometries())
+            rebuilt |= geometry.refit();
+        synchronized (this) {
+            parts = split();
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Returns the geometries of the collection, with the geometries of nested plain collections
+     * in place of the collections, so that an acceleration structure built from them covers those
+     * geometries directly.
+     *
+     * @return the flattened geometries
+     */
+    protected Intersectable[] flatten() {
+        List<Intersectable> flat = new ArrayList<>();
+        for (Intersectable geometry : getGeometries()) {
+            if (geometry.getClass() == Geometries.class)
+                flat.addAll(List.of(((Geometries) geometry).flatten()));
+            else
+                flat.add(geometry);
+        }
+        return flat.toArray(new Intersectable[0]);
+    }
+
+    /**
+     * Returns the bounding box that encloses all the geometries in the collection.
+     *
+     * @return the union of the children's boxes, or null if the collection is empty
+     *         or contains an unbounded geometry
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        Parts parts = parts();
+        return parts.unbounded().length == 0 ? parts.box() : null;
     }
 
     /**
      * Finds all the intersection points between the given ray and all geometries in the collection.
+     * The unbounded geometries are tested first, then the bounded geometries whose bounding box
+     * is hit by the ray.
      *
      * @param ray the ray to check for intersections with the geometries.
      * @return a list containing all the intersection points between the ray and the geometries.
@@ -43,10 +182,27 @@ public class Geometries extends Intersectable{
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
+        Parts parts = parts();
+        Intersectable[] bounded = parts.bounded();
+        BoundingBox[] boxes = parts.boxes();
+        BoundingBox box = parts.box();
         List<GeoPoint> intersectionsResult = null;
-        for (Intersectable geometry : geometries)
+        for (Intersectable geometry : parts.unbounded()) {
+            var intersections = geometry.findGeoIntersections(ray, maxDistance);
+            if (intersections != null) {
+                if (intersectionsResult == null)
+                    intersectionsResult = new LinkedList<>();
+                intersectionsResult.addAll(intersections);
+            }
+        }
+        if (box == null || !box.intersects(ray, maxDistance))
+            return intersectionsResult;
+
+        for (int i = 0; i < bounded.length; i++)
         {
-            var intersections = geometry.findGeoIntersections(ray,maxDistance);
+            if (!boxes[i].intersects(ray, maxDistance))
+                continue;
+            var intersections = bounded[i].findGeoIntersections(ray,maxDistance);
             if (intersections != null)
             {
                 if (intersectionsResult == null)
@@ -56,4 +212,107 @@ public class Geometries extends Intersectable{
         }
         return intersectionsResult;
     }
+
+    /**
+     * Accumulates the transparency of the geometries in the collection that block the ray,
+     * stopping as soon as the ray is blocked.
+     *
+     * @param ray the ray to check.
+     * @param maxDistance the distance beyond which blocking geometries are ignored.
+     * @param ktr the transparency accumulated so far.
+     * @param minK the transparency below which the ray is considered blocked.
+     * @return the accumulated transparency, or zero if the ray is blocked.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        Parts parts = parts();
+        Intersectable[] bounded = parts.bounded();
+        BoundingBox[] boxes = parts.boxes();
+        BoundingBox box = parts.box();
+        for (Intersectable geometry : parts.unbounded()) {
+            ktr = geometry.findTransparencyHelper(ray, maxDistance, ktr, minK);
+            if (ktr.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        if (box == null || !box.intersects(ray, maxDistance))
+            return ktr;
+
+        for (int i = 0; i < bounded.length; i++) {
+            if (!boxes[i].intersects(ray, maxDistance))
+                continue;
+            ktr = bounded[i].findTransparencyHelper(ray, maxDistance, ktr, minK);
+            if (ktr.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        return ktr;
+    }
+
+    /**
+     * Finds the closest intersection point between the given ray and the geometries in the collection.
+     * Every geometry is tested against the distance of the closest point found so far,
+     * so both box tests and intersection tests reject further geometries early. The unbounded
+     * geometries are tested first, so e.g. a floor in front of bounded geometries culls their boxes.
+     *
+     * @param ray the ray to check for intersections with the geometries.
+     * @param maxDistance the distance beyond which intersections are ignored.
+     * @return the closest intersection point, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Parts parts = parts();
+        Intersectable[] bounded = parts.bounded();
+        BoundingBox[] boxes = parts.boxes();
+        BoundingBox box = parts.box();
+        GeoPoint closest = null;
+        for (Intersectable geometry : parts.unbounded()) {
+            GeoPoint intersection = geometry.findClosestGeoIntersection(ray, maxDistance);
+            if (intersection != null) {
+                closest = intersection;
+                maxDistance = ray.getHead().distance(intersection.point);
+            }
+        }
+        if (box == null || !box.intersects(ray, maxDistance))
+            return closest;
+
+        for (int i = 0; i < bounded.length; i++) {
+            if (!boxes[i].intersects(ray, maxDistance))
+                continue;
+            GeoPoint intersection = bounded[i].findClosestGeoIntersection(ray, maxDistance);
+            if (intersection != null) {
+                closest = intersection;
+                maxDistance = ray.getHead().distance(intersection.point);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the closest intersection between the given ray and the geometries in the collection
+     * without allocations, testing every geometry against the distance in the hit record.
+     *
+     * @param ray the ray to check for intersections with the geometries.
+     * @param hit the record of the closest intersection found so far.
+     * @return true if a closer intersection was found, false otherwise.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        Parts parts = parts();
+        Intersectable[] bounded = parts.bounded();
+        BoundingBox[] boxes = parts.boxes();
+        BoundingBox box = parts.box();
+        boolean found = false;
+        for (Intersectable geometry : parts.unbounded())
+            if (geometry.intersectHelper(ray, hit))
+                found = true;
+        if (box == null || !box.intersects(ray, hit.t))
+            return found;
+
+        for (int i = 0; i < bounded.length; i++) {
+            if (!boxes[i].intersects(ray, hit.t))
+                continue;
+            if (bounded[i].intersectHelper(ray, hit))
+                found = true;
+        }
+        return found;
+    }
 }
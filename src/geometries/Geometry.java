@@ -1,7 +1,9 @@
 package geometries;
 
 import primitives.Color;
+import primitives.Double3;
 import primitives.Material;
+import primitives.Ray;
 import primitives.Vector;
 import primitives.Point;
 
@@ -64,4 +66,26 @@ public abstract class Geometry extends Intersectable {
      */
 
     public abstract Vector getNormal(Point p);
+
+    /**
+     * Returns the geometry of a part of the geometry (e.g. a sphere of a set), for an intersection
+     * recorded by the index of its part in a {@link HitRecord}.
+     *
+     * @param index the index of the part
+     * @return the geometry of the part, or the geometry itself if it is not made of parts
+     */
+    protected Geometry part(int index) {
+        return this;
+    }
+
+    /**
+     * If a single point of the geometry is enough to block the ray (e.g. an opaque geometry),
+     * only checks whether there is any intersection instead of collecting all of them.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        if (ktr.product(material.kT).lowerThan(minK))
+            return findClosestGeoIntersectionHelper(ray, maxDistance) == null ? ktr : Double3.ZERO;
+        return super.findTransparencyHelper(ray, maxDistance, ktr, minK);
+    }
 }
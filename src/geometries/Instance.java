@@ -0,0 +1,237 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a placement of a shared intersectable (e.g. a triangle mesh or a {@link BVH} of a
+ * detailed object) in the scene by an affine transformation. Rays are transformed into the object
+ * space of the child instead of transforming the child, so one copy of the geometry serves all
+ * of its placements.
+ * <p>
+ * Instances have bounding boxes, so a {@link BVH} over the instances of a scene is a top-level
+ * index, and each instance enters the hierarchy of its child only for the rays that hit its box.
+ * The geometry of an intersection point is a lightweight wrapper of the child's geometry, which
+ * transforms its normal to world space and takes its emission and material.
+ */
+public class Instance extends Intersectable {
+    /** The shared intersectable */
+    private final Intersectable child;
+    /** The transformation from the object space of the child to world space */
+    private final Transform transform;
+    /** The world space bounding box of the instance, null if the child is unbounded */
+    private volatile BoundingBox box;
+
+    /**
+     * Constructs an instance of an intersectable.
+     *
+     * @param child     the shared intersectable
+     * @param transform the transformation from the object space of the child to world space
+     */
+    public Instance(Intersectable child, Transform transform) {
+        this.child = child;
+        this.transform = transform;
+        box = transformedBox(child.getBoundingBox(), transform);
+    }
+
+    /**
+     * Returns the shared intersectable of the instance.
+     *
+     * @return the child intersectable
+     */
+    public Intersectable getChild() {
+        return child;
+    }
+
+    /**
+     * Returns the transformation of the instance.
+     *
+     * @return the transformation from the object space of the child to world space
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Calculates the world space box of an instance: the box of the eight transformed corners of the child's box.
+     *
+     * @param childBox  the box of the child, null if it is unbounded
+     * @param transform the transformation from the object space of the child to world space
+     * @return the world space box, or null if the child is unbounded
+     */
+    private static BoundingBox transformedBox(BoundingBox childBox, Transform transform) {
+        if (childBox == null)
+            return null;
+        Point min = childBox.getMin(), max = childBox.getMax();
+        Point[] corners = new Point[8];
+        for (int i = 0; i < 8; i++)
+            corners[i] = transform.applyToPoint(new Point(
+                    (i & 1) == 0 ? min.getX() : max.getX(),
+                    (i & 2) == 0 ? min.getY() : max.getY(),
+                    (i & 4) == 0 ? min.getZ() : max.getZ()));
+        return new BoundingBox(corners);
+    }
+
+    /**
+     * Returns the world space box of the instance, as calculated when it was constructed
+     * or last refitted.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Refits the child and calculates the world space box of the instance again.
+     */
+    @Override
+    public boolean refit() {
+        boolean rebuilt = child.refit();
+        box = transformedBox(child.getBoundingBox(), transform);
+        return rebuilt;
+    }
+
+    /**
+     * Transforms a ray into the object space of the child.
+     * Distances along the object space ray are the world distances times the length
+     * of the transformed (not normalized) direction.
+     *
+     * @param ray the world space ray
+     * @return the object space ray
+     */
+    private Ray toObjectSpace(Ray ray) {
+        return new Ray(transform.applyInverseToPoint(ray.getHead()), transform.applyInverseToVector(ray.getDirection()));
+    }
+
+    /**
+     * Calculates the ratio between object space and world space distances along a ray.
+     *
+     * @param ray the world space ray
+     * @return the object space distance of a unit world distance
+     */
+    private double objectScale(Ray ray) {
+        return transform.applyInverseToVector(ray.getDirection()).length();
+    }
+
+    /**
+     * Transforms an intersection point of the child to world space.
+     *
+     * @param geoPoint the object space intersection point
+     * @return the world space intersection point
+     */
+    private GeoPoint toWorldSpace(GeoPoint geoPoint) {
+        return new GeoPoint(new InstanceGeometry(geoPoint.geometry), transform.applyToPoint(geoPoint.point));
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = child.findGeoIntersections(toObjectSpace(ray), maxDistance * objectScale(ray));
+        if (intersections == null)
+            return null;
+        List<GeoPoint> result = new ArrayList<>(intersections.size());
+        for (GeoPoint geoPoint : intersections)
+            result.add(toWorldSpace(geoPoint));
+        return result;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        GeoPoint intersection = child.findClosestGeoIntersection(toObjectSpace(ray), maxDistance * objectScale(ray));
+        return intersection == null ? null : toWorldSpace(intersection);
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        return child.findTransparencyHelper(toObjectSpace(ray), maxDistance * objectScale(ray), ktr, minK);
+    }
+
+    /**
+     * Finds the closest intersection of the ray with the child in its object space, and moves it back
+     * to world space in the hit record.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        double scale = objectScale(ray);
+        double t = hit.t;
+        hit.t = t * scale;
+        if (!child.intersectHelper(toObjectSpace(ray), hit)) {
+            hit.t = t;
+            return false;
+        }
+        Point point = transform.applyToPoint(new Point(hit.x, hit.y, hit.z));
+        hit.t /= scale;
+        hit.x = point.getX();
+        hit.y = point.getY();
+        hit.z = point.getZ();
+        hit.geometry = new InstanceGeometry(hit.getGeometry());
+        hit.part = -1;
+        return true;
+    }
+
+    /**
+     * The geometry of an intersection point with the instance: the child's geometry of the point
+     * moved to world space. It takes the emission and material of the child's geometry and
+     * transforms its normal.
+     */
+    private class InstanceGeometry extends Geometry {
+        /** The child's geometry of the intersection point */
+        private final Geometry geometry;
+
+        /**
+         * Constructs the world space geometry of an intersection point.
+         *
+         * @param geometry the child's geometry of the point
+         */
+        InstanceGeometry(Geometry geometry) {
+            this.geometry = geometry;
+        }
+
+        @Override
+        public Color getEmission() {
+            return geometry.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return geometry.getMaterial();
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return transform.applyToNormal(geometry.getNormal(transform.applyInverseToPoint(p)));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            List<GeoPoint> intersections = geometry.findGeoIntersections(toObjectSpace(ray), maxDistance * objectScale(ray));
+            if (intersections == null)
+                return null;
+            List<GeoPoint> result = new ArrayList<>(intersections.size());
+            for (GeoPoint geoPoint : intersections)
+                result.add(new GeoPoint(this, transform.applyToPoint(geoPoint.point)));
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof InstanceGeometry other && other.instance() == instance() && other.geometry.equals(geometry);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(instance()) + geometry.hashCode();
+        }
+
+        /**
+         * Returns the instance of the geometry.
+         *
+         * @return the instance
+         */
+        private Instance instance() {
+            return Instance.this;
+        }
+    }
+}
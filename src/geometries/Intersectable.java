@@ -5,6 +5,8 @@ import primitives.*;
 import java.util.List;
 import java.util.Objects;
 
+import static primitives.Util.alignZero;
+
 /**
  * The Intersectable interface defines a contract for geometrical objects
  * that can be intersected by a ray. Any class implementing this interface
@@ -61,6 +63,87 @@ public abstract class Intersectable {
 
     }
 
+    /**
+     * A mutable record of the closest intersection found so far along a ray.
+     * It is filled by {@link #intersect(Ray, HitRecord)} without allocating any objects,
+     * so a single record can be reused (e.g. one per thread) for every ray.
+     */
+    public static class HitRecord {
+        /**
+         * The distance of the intersection along the ray, or the max distance while nothing was found.
+         * A geometry replaces the intersection only with a closer one: a hit at this distance
+         * (within {@link primitives.Util#alignZero(double)}) is rejected, so of the geometries hit at the
+         * same distance the first one tested keeps the record, and a hit exactly at the max distance
+         * (e.g. at the light of a shadow ray) is not an intersection.
+         */
+        public double t = Double.POSITIVE_INFINITY;
+        /** The intersected geometry, null while nothing was found */
+        public Geometry geometry = null;
+        /**
+         * The index of the intersected part of the geometry (e.g. a sphere of a {@link SphereSet}),
+         * or -1 if the geometry is not made of parts. The geometry of the part is created only
+         * by {@link #getGeometry()}, once the closest intersection is known.
+         */
+        public int part = -1;
+        /** The coordinates of the intersection point */
+        public double x, y, z;
+        /**
+         * The barycentric coordinates of the intersection point on a triangle
+         * (the weights of its second and third vertices), zero for other geometries
+         */
+        public double u, v;
+
+        /**
+         * Clears the record before searching along a new ray.
+         *
+         * @param maxDistance the distance beyond which intersections are ignored
+         * @return the record itself
+         */
+        public HitRecord reset(double maxDistance) {
+            t = maxDistance;
+            geometry = null;
+            return this;
+        }
+
+        /**
+         * Records an intersection.
+         *
+         * @param geometry the intersected geometry
+         * @param ray      the intersecting ray
+         * @param t        the distance of the intersection along the ray
+         */
+        public void set(Geometry geometry, Ray ray, double t) {
+            Point head = ray.getHead();
+            Vector direction = ray.getDirection();
+            this.geometry = geometry;
+            this.t = t;
+            part = -1;
+            u = 0;
+            v = 0;
+            x = head.getX() + direction.getX() * t;
+            y = head.getY() + direction.getY() * t;
+            z = head.getZ() + direction.getZ() * t;
+        }
+
+        /**
+         * Returns the intersected geometry, or the geometry of the intersected part.
+         *
+         * @return the geometry of the intersection point, or null if nothing was found
+         */
+        public Geometry getGeometry() {
+            return geometry == null || part < 0 ? geometry : geometry.part(part);
+        }
+
+        /**
+         * Converts the record into a GeoPoint.
+         *
+         * @return the recorded intersection, or null if nothing was found
+         */
+        public GeoPoint toGeoPoint() {
+            return geometry == null ? null : new GeoPoint(getGeometry(), new Point(x, y, z));
+        }
+    }
+
     /**
      * Finds all the intersection points between the given ray and the geometry.
      *
@@ -125,4 +208,170 @@ public abstract class Intersectable {
      */
     abstract protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance);
 
+    /**
+     * find the closest GeoPoint that intersects with a ray
+     *
+     * @param ray to find the intersection with
+     * @return the closest intersection point, or null if there is none
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersectionHelper(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * find the closest GeoPoint that intersects with a ray limited by max distance
+     *
+     * @param ray         to find the intersection with
+     * @param maxDistance the given distance
+     * @return the closest intersection point, or null if there is none
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        return findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    /**
+     * helper for the findClosestGeoIntersection function that finds the closest point
+     * in a geometry that intersects with a ray, ignoring the points that are further
+     * than a given distance. Collections override it to pass the distance of the best
+     * point found so far to the next geometries, so only one point is produced per ray.
+     *
+     * @param ray         to find the intersection with
+     * @param maxDistance the given distance
+     * @return the closest intersection point, or null if there is none
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        return ray.findClosestGeoPoint(findGeoIntersectionsHelper(ray, maxDistance));
+    }
+
+    /**
+     * find the closest intersection of a ray that is closer than the one in the hit record
+     * (or than its max distance) and write it into the record. Unlike the other queries,
+     * this one does not allocate objects for the geometries that implement it directly.
+     *
+     * @param ray to find the intersection with
+     * @param hit the record of the closest intersection found so far, updated in place
+     * @return true if a closer intersection was found, false otherwise
+     */
+    public final boolean intersect(Ray ray, HitRecord hit) {
+        return intersectHelper(ray, hit);
+    }
+
+    /**
+     * helper for the intersect function. The default implementation goes through
+     * {@link #findClosestGeoIntersectionHelper(Ray, double)}; geometries on the hot path
+     * override it with an allocation-free calculation.
+     *
+     * @param ray to find the intersection with
+     * @param hit the record of the closest intersection found so far, updated in place
+     * @return true if a closer intersection was found, false otherwise
+     */
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        GeoPoint closest = findClosestGeoIntersectionHelper(ray, hit.t);
+        if (closest == null)
+            return false;
+        double t = ray.getHead().distance(closest.point);
+        if (alignZero(t - hit.t) >= 0)
+            return false;
+        hit.geometry = closest.geometry;
+        hit.t = t;
+        hit.x = closest.point.getX();
+        hit.y = closest.point.getY();
+        hit.z = closest.point.getZ();
+        return true;
+    }
+
+    /**
+     * find the closest intersection of every ray of a packet, like {@link #intersect(Ray, HitRecord)}
+     * for each ray, and write it into the record of the ray.
+     *
+     * @param packet the rays to find the intersections with
+     * @param hits   the records of the closest intersections found so far, by ray index, updated in place
+     */
+    public final void intersect(RayPacket packet, HitRecord[] hits) {
+        intersectHelper(packet, hits);
+    }
+
+    /**
+     * helper for the packet intersect function. The default implementation intersects the rays
+     * one by one; acceleration structures override it to traverse once for the whole packet.
+     *
+     * @param packet the rays to find the intersections with
+     * @param hits   the records of the closest intersections found so far, by ray index, updated in place
+     */
+    protected void intersectHelper(RayPacket packet, HitRecord[] hits) {
+        for (int i = 0; i < packet.size(); i++)
+            intersectHelper(packet.getRay(i), hits[i]);
+    }
+
+    /**
+     * find the transparency of everything that blocks a ray before a max distance,
+     * e.g. between a point and a light source. The search stops as soon as the ray
+     * is found to be blocked, so an opaque geometry ends it at its first intersection.
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the given distance
+     * @param minK        the transparency below which the ray is considered blocked
+     * @return the product of the transparency (kT) of all the blocking points,
+     * or zero if the ray is blocked
+     */
+    public final Double3 findTransparency(Ray ray, double maxDistance, double minK) {
+        return findTransparencyHelper(ray, maxDistance, Double3.ONE, minK);
+    }
+
+    /**
+     * helper for the findTransparency function that multiplies the transparency
+     * accumulated so far by the transparency of every point in a geometry that
+     * intersects with a ray before a given distance
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the given distance
+     * @param ktr         the transparency accumulated so far
+     * @param minK        the transparency below which the ray is considered blocked
+     * @return the accumulated transparency, or zero if the ray is blocked
+     */
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray, maxDistance);
+        if (intersections == null)
+            return ktr;
+        for (GeoPoint intersection : intersections) {
+            ktr = ktr.product(intersection.geometry.getMaterial().kT);
+            if (ktr.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        return ktr;
+    }
+
+    /**
+     * Returns the axis-aligned bounding box that encloses the geometry.
+     * Geometries without a finite extent are considered unbounded.
+     *
+     * @return the bounding box of the geometry, or null if the geometry is unbounded
+     */
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
+    /**
+     * Updates what the intersectable keeps of its content (e.g. the bounding boxes of the children of a
+     * collection, or the tree of a {@link BVH}) to the current shapes, after geometries in it have
+     * moved (e.g. by {@link Sphere#setCenter(Point)}) or nested collections have changed. A collection
+     * takes the boxes of its children when it is first queried after its own content has changed,
+     * and doesn't follow later changes of the children by itself, so the owner of the scene calls it
+     * on the top collection, e.g. between the frames of an animation. Nested collections and instances
+     * are refitted first. The default implementation has nothing to update.
+     *
+     * @return true if an acceleration structure had to be rebuilt rather than refitted, false otherwise
+     */
+    public boolean refit() {
+        return false;
+    }
+
+    /**
+     * Tells whether the Vector API module was added to the runtime
+     * ({@code --add-modules jdk.incubator.vector}), so the geometries that intersect many shapes in
+     * one loop use their SIMD kernels ({@link SphereSetKernel}, {@link TriangleBatchKernel}).
+     * It is checked here, since loading a kernel without the module fails.
+     */
+    static final boolean VECTOR_API = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
 }
@@ -4,6 +4,7 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
 import primitives.Vector;
+import primitives.VectorMath;
 
 import java.util.List;
 
@@ -60,6 +61,16 @@ public class Plane extends Geometry {
         return normal;
     }
 
+    /**
+     * A plane is infinite, so it has no bounding box.
+     *
+     * @return null, as the plane is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
     /**
      * Finds the intersection points between the given ray and the plane.
      *
@@ -68,35 +79,54 @@ public class Plane extends Geometry {
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
+        double t = findIntersectionDistance(ray, maxDistance);
+        if (t == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+
+        // Calculate the intersection point (p = p0 + t * v)
+        return List.of(new GeoPoint(this,ray.getPoint(t)));
+    }
 
+    /**
+     * Calculates the distance along a ray to its intersection with the plane without allocations.
+     *
+     * @param ray         the ray to intersect
+     * @param maxDistance the distance at or beyond which the intersection is ignored
+     * @return the distance of the intersection, or positive infinity if there is none
+     */
+    double findIntersectionDistance(Ray ray, double maxDistance) {
         Point p0 = ray.getHead();
         Vector v = ray.getDirection();
 
-        // Check if the ray starts from a point on the plane
-        if (p.equals(p0)) {
-            return null;
-        }
-
-        // Calculate the numerator of the t parameter (n * (p - p0))
-        double t_numerator = alignZero(normal.dotProduct(p.subtract(p0)));
+        // Calculate the numerator of the t parameter (n * (p - p0)),
+        // which is zero if the ray starts from a point on the plane
+        double t_numerator = alignZero(VectorMath.dotDifference(normal, p, p0));
         if (isZero(t_numerator)) {
-            return null;
+            return Double.POSITIVE_INFINITY;
         }
 
         // Calculate the denominator of the t parameter (n * v)
         double t_denominator = alignZero(normal.dotProduct(v));
         if (isZero(t_denominator)) {
-            return null;
+            return Double.POSITIVE_INFINITY;
         }
 
         // Calculate the t parameter (t = (n * (p - p0)) / (n * v))
         double t = alignZero(t_numerator / t_denominator);
         if (t <= 0 || Util.alignZero(t - maxDistance) >= 0 ) {
-            return null;
+            return Double.POSITIVE_INFINITY;
         }
+        return t;
+    }
 
-        // Calculate the intersection point (p = p0 + t * v)
-        return List.of(new GeoPoint(this,ray.getPoint(t)));
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        double t = findIntersectionDistance(ray, hit.t);
+        if (t == Double.POSITIVE_INFINITY)
+            return false;
+        hit.set(this, ray, t);
+        return true;
     }
 
 }
@@ -2,6 +2,7 @@ package geometries;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 import primitives.*;
@@ -18,6 +19,17 @@ public class Polygon extends Geometry {
     protected final Plane       plane;
     /** The size of the polygon - the amount of the vertices in the polygon */
     private final int           size;
+    /** The bounding box of the polygon */
+    private final BoundingBox   box;
+    /**
+     * The polygon's plane and the planes of its edges, packed as x, y, z, offset of each plane.
+     * First the unit normal of the polygon and its offset (the dot product of the normal with any
+     * point of the plane), then the planes of the edges, perpendicular to the polygon: the unit
+     * normal of each edge pointing into the polygon, and its offset. A point of the polygon's plane
+     * is inside the polygon if it is on the inner side of all the edge planes.
+     * Null for a triangle, which is intersected by its edges without them.
+     */
+    private final double[]      planes;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -45,14 +57,16 @@ public class Polygon extends Geometry {
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
         this.vertices = List.of(vertices);
         size          = vertices.length;
+        box           = new BoundingBox(vertices);
 
         // Generate the plane according to the first three vertices and associate the
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane         = new Plane(vertices[0], vertices[1], vertices[2]);
+        Vector  n        = plane.getNormal();
+        planes           = size == 3 ? null : packedPlanes(vertices, n);
         if (size == 3) return; // no need for more tests for a Triangle
 
-        Vector  n        = plane.getNormal();
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector  edge1    = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -78,11 +92,91 @@ public class Polygon extends Geometry {
         }
     }
 
+    /**
+     * Calculates the plane of a convex polygon and the planes of its edges, once at construction,
+     * so that testing whether a point is inside the polygon needs only a dot product per edge.
+     * The normal of each edge plane is the cross product of the polygon's normal and the edge,
+     * turned towards the vertex that follows the edge.
+     * @param  vertices the vertices of the polygon
+     * @param  n        the normal of the polygon
+     * @return          the packed planes
+     */
+    private static double[] packedPlanes(Point[] vertices, Vector n) {
+        int      count  = vertices.length;
+        double[] result = new double[4 * (count + 1)];
+        setPlane(result, 0, n, vertices[0]);
+        for (int i = 0; i < count; ++i) {
+            Point  from   = vertices[i];
+            Vector inward = n.crossProduct(vertices[(i + 1) % count].subtract(from)).normalize();
+            if (inward.dotProduct(vertices[(i + 2) % count].subtract(from)) < 0)
+                inward = inward.scale(-1);
+            setPlane(result, 4 * (i + 1), inward, from);
+        }
+        return result;
+    }
+
+    /**
+     * Packs a plane into an array: the normal and the offset.
+     * @param planes the array of the packed planes
+     * @param offset the position of the plane in the array
+     * @param normal the unit normal of the plane
+     * @param point  a point of the plane
+     */
+    private static void setPlane(double[] planes, int offset, Vector normal, Point point) {
+        planes[offset]     = normal.getX();
+        planes[offset + 1] = normal.getY();
+        planes[offset + 2] = normal.getZ();
+        planes[offset + 3] = planes[offset] * point.getX() + planes[offset + 1] * point.getY()
+                + planes[offset + 2] * point.getZ();
+    }
+
     @Override
     public Vector getNormal(Point point) { return plane.getNormal(); }
 
+    @Override
+    public BoundingBox getBoundingBox() { return box; }
+
+    /**
+     * Finds the intersection point between the given ray and the polygon.
+     * @param  ray         the ray to check for intersections with the polygon
+     * @param  maxDistance the distance from which intersections are ignored
+     * @return             a list with the intersection point, or null if the ray doesn't
+     *                     intersect the polygon
+     */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
-        return null;
+        HitRecord hit = new HitRecord().reset(maxDistance);
+        return intersectHelper(ray, hit) ? List.of(hit.toGeoPoint()) : null;
+    }
+
+    /**
+     * Finds the intersection point between the given ray and the polygon without allocations:
+     * the ray is intersected with the polygon's plane, and the point is checked against the
+     * precalculated edge planes. Points on the edges and vertices are not considered intersections.
+     * @param  ray the ray to check for intersections with the polygon
+     * @param  hit the record of the closest intersection found so far
+     * @return     true if the polygon has a closer intersection point, false otherwise
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        Point  p0          = ray.getHead();
+        Vector v           = ray.getDirection();
+        double hx          = p0.getX(), hy = p0.getY(), hz = p0.getZ();
+        double vx          = v.getX(), vy = v.getY(), vz = v.getZ();
+
+        // The ray is parallel to the polygon
+        double denominator = planes[0] * vx + planes[1] * vy + planes[2] * vz;
+        if (isZero(denominator))
+            return false;
+        double t           = alignZero((planes[3] - (planes[0] * hx + planes[1] * hy + planes[2] * hz)) / denominator);
+        if (t <= 0 || alignZero(t - hit.t) >= 0)
+            return false;
+
+        double x           = hx + vx * t, y = hy + vy * t, z = hz + vz * t;
+        for (int i = 4; i < planes.length; i += 4)
+            if (alignZero(planes[i] * x + planes[i + 1] * y + planes[i + 2] * z - planes[i + 3]) <= 0)
+                return false;
+        hit.set(this, ray, t);
+        return true;
     }
 }
@@ -0,0 +1,198 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * A packet of coherent rays, e.g. the primary rays of a block of neighbouring pixels, that are
+ * intersected together by {@link Intersectable#intersect(RayPacket, Intersectable.HitRecord[])}.
+ * The heads and inverse directions of the rays are stored as lanes of doubles, so a box is tested
+ * against the whole packet by one loop.
+ * <p>
+ * When all the rays start at the same point and form a grid (row by row), the four planes through
+ * the head and the corner rays bound all of them, and a box outside one of the planes is culled
+ * for the whole packet without testing any ray (frustum culling).
+ */
+public final class RayPacket {
+    /** The rays of the packet */
+    private final Ray[] rays;
+    /** The lanes of the ray heads */
+    private final double[] hx, hy, hz;
+    /** The lanes of the inverse ray directions */
+    private final double[] ix, iy, iz;
+    /** The normals of the frustum planes (x, y, z of each), null if the rays don't form a frustum */
+    private final double[] frustum;
+    /** The common head of the rays, if they form a frustum */
+    private final double ox, oy, oz;
+
+    /**
+     * Constructs a packet of rays.
+     *
+     * @param rays  the rays, row by row
+     * @param width the number of rays in a row
+     * @throws IllegalArgumentException if there are no rays or they don't fill whole rows
+     */
+    public RayPacket(Ray[] rays, int width) {
+        if (rays.length == 0 || width <= 0 || rays.length % width != 0)
+            throw new IllegalArgumentException("A ray packet must hold whole rows of rays");
+        this.rays = rays.clone();
+        int n = rays.length;
+        hx = new double[n];
+        hy = new double[n];
+        hz = new double[n];
+        ix = new double[n];
+        iy = new double[n];
+        iz = new double[n];
+        for (int i = 0; i < n; i++) {
+            Point head = rays[i].getHead();
+            hx[i] = head.getX();
+            hy[i] = head.getY();
+            hz[i] = head.getZ();
+            ix[i] = rays[i].getInvX();
+            iy[i] = rays[i].getInvY();
+            iz[i] = rays[i].getInvZ();
+        }
+        Point head = rays[0].getHead();
+        ox = head.getX();
+        oy = head.getY();
+        oz = head.getZ();
+        frustum = buildFrustum(width);
+    }
+
+    /**
+     * Builds the planes through the common head and every two adjacent corner rays,
+     * with normals that point into the packet.
+     *
+     * @param width the number of rays in a row
+     * @return the plane normals, or null if the rays don't share a head or are not bounded by the planes
+     */
+    private double[] buildFrustum(int width) {
+        int n = rays.length;
+        if (width < 2 || n / width < 2)
+            return null;
+        for (Ray ray : rays)
+            if (!ray.getHead().equals(rays[0].getHead()))
+                return null;
+        Vector[] corners = {rays[0].getDirection(), rays[width - 1].getDirection(),
+                rays[n - 1].getDirection(), rays[n - width].getDirection()};
+        double cx = 0, cy = 0, cz = 0;
+        for (Vector corner : corners) {
+            cx += corner.getX();
+            cy += corner.getY();
+            cz += corner.getZ();
+        }
+        double[] planes = new double[12];
+        for (int k = 0; k < 4; k++) {
+            Vector a = corners[k], b = corners[(k + 1) % 4];
+            double nx = a.getY() * b.getZ() - a.getZ() * b.getY();
+            double ny = a.getZ() * b.getX() - a.getX() * b.getZ();
+            double nz = a.getX() * b.getY() - a.getY() * b.getX();
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length < 1e-12)
+                return null;
+            // Point the normal towards the center of the packet
+            double sign = nx * cx + ny * cy + nz * cz < 0 ? -1 / length : 1 / length;
+            planes[3 * k] = nx * sign;
+            planes[3 * k + 1] = ny * sign;
+            planes[3 * k + 2] = nz * sign;
+        }
+        // The planes are valid only if every ray of the packet is inside them
+        for (Ray ray : rays) {
+            Vector d = ray.getDirection();
+            for (int k = 0; k < 12; k += 3)
+                if (planes[k] * d.getX() + planes[k + 1] * d.getY() + planes[k + 2] * d.getZ() < -1e-9)
+                    return null;
+        }
+        return planes;
+    }
+
+    /**
+     * Returns the number of rays in the packet.
+     *
+     * @return the number of rays
+     */
+    public int size() {
+        return rays.length;
+    }
+
+    /**
+     * Returns a ray of the packet.
+     *
+     * @param index the index of the ray
+     * @return the ray
+     */
+    public Ray getRay(int index) {
+        return rays[index];
+    }
+
+    /**
+     * Tells whether the rays share a head and are bounded by the planes of their corner rays.
+     *
+     * @return true if boxes can be culled by the frustum of the packet
+     */
+    public boolean hasFrustum() {
+        return frustum != null;
+    }
+
+    /**
+     * Checks whether a box packed in an array is entirely outside the frustum of the packet,
+     * so none of its rays can hit it. For each plane only the box corner farthest along the
+     * plane normal is tested.
+     *
+     * @param boxes  the packed boxes: minX, minY, minZ, maxX, maxY, maxZ of each box
+     * @param offset the index of the box's first coordinate in the array
+     * @return true if the box is outside the frustum, false if it may be hit or the packet has no frustum
+     */
+    boolean culls(double[] boxes, int offset) {
+        if (frustum == null)
+            return false;
+        for (int k = 0; k < 12; k += 3) {
+            double nx = frustum[k], ny = frustum[k + 1], nz = frustum[k + 2];
+            double x = (nx > 0 ? boxes[offset + 3] : boxes[offset]) - ox;
+            double y = (ny > 0 ? boxes[offset + 4] : boxes[offset + 1]) - oy;
+            double z = (nz > 0 ? boxes[offset + 5] : boxes[offset + 2]) - oz;
+            if (nx * x + ny * y + nz * z < 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Selects the rays that hit a box packed in an array before the distance of their closest
+     * intersection so far (interval culling), with the slab test of {@link BoundingBox}.
+     *
+     * @param boxes  the packed boxes: minX, minY, minZ, maxX, maxY, maxZ of each box
+     * @param offset the index of the box's first coordinate in the array
+     * @param hits   the closest intersections found so far, by ray index
+     * @param active the indices of the rays to test
+     * @param from   the position of the first ray to test in the active array
+     * @param count  the number of rays to test
+     * @param result receives the indices of the rays that hit the box
+     * @return the number of rays that hit the box
+     */
+    int hitBox(double[] boxes, int offset, Intersectable.HitRecord[] hits, int[] active, int from, int count, int[] result) {
+        int hitCount = 0;
+        for (int k = from, end = from + count; k < end; k++) {
+            int i = active[k];
+            double tNear = 0, tFar = hits[i].t;
+            double t0 = (boxes[offset] - hx[i]) * ix[i], t1 = (boxes[offset + 3] - hx[i]) * ix[i];
+            if (ix[i] < 0) { double t = t0; t0 = t1; t1 = t; }
+            if (t0 > tNear) tNear = t0;
+            if (t1 < tFar) tFar = t1;
+            t0 = (boxes[offset + 1] - hy[i]) * iy[i];
+            t1 = (boxes[offset + 4] - hy[i]) * iy[i];
+            if (iy[i] < 0) { double t = t0; t0 = t1; t1 = t; }
+            if (t0 > tNear) tNear = t0;
+            if (t1 < tFar) tFar = t1;
+            t0 = (boxes[offset + 2] - hz[i]) * iz[i];
+            t1 = (boxes[offset + 5] - hz[i]) * iz[i];
+            if (iz[i] < 0) { double t = t0; t0 = t1; t1 = t; }
+            if (t0 > tNear) tNear = t0;
+            if (t1 < tFar) tFar = t1;
+            if (tNear <= tFar)
+                result[hitCount++] = i;
+        }
+        return hitCount;
+    }
+}
@@ -3,12 +3,14 @@ package geometries;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
+import primitives.VectorMath;
 
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 
 import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
 
 /**
  * Represents a sphere in 3D space, extending RadialGeometry, with a specified center point and radius.
@@ -16,7 +18,10 @@ import static primitives.Util.alignZero;
 public class Sphere extends RadialGeometry {
 
 
-    private final Point center;
+    private Point center;
+
+    /** The bounding box of the sphere */
+    private BoundingBox box;
 
     /**
      * Constructs a new Sphere with the specified center point and radius.
@@ -27,6 +32,44 @@ public class Sphere extends RadialGeometry {
     public Sphere(Point center, double radius) {
         super(radius);
         this.center = center;
+        this.box = box(center, radius);
+    }
+
+    /**
+     * Moves the sphere to a new center, e.g. between the frames of an animation.
+     * The sphere must not be moved while a frame is rendered. The collections that contain the
+     * sphere keep its old box until they are refitted (see {@link Intersectable#refit()}),
+     * so the geometries of the scene should be refitted before the next frame.
+     *
+     * @param center The new center point of the sphere.
+     * @return The current instance of the sphere (for method chaining).
+     */
+    public Sphere setCenter(Point center) {
+        this.center = center;
+        this.box = box(center, radius);
+        return this;
+    }
+
+    /**
+     * Calculates the bounding box of a sphere.
+     *
+     * @param center the center of the sphere
+     * @param radius the radius of the sphere
+     * @return the bounding box
+     */
+    private static BoundingBox box(Point center, double radius) {
+        return new BoundingBox(
+                center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
+    /**
+     * Returns the center of the sphere.
+     *
+     * @return The center point of the sphere.
+     */
+    public Point getCenter() {
+        return center;
     }
 
     /**
@@ -38,7 +81,12 @@ public class Sphere extends RadialGeometry {
     @Override
     public Vector getNormal(Point point) {
 
-        return (point.subtract(center)).normalize();
+        return VectorMath.unitDifference(point, center);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
     }
 
     /**
@@ -54,18 +102,22 @@ public class Sphere extends RadialGeometry {
         Point head = ray.getHead();
         Vector direction = ray.getDirection();
 
+        // u = center - head
+        double ux = center.getX() - head.getX();
+        double uy = center.getY() - head.getY();
+        double uz = center.getZ() - head.getZ();
+
         // If the ray starts from the center of the sphere
-        if (head.equals(center)) {
+        if (isZero(ux) && isZero(uy) && isZero(uz)) {
             //center+(radius*direction)
             return List.of(new GeoPoint(this,ray.getPoint(radius)));
         }
 
-        Vector u = center.subtract(head);
         //Tm=v*u
-        double Tm=alignZero(direction.dotProduct(u));
+        double Tm=alignZero(direction.getX() * ux + direction.getY() * uy + direction.getZ() * uz);
 
         //d=squrt(|u|^2-tm^2)
-        double d=alignZero(Math.sqrt(u.lengthSquared()-(Tm*Tm)));
+        double d=alignZero(Math.sqrt(ux * ux + uy * uy + uz * uz-(Tm*Tm)));
         //Th=squrt(r^2-d^2)
         double Th=alignZero(Math.sqrt((radius*radius)-(d*d)));
 
@@ -118,4 +170,83 @@ public class Sphere extends RadialGeometry {
         }
         return null;
     }
+
+    /**
+     * Finds the closest intersection point between the given ray and the sphere,
+     * without building the list of both intersection points.
+     *
+     * @param ray         the ray to check for intersections with the sphere.
+     * @param maxDistance the distance beyond which intersections are ignored.
+     * @return the closest intersection point, or null if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+
+        // u = center - head
+        double ux = center.getX() - head.getX();
+        double uy = center.getY() - head.getY();
+        double uz = center.getZ() - head.getZ();
+
+        // If the ray starts from the center of the sphere
+        if (isZero(ux) && isZero(uy) && isZero(uz))
+            return alignZero(radius - maxDistance) <= 0 ? new GeoPoint(this, ray.getPoint(radius)) : null;
+
+        double Tm = alignZero(direction.getX() * ux + direction.getY() * uy + direction.getZ() * uz);
+        double d = alignZero(Math.sqrt(ux * ux + uy * uy + uz * uz - (Tm * Tm)));
+        //the ray out of sphere
+        if (radius <= d)
+            return null;
+        double Th = alignZero(Math.sqrt((radius * radius) - (d * d)));
+
+        // The near point is the first one in front of the head
+        double t = alignZero(Tm - Th);
+        if (t <= 0)
+            t = alignZero(Tm + Th);
+        if (t <= 0 || alignZero(t - maxDistance) > 0)
+            return null;
+        return new GeoPoint(this, ray.getPoint(t));
+    }
+
+    /**
+     * Finds the closest intersection point between the given ray and the sphere without allocations,
+     * calculating with the coordinates directly.
+     *
+     * @param ray the ray to check for intersections with the sphere.
+     * @param hit the record of the closest intersection found so far.
+     * @return true if the sphere has a closer intersection point, false otherwise.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+
+        // u = center - head
+        double ux = center.getX() - head.getX();
+        double uy = center.getY() - head.getY();
+        double uz = center.getZ() - head.getZ();
+
+        double t;
+        // If the ray starts from the center of the sphere
+        if (isZero(ux) && isZero(uy) && isZero(uz))
+            t = radius;
+        else {
+            double Tm = alignZero(direction.getX() * ux + direction.getY() * uy + direction.getZ() * uz);
+            double d = alignZero(Math.sqrt(ux * ux + uy * uy + uz * uz - (Tm * Tm)));
+            //the ray out of sphere
+            if (radius <= d)
+                return false;
+            double Th = alignZero(Math.sqrt((radius * radius) - (d * d)));
+            t = alignZero(Tm - Th);
+            if (t <= 0)
+                t = alignZero(Tm + Th);
+            if (t <= 0)
+                return false;
+        }
+        if (alignZero(t - hit.t) >= 0)
+            return false;
+        hit.set(this, ray, t);
+        return true;
+    }
 }
@@ -0,0 +1,316 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+
+/**
+ * Represents a set of spheres with a single material, e.g. the particles of a particle system.
+ * The centers and radii are stored as a structure of arrays (a lane of doubles for every coordinate),
+ * and a ray is intersected with the spheres a block at a time: a first loop computes the
+ * discriminants of the whole block with plain arithmetic over the lanes, and only the spheres with
+ * a positive discriminant are resolved by a second loop. This saves the object, virtual call and
+ * vector allocations of every separate {@link Sphere}.
+ * <p>
+ * The first loop runs in SIMD instructions by the Vector API ({@link SphereSetKernel}) when the
+ * incubator module is added to the runtime ({@code --add-modules jdk.incubator.vector}),
+ * and otherwise by a scalar loop, with exactly the same results.
+ * <p>
+ * The geometry of each intersection point is a lightweight member object of the set, which gives
+ * the normal of the hit sphere and the emission and material of the set. The closest intersection
+ * ({@link #intersect(Ray, HitRecord)}) records the index of the hit sphere, and its member is
+ * created only for the final hit.
+ * The set is intersected as a whole, so large scenes should group nearby spheres into sets
+ * and put the sets in a {@link BVH}.
+ */
+public class SphereSet extends Geometry {
+    /** The number of spheres whose discriminants are computed in one loop */
+    private static final int BLOCK_SIZE = 64;
+
+    /** The lanes of the center coordinates */
+    private final double[] x, y, z;
+    /** The lane of the radii */
+    private final double[] radius;
+    /** The lane of the squared radii */
+    private final double[] radiusSquared;
+    /** The bounding box of all the spheres */
+    private final BoundingBox box;
+
+    /** The scratch lanes of the discriminant loop of each thread: Tm values, then discriminants */
+    private static final ThreadLocal<double[]> scratch = ThreadLocal.withInitial(() -> new double[2 * BLOCK_SIZE]);
+
+    /**
+     * Constructs a set of spheres.
+     *
+     * @param centers the coordinates of the centers: x, y, z of each sphere
+     * @param radii   the radii of the spheres
+     * @throws IllegalArgumentException if there are no spheres, the number of coordinates doesn't
+     *                                  match the number of radii, or a radius is not positive
+     */
+    public SphereSet(double[] centers, double[] radii) {
+        if (radii.length == 0)
+            throw new IllegalArgumentException("A sphere set needs at least one sphere");
+        if (centers.length != 3 * radii.length)
+            throw new IllegalArgumentException("The centers array must hold three coordinates for each radius");
+        int n = radii.length;
+        x = new double[n];
+        y = new double[n];
+        z = new double[n];
+        radius = radii.clone();
+        radiusSquared = new double[n];
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (radius[i] <= 0)
+                throw new IllegalArgumentException("Radius must be greater than 0.");
+            x[i] = centers[3 * i];
+            y[i] = centers[3 * i + 1];
+            z[i] = centers[3 * i + 2];
+            radiusSquared[i] = radius[i] * radius[i];
+            minX = Math.min(minX, x[i] - radius[i]);
+            minY = Math.min(minY, y[i] - radius[i]);
+            minZ = Math.min(minZ, z[i] - radius[i]);
+            maxX = Math.max(maxX, x[i] + radius[i]);
+            maxY = Math.max(maxY, y[i] + radius[i]);
+            maxZ = Math.max(maxZ, z[i] + radius[i]);
+        }
+        box = new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Returns the number of spheres in the set.
+     *
+     * @return the number of spheres
+     */
+    public int size() {
+        return radius.length;
+    }
+
+    /**
+     * Returns the normal of the sphere whose surface is nearest to the point, which is the sphere
+     * of the point if it lies on the set. The normal at an intersection point is also given directly
+     * by the geometry of that point (a member of the set), without searching.
+     *
+     * @param p the point
+     * @return the normal of the nearest sphere
+     */
+    @Override
+    public Vector getNormal(Point p) {
+        double px = p.getX(), py = p.getY(), pz = p.getZ();
+        int nearest = 0;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < radius.length; i++) {
+            double dx = px - x[i], dy = py - y[i], dz = pz - z[i];
+            double distance = Math.abs(Math.sqrt(dx * dx + dy * dy + dz * dz) - radius[i]);
+            if (distance < nearestDistance) {
+                nearest = i;
+                nearestDistance = distance;
+            }
+        }
+        return part(nearest).getNormal(p);
+    }
+
+    /**
+     * Returns the member of a sphere of the set.
+     *
+     * @param index the index of the sphere
+     * @return the member of the sphere
+     */
+    @Override
+    protected Geometry part(int index) {
+        return new Member(index);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Computes the Tm values (distance along the ray to the point nearest the center) and the
+     * discriminants (squared radius minus the squared distance of the center from the ray line)
+     * of a block of spheres, by the Vector API kernel if it is available, or by a scalar loop.
+     *
+     * @param from first sphere of the block (inclusive)
+     * @param to   last sphere of the block (exclusive)
+     * @param hx   x of the ray head
+     * @param hy   y of the ray head
+     * @param hz   z of the ray head
+     * @param dx   x of the ray direction
+     * @param dy   y of the ray direction
+     * @param dz   z of the ray direction
+     * @param lanes receives the Tm values and then the discriminants of the block
+     */
+    private void discriminants(int from, int to, double hx, double hy, double hz,
+                               double dx, double dy, double dz, double[] lanes) {
+        if (VECTOR_API) {
+            SphereSetKernel.discriminants(x, y, z, radiusSquared, from, to, hx, hy, hz, dx, dy, dz, lanes, BLOCK_SIZE);
+            return;
+        }
+        for (int i = from, k = 0; i < to; i++, k++) {
+            double ux = x[i] - hx, uy = y[i] - hy, uz = z[i] - hz;
+            double tm = dx * ux + dy * uy + dz * uz;
+            lanes[k] = tm;
+            lanes[BLOCK_SIZE + k] = radiusSquared[i] - (ux * ux + uy * uy + uz * uz - tm * tm);
+        }
+    }
+
+    /**
+     * Finds the closest intersection with the spheres, closer than the one in the hit record,
+     * with the same tolerances as {@link Sphere}. The hit record gets the set as the
+     * geometry and the index of the hit sphere as the part, so no member is created here.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double hx = head.getX(), hy = head.getY(), hz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        double[] lanes = scratch.get();
+        int best = -1;
+        double bestT = hit.t;
+        for (int from = 0, n = radius.length; from < n; from += BLOCK_SIZE) {
+            int to = Math.min(n, from + BLOCK_SIZE);
+            discriminants(from, to, hx, hy, hz, dx, dy, dz, lanes);
+            for (int k = 0; k < to - from; k++) {
+                double discriminant = lanes[BLOCK_SIZE + k];
+                if (discriminant <= 0)
+                    continue;
+                double tm = lanes[k];
+                double th = Math.sqrt(discriminant);
+                double t = alignZero(tm - th);
+                if (t <= 0)
+                    t = alignZero(tm + th);
+                if (t > 0 && alignZero(t - bestT) < 0) {
+                    best = from + k;
+                    bestT = t;
+                }
+            }
+        }
+        if (best < 0)
+            return false;
+        hit.set(this, ray, bestT);
+        hit.part = best;
+        return true;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double hx = head.getX(), hy = head.getY(), hz = head.getZ();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+        double[] lanes = scratch.get();
+        List<GeoPoint> intersections = null;
+        for (int from = 0, n = radius.length; from < n; from += BLOCK_SIZE) {
+            int to = Math.min(n, from + BLOCK_SIZE);
+            discriminants(from, to, hx, hy, hz, dx, dy, dz, lanes);
+            for (int k = 0; k < to - from; k++)
+                intersections = addIntersections(intersections, from + k, ray, lanes[k], lanes[BLOCK_SIZE + k], maxDistance);
+        }
+        return intersections;
+    }
+
+    /**
+     * Adds the intersections of a ray with a sphere of the set to the result, the near point first.
+     *
+     * @param intersections the intersections found so far (may be null)
+     * @param index         the index of the sphere
+     * @param ray           the ray
+     * @param tm            the distance along the ray to the point nearest the center
+     * @param discriminant  the squared radius minus the squared distance of the center from the ray line
+     * @param maxDistance   the distance beyond which intersections are ignored
+     * @return the updated result, or null if there are still no intersections
+     */
+    private List<GeoPoint> addIntersections(List<GeoPoint> intersections, int index, Ray ray,
+                                            double tm, double discriminant, double maxDistance) {
+        if (discriminant <= 0)
+            return intersections;
+        double th = Math.sqrt(discriminant);
+        double t1 = alignZero(tm - th), t2 = alignZero(tm + th);
+        boolean near = t1 > 0 && alignZero(t1 - maxDistance) <= 0;
+        boolean far = t2 > 0 && alignZero(t2 - maxDistance) <= 0;
+        if (!near && !far)
+            return intersections;
+        Member member = new Member(index);
+        if (intersections == null)
+            intersections = new LinkedList<>();
+        if (near)
+            intersections.add(new GeoPoint(member, ray.getPoint(t1)));
+        if (far)
+            intersections.add(new GeoPoint(member, ray.getPoint(t2)));
+        return intersections;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        HitRecord hit = new HitRecord().reset(maxDistance);
+        return intersectHelper(ray, hit) ? hit.toGeoPoint() : null;
+    }
+
+    /**
+     * A single sphere of the set, used as the geometry of the intersection points with the set.
+     * It takes the emission and material of the set, and its normal is the normal of its sphere.
+     */
+    private class Member extends Geometry {
+        /** The index of the sphere in the set */
+        private final int index;
+
+        /**
+         * Constructs a member of the set.
+         *
+         * @param index the index of the sphere in the set
+         */
+        Member(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Color getEmission() {
+            return SphereSet.this.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return SphereSet.this.getMaterial();
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return new Vector(p.getX() - x[index], p.getY() - y[index], p.getZ() - z[index]).normalize();
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            Point head = ray.getHead();
+            Vector direction = ray.getDirection();
+            double ux = x[index] - head.getX(), uy = y[index] - head.getY(), uz = z[index] - head.getZ();
+            double tm = direction.getX() * ux + direction.getY() * uy + direction.getZ() * uz;
+            return addIntersections(null, index, ray, tm, radiusSquared[index] - (ux * ux + uy * uy + uz * uz - tm * tm),
+                    maxDistance);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof Member member && member.index == index && member.set() == SphereSet.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(SphereSet.this) + index;
+        }
+
+        /**
+         * Returns the set of the member.
+         *
+         * @return the sphere set
+         */
+        private SphereSet set() {
+            return SphereSet.this;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package geometries;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The discriminant loop of {@link SphereSet} written with the Vector API, so it runs in SIMD
+ * instructions of the widest size the processor supports, instead of relying on the JIT compiler
+ * to vectorize the scalar loop. The lanes are combined in the same order of operations as the
+ * scalar loop, so the results are exactly the same.
+ * <p>
+ * The Vector API is an incubator module: the class is used only if the module
+ * {@code jdk.incubator.vector} was added to the runtime ({@code --add-modules jdk.incubator.vector}),
+ * as checked by {@link Intersectable#VECTOR_API}. Otherwise it is never loaded, and the set uses its scalar loop.
+ */
+final class SphereSetKernel {
+    /** The preferred vector shape of the processor */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /** Don't let anyone instantiate this class. */
+    private SphereSetKernel() {}
+
+    /**
+     * Computes the Tm values and the discriminants of a block of spheres, as the scalar loop of
+     * {@link SphereSet}: a vector of spheres at a time, then the remaining spheres one by one.
+     *
+     * @param x      the lane of the center x coordinates
+     * @param y      the lane of the center y coordinates
+     * @param z      the lane of the center z coordinates
+     * @param r2     the lane of the squared radii
+     * @param from   first sphere of the block (inclusive)
+     * @param to     last sphere of the block (exclusive)
+     * @param hx     x of the ray head
+     * @param hy     y of the ray head
+     * @param hz     z of the ray head
+     * @param dx     x of the ray direction
+     * @param dy     y of the ray direction
+     * @param dz     z of the ray direction
+     * @param lanes  receives the Tm values and then (at {@code offset}) the discriminants of the block
+     * @param offset the position of the discriminants in the lanes
+     */
+    static void discriminants(double[] x, double[] y, double[] z, double[] r2, int from, int to,
+                              double hx, double hy, double hz, double dx, double dy, double dz,
+                              double[] lanes, int offset) {
+        int count = to - from;
+        int bound = SPECIES.loopBound(count);
+        int k = 0;
+        for (; k < bound; k += SPECIES.length()) {
+            int i = from + k;
+            DoubleVector ux = DoubleVector.fromArray(SPECIES, x, i).sub(hx);
+            DoubleVector uy = DoubleVector.fromArray(SPECIES, y, i).sub(hy);
+            DoubleVector uz = DoubleVector.fromArray(SPECIES, z, i).sub(hz);
+            DoubleVector tm = ux.mul(dx).add(uy.mul(dy)).add(uz.mul(dz));
+            DoubleVector distance = ux.mul(ux).add(uy.mul(uy)).add(uz.mul(uz)).sub(tm.mul(tm));
+            tm.intoArray(lanes, k);
+            DoubleVector.fromArray(SPECIES, r2, i).sub(distance).intoArray(lanes, offset + k);
+        }
+        for (; k < count; k++) {
+            int i = from + k;
+            double ux = x[i] - hx, uy = y[i] - hy, uz = z[i] - hz;
+            double tm = dx * ux + dy * uy + dz * uz;
+            lanes[k] = tm;
+            lanes[offset + k] = r2[i] - (ux * ux + uy * uy + uz * uz - tm * tm);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package geometries;
+
+/**
+ * The scratch arrays of a hierarchy traversal: the packed ray data and the explicit stacks of nodes,
+ * entry distances and (for packets) active rays. Every thread keeps its own scratch, so a traversal
+ * allocates nothing once the arrays have grown to the depth of the hierarchies it visits.
+ * <p>
+ * A traversal may reach a leaf that holds another hierarchy (e.g. a mesh, or an instance of a
+ * {@link BVH}), which starts a traversal of its own while the outer one is still running, so the
+ * scratch of a thread is a chain: {@link #acquire()} returns the first scratch that is not in use,
+ * and every traversal {@link #release() releases} its scratch when it ends.
+ */
+final class TraversalScratch {
+    /** The first scratch of each thread */
+    private static final ThreadLocal<TraversalScratch> scratch = ThreadLocal.withInitial(TraversalScratch::new);
+
+    /** The ray data, see {@link BoundingBox#rayData(primitives.Ray, double[])} */
+    final double[] ray = new double[6];
+    /** The stack of nodes to visit */
+    int[] nodes = new int[0];
+    /** The entry distances of the nodes in the stack */
+    double[] distances = new double[0];
+    /** The number of active rays of each node in the stack, for packets */
+    int[] counts = new int[0];
+    /** The active rays of each node in the stack, in a slot of a packet size per node, for packets */
+    int[] activeStack = new int[0];
+    /** The active rays of the current node, for packets */
+    int[] active = new int[0];
+
+    /** Tells whether a traversal is using the scratch */
+    private boolean inUse = false;
+    /** The scratch of a traversal started while this one is in use */
+    private TraversalScratch next = null;
+
+    /**
+     * Returns a scratch of the current thread that is not in use, and marks it as used.
+     *
+     * @return the scratch
+     */
+    static TraversalScratch acquire() {
+        TraversalScratch current = scratch.get();
+        while (current.inUse) {
+            if (current.next == null)
+                current.next = new TraversalScratch();
+            current = current.next;
+        }
+        current.inUse = true;
+        return current;
+    }
+
+    /**
+     * Marks the scratch as free, at the end of the traversal that acquired it.
+     */
+    void release() {
+        inUse = false;
+    }
+
+    /**
+     * Makes the node and distance stacks big enough for a traversal of a single ray.
+     *
+     * @param depth the number of entries the stacks must hold
+     * @return the scratch itself
+     */
+    TraversalScratch forRay(int depth) {
+        if (nodes.length < depth) {
+            nodes = new int[depth];
+            distances = new double[depth];
+        }
+        return this;
+    }
+
+    /**
+     * Makes the stacks big enough for a traversal of a packet of rays.
+     *
+     * @param depth the number of entries the stacks must hold
+     * @param size  the number of rays in the packet
+     * @return the scratch itself
+     */
+    TraversalScratch forPacket(int depth, int size) {
+        forRay(depth);
+        if (counts.length < depth)
+            counts = new int[depth];
+        if (activeStack.length < depth * size)
+            activeStack = new int[depth * size];
+        if (active.length < size)
+            active = new int[size];
+        return this;
+    }
+}
@@ -1,15 +1,32 @@
 package geometries;
 import primitives.*;
 
-import java.util.List;
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
 /**
  * Represents a triangle in 3D space, extending Polygon.
  */
 /**
  * Represents a triangle in three-dimensional space, extending Polygon.
+ * The intersection uses the Möller–Trumbore algorithm with the triangle's edges
+ * calculated once at construction, and also provides the barycentric coordinates of the hit.
  */
 public class Triangle extends Polygon {
 
+    /** The coordinates of the first vertex */
+    private final double p1x, p1y, p1z;
+    /** The edge from the first vertex to the second one */
+    private final double e1x, e1y, e1z;
+    /** The edge from the first vertex to the third one */
+    private final double e2x, e2y, e2z;
+    /**
+     * The inverse length of the cross product of the edges (twice the area), which scales the
+     * determinant into the cosine of the angle between the ray and the normal, so the parallel
+     * ray test does not depend on the size of the triangle
+     */
+    private final double invNormalLength;
+
     /**
      * Constructs a new Triangle with the specified vertices.
      * @param p1 The first vertex of the triangle.
@@ -18,47 +35,67 @@ public class Triangle extends Polygon {
      */
     public Triangle(Point p1, Point p2, Point p3) {
         super(p1, p2, p3);
+        p1x = p1.getX();
+        p1y = p1.getY();
+        p1z = p1.getZ();
+        e1x = p2.getX() - p1x;
+        e1y = p2.getY() - p1y;
+        e1z = p2.getZ() - p1z;
+        e2x = p3.getX() - p1x;
+        e2y = p3.getY() - p1y;
+        e2z = p3.getZ() - p1z;
+        double cx = e1y * e2z - e1z * e2y, cy = e1z * e2x - e1x * e2z, cz = e1x * e2y - e1y * e2x;
+        invNormalLength = 1 / Math.sqrt(cx * cx + cy * cy + cz * cz);
     }
 
     /**
-     * Finds the intersection points between the given ray and the triangle.
+     * Finds the intersection point between the given ray and the triangle with the Möller–Trumbore
+     * algorithm, without allocations. Besides the distance and the point, the barycentric coordinates
+     * of the point (the weights of the second and third vertices) are written into the hit record.
+     * Points on the edges and vertices are not considered intersections.
      *
      * @param ray the ray to check for intersections with the triangle.
-     * @return a list containing the intersection points between the ray and the triangle.
-     *         If there are no intersections, returns null.
-     *         If the ray intersects the plane of the triangle but not the triangle itself, returns null.
+     * @param hit the record of the closest intersection found so far.
+     * @return true if the triangle has a closer intersection point, false otherwise.
      */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
-
-        // Find intersection points with the plane of the triangle
-        List<GeoPoint> result = plane.findGeoIntersections(ray,maxDistance);
-        if (result == null) {
-            return null;
-        }
-
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
         Point p0 = ray.getHead();
         Vector v = ray.getDirection();
-        Point p1 = vertices.get(0);
-        Point p2 = vertices.get(1);
-        Point p3 = vertices.get(2);
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
 
-        Vector v1 = p1.subtract(p0); // v1 = p1 - p0
-        Vector v2 = p2.subtract(p0); // v2 = p2 - p0
-        Vector v3 = p3.subtract(p0); // v3 = p3 - p0
+        // pvec = v x e2, det = e1 * pvec
+        double px = vy * e2z - vz * e2y;
+        double py = vz * e2x - vx * e2z;
+        double pz = vx * e2y - vy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // The ray is parallel to the triangle
+        if (isZero(det * invNormalLength))
+            return false;
+        double invDet = 1 / det;
 
-        Vector n1 = v1.crossProduct(v2); // n1 = v1 x v2
-        Vector n2 = v2.crossProduct(v3); // n2 = v2 x v3
-        Vector n3 = v3.crossProduct(v1); // n3 = v3 x v1
+        // tvec = p0 - p1, u = (tvec * pvec) / det
+        double tx = p0.getX() - p1x, ty = p0.getY() - p1y, tz = p0.getZ() - p1z;
+        double u = alignZero((tx * px + ty * py + tz * pz) * invDet);
+        if (u <= 0 || u >= 1)
+            return false;
 
-        double s1 = n1.dotProduct(v); // s1 = n1 * v
-        double s2 = n2.dotProduct(v); // s2 = n2 * v
-        double s3 = n3.dotProduct(v); // s3 = n3 * v
+        // qvec = tvec x e1, w = (v * qvec) / det
+        double qx = ty * e1z - tz * e1y;
+        double qy = tz * e1x - tx * e1z;
+        double qz = tx * e1y - ty * e1x;
+        double w = alignZero((vx * qx + vy * qy + vz * qz) * invDet);
+        if (w <= 0 || alignZero(u + w - 1) >= 0)
+            return false;
 
-        // Check if all signs are positive or all are negative
-        if (s1 > 0 && s2 > 0 && s3 > 0 || s1 < 0 && s2 < 0 && s3 < 0)
-            return result.stream().map(gp->new GeoPoint(this,gp.point)).toList();
+        // t = (e2 * qvec) / det
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+        if (t <= 0 || alignZero(t - hit.t) >= 0)
+            return false;
 
-        return null;
+        hit.set(this, ray, t);
+        hit.u = u;
+        hit.v = w;
+        return true;
     }
 }
@@ -0,0 +1,213 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Represents a small group of triangles (up to {@link #MAX_SIZE}) intersected together.
+ * The first vertex and the two edges of every triangle are stored as a structure of arrays
+ * (a lane of doubles for every coordinate), and the Möller–Trumbore terms of all the triangles
+ * are computed by one loop without branches. Only then are the results checked, so the group costs
+ * one call instead of a virtual call per triangle.
+ * <p>
+ * The loop runs in SIMD instructions by the Vector API ({@link TriangleBatchKernel}) when the module
+ * {@code jdk.incubator.vector} is added to the runtime, and as a scalar loop otherwise, with the same results.
+ * <p>
+ * Each triangle keeps its own emission and material: the geometry of an intersection point is the
+ * hit {@link Triangle} itself, and the results are the same as intersecting the triangles one by one.
+ * A {@link BVH} puts the triangles of its small sub-hierarchies into batches if it is asked to
+ * ({@link BVH#setBatching(boolean)}).
+ */
+public class TriangleBatch extends Intersectable {
+    /** The maximal number of triangles in a batch */
+    public static final int MAX_SIZE = 8;
+
+    /** The triangles of the batch */
+    private final Triangle[] triangles;
+    /** The lanes of the first vertices, padded with zeros to {@link #MAX_SIZE} triangles */
+    private final double[] px = new double[MAX_SIZE], py = new double[MAX_SIZE], pz = new double[MAX_SIZE];
+    /** The lanes of the edges from the first vertex to the second one */
+    private final double[] e1x = new double[MAX_SIZE], e1y = new double[MAX_SIZE], e1z = new double[MAX_SIZE];
+    /** The lanes of the edges from the first vertex to the third one */
+    private final double[] e2x = new double[MAX_SIZE], e2y = new double[MAX_SIZE], e2z = new double[MAX_SIZE];
+    /** The lane of the inverse lengths of the cross products of the edges, as in {@link Triangle} */
+    private final double[] invNormalLength = new double[MAX_SIZE];
+    /** The bounding box of the batch */
+    private final BoundingBox box;
+
+    /** The scratch lanes of each thread: scaled determinants, u, v and t of the triangles */
+    private static final ThreadLocal<double[]> scratch = ThreadLocal.withInitial(() -> new double[4 * MAX_SIZE]);
+
+    /**
+     * Constructs a batch of triangles.
+     *
+     * @param triangles the triangles
+     * @throws IllegalArgumentException if there are no triangles or more than {@link #MAX_SIZE}
+     */
+    public TriangleBatch(Triangle... triangles) {
+        if (triangles.length == 0 || triangles.length > MAX_SIZE)
+            throw new IllegalArgumentException("A triangle batch holds 1 to " + MAX_SIZE + " triangles");
+        this.triangles = triangles.clone();
+        BoundingBox union = null;
+        for (int i = 0; i < triangles.length; i++) {
+            Point p1 = triangles[i].vertices.get(0), p2 = triangles[i].vertices.get(1), p3 = triangles[i].vertices.get(2);
+            px[i] = p1.getX();
+            py[i] = p1.getY();
+            pz[i] = p1.getZ();
+            e1x[i] = p2.getX() - px[i];
+            e1y[i] = p2.getY() - py[i];
+            e1z[i] = p2.getZ() - pz[i];
+            e2x[i] = p3.getX() - px[i];
+            e2y[i] = p3.getY() - py[i];
+            e2z[i] = p3.getZ() - pz[i];
+            double cx = e1y[i] * e2z[i] - e1z[i] * e2y[i];
+            double cy = e1z[i] * e2x[i] - e1x[i] * e2z[i];
+            double cz = e1x[i] * e2y[i] - e1y[i] * e2x[i];
+            invNormalLength[i] = 1 / Math.sqrt(cx * cx + cy * cy + cz * cz);
+            BoundingBox triangleBox = triangles[i].getBoundingBox();
+            union = union == null ? triangleBox : union.union(triangleBox);
+        }
+        box = union;
+    }
+
+    /**
+     * Returns the number of triangles in the batch.
+     *
+     * @return the number of triangles
+     */
+    public int size() {
+        return triangles.length;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Computes the Möller–Trumbore determinant, barycentric coordinates and distance of the ray
+     * for every triangle of the batch, by the Vector API kernel if it is available, or by a scalar loop.
+     * The results of a triangle are meaningful only if its determinant is not zero.
+     * The determinants are scaled by the size of the triangles, as in {@link Triangle}.
+     *
+     * @param ray   the ray
+     * @param lanes receives the scaled determinants, u values, v values and distances
+     * @return the bits of the triangles that may be hit and must be checked:
+     * those not ruled out by the kernel, or all of them
+     */
+    private int compute(Ray ray, double[] lanes) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double hx = head.getX(), hy = head.getY(), hz = head.getZ();
+        double vx = direction.getX(), vy = direction.getY(), vz = direction.getZ();
+        if (VECTOR_API)
+            return TriangleBatchKernel.compute(triangles.length, px, py, pz, e1x, e1y, e1z, e2x, e2y, e2z,
+                    invNormalLength, hx, hy, hz, vx, vy, vz, lanes);
+        int n = triangles.length;
+        for (int i = 0; i < n; i++) {
+            double qx = vy * e2z[i] - vz * e2y[i];
+            double qy = vz * e2x[i] - vx * e2z[i];
+            double qz = vx * e2y[i] - vy * e2x[i];
+            double det = e1x[i] * qx + e1y[i] * qy + e1z[i] * qz;
+            double invDet = 1 / det;
+            double tx = hx - px[i], ty = hy - py[i], tz = hz - pz[i];
+            double rx = ty * e1z[i] - tz * e1y[i];
+            double ry = tz * e1x[i] - tx * e1z[i];
+            double rz = tx * e1y[i] - ty * e1x[i];
+            lanes[i] = det * invNormalLength[i];
+            lanes[MAX_SIZE + i] = (tx * qx + ty * qy + tz * qz) * invDet;
+            lanes[2 * MAX_SIZE + i] = (vx * rx + vy * ry + vz * rz) * invDet;
+            lanes[3 * MAX_SIZE + i] = (e2x[i] * rx + e2y[i] * ry + e2z[i] * rz) * invDet;
+        }
+        return (1 << n) - 1;
+    }
+
+    /**
+     * Checks the computed results of a triangle, with the same tolerances as {@link Triangle}:
+     * points on the edges are not intersections, nor points at the maximal distance or beyond.
+     *
+     * @param lanes       the computed results
+     * @param i           the triangle index
+     * @param maxDistance the distance from which intersections are ignored
+     * @return the distance to the intersection, or positive infinity if there is none
+     */
+    private static double distance(double[] lanes, int i, double maxDistance) {
+        if (isZero(lanes[i]))
+            return Double.POSITIVE_INFINITY;
+        double u = alignZero(lanes[MAX_SIZE + i]);
+        double v = alignZero(lanes[2 * MAX_SIZE + i]);
+        if (u <= 0 || v <= 0 || alignZero(u + v - 1) >= 0)
+            return Double.POSITIVE_INFINITY;
+        double t = alignZero(lanes[3 * MAX_SIZE + i]);
+        return t <= 0 || alignZero(t - maxDistance) >= 0 ? Double.POSITIVE_INFINITY : t;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        double[] lanes = scratch.get();
+        List<GeoPoint> intersections = null;
+        for (int bits = compute(ray, lanes); bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            double t = distance(lanes, i, maxDistance);
+            if (t == Double.POSITIVE_INFINITY)
+                continue;
+            if (intersections == null)
+                intersections = new LinkedList<>();
+            intersections.add(new GeoPoint(triangles[i], ray.getPoint(t)));
+        }
+        return intersections;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        HitRecord hit = new HitRecord().reset(maxDistance);
+        return intersectHelper(ray, hit) ? hit.toGeoPoint() : null;
+    }
+
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        double[] lanes = scratch.get();
+        int closest = -1;
+        double closestT = hit.t;
+        for (int bits = compute(ray, lanes); bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            double t = distance(lanes, i, closestT);
+            if (t < closestT) {
+                closest = i;
+                closestT = t;
+            }
+        }
+        if (closest < 0)
+            return false;
+        hit.set(triangles[closest], ray, closestT);
+        hit.u = alignZero(lanes[MAX_SIZE + closest]);
+        hit.v = alignZero(lanes[2 * MAX_SIZE + closest]);
+        return true;
+    }
+
+    /**
+     * Multiplies the transparency by the materials of the hit triangles one by one, so a hit on an
+     * opaque triangle ends the search at once, as it does for a separate triangle.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        double[] lanes = scratch.get();
+        for (int bits = compute(ray, lanes); bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            if (distance(lanes, i, maxDistance) == Double.POSITIVE_INFINITY)
+                continue;
+            ktr = ktr.product(triangles[i].getMaterial().kT);
+            if (ktr.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        return ktr;
+    }
+}
@@ -0,0 +1,109 @@
+package geometries;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import static geometries.TriangleBatch.MAX_SIZE;
+import static jdk.incubator.vector.VectorOperators.*;
+
+/**
+ * The Möller–Trumbore loop of {@link TriangleBatch} written with the Vector API, so the triangles
+ * of a batch are computed in SIMD instructions of the widest size the processor supports (a whole
+ * batch at once with 512 bit vectors). The lanes are combined in the same order of operations as
+ * the scalar loop, so the results are exactly the same. The kernel also compares the lanes with the
+ * bounds of the triangles, so only the few triangles that may be hit are checked one by one.
+ * <p>
+ * The class is used only if the module {@code jdk.incubator.vector} was added to the runtime,
+ * as checked by {@link Intersectable#VECTOR_API}. Otherwise it is never loaded, and the batch uses its scalar loop.
+ */
+final class TriangleBatchKernel {
+    /** The preferred vector shape of the processor */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /** Don't let anyone instantiate this class. */
+    private TriangleBatchKernel() {}
+
+    /**
+     * Computes the scaled determinants, barycentric coordinates and distances of the triangles of
+     * a batch, as the scalar loop of {@link TriangleBatch}. The lanes of the batch are padded to
+     * {@link TriangleBatch#MAX_SIZE}, so whole vectors are computed as long as they fit in the lanes,
+     * and the remaining triangles one by one. A triangle is a candidate unless its results show it
+     * is missed (negative barycentric coordinates or distance, or a point beyond the third edge);
+     * the candidates are then checked with the tolerances of {@link Triangle}.
+     *
+     * @param count the number of triangles in the batch
+     * @param px    the lane of the first vertex x coordinates
+     * @param py    the lane of the first vertex y coordinates
+     * @param pz    the lane of the first vertex z coordinates
+     * @param e1x   the lane of the first edge x coordinates
+     * @param e1y   the lane of the first edge y coordinates
+     * @param e1z   the lane of the first edge z coordinates
+     * @param e2x   the lane of the second edge x coordinates
+     * @param e2y   the lane of the second edge y coordinates
+     * @param e2z   the lane of the second edge z coordinates
+     * @param scale the lane of the inverse lengths of the cross products of the edges
+     * @param hx    x of the ray head
+     * @param hy    y of the ray head
+     * @param hz    z of the ray head
+     * @param vx    x of the ray direction
+     * @param vy    y of the ray direction
+     * @param vz    z of the ray direction
+     * @param lanes receives the scaled determinants, u values, v values and distances
+     * @return the bits of the candidate triangles
+     */
+    static int compute(int count, double[] px, double[] py, double[] pz,
+                        double[] e1x, double[] e1y, double[] e1z, double[] e2x, double[] e2y, double[] e2z,
+                        double[] scale, double hx, double hy, double hz, double vx, double vy, double vz,
+                        double[] lanes) {
+        int candidates = 0;
+        int i = 0;
+        for (; i < count && i + SPECIES.length() <= MAX_SIZE; i += SPECIES.length()) {
+            DoubleVector ax = DoubleVector.fromArray(SPECIES, e1x, i);
+            DoubleVector ay = DoubleVector.fromArray(SPECIES, e1y, i);
+            DoubleVector az = DoubleVector.fromArray(SPECIES, e1z, i);
+            DoubleVector bx = DoubleVector.fromArray(SPECIES, e2x, i);
+            DoubleVector by = DoubleVector.fromArray(SPECIES, e2y, i);
+            DoubleVector bz = DoubleVector.fromArray(SPECIES, e2z, i);
+            DoubleVector qx = bz.mul(vy).sub(by.mul(vz));
+            DoubleVector qy = bx.mul(vz).sub(bz.mul(vx));
+            DoubleVector qz = by.mul(vx).sub(bx.mul(vy));
+            DoubleVector det = ax.mul(qx).add(ay.mul(qy)).add(az.mul(qz));
+            DoubleVector invDet = DoubleVector.broadcast(SPECIES, 1).div(det);
+            DoubleVector tx = DoubleVector.broadcast(SPECIES, hx).sub(DoubleVector.fromArray(SPECIES, px, i));
+            DoubleVector ty = DoubleVector.broadcast(SPECIES, hy).sub(DoubleVector.fromArray(SPECIES, py, i));
+            DoubleVector tz = DoubleVector.broadcast(SPECIES, hz).sub(DoubleVector.fromArray(SPECIES, pz, i));
+            DoubleVector rx = ty.mul(az).sub(tz.mul(ay));
+            DoubleVector ry = tz.mul(ax).sub(tx.mul(az));
+            DoubleVector rz = tx.mul(ay).sub(ty.mul(ax));
+            DoubleVector u = tx.mul(qx).add(ty.mul(qy)).add(tz.mul(qz)).mul(invDet);
+            DoubleVector v = rx.mul(vx).add(ry.mul(vy)).add(rz.mul(vz)).mul(invDet);
+            DoubleVector t = bx.mul(rx).add(by.mul(ry)).add(bz.mul(rz)).mul(invDet);
+            det.mul(DoubleVector.fromArray(SPECIES, scale, i)).intoArray(lanes, i);
+            u.intoArray(lanes, MAX_SIZE + i);
+            v.intoArray(lanes, 2 * MAX_SIZE + i);
+            t.intoArray(lanes, 3 * MAX_SIZE + i);
+            VectorMask<Double> inside = u.compare(GE, 0).and(v.compare(GE, 0))
+                    .and(u.add(v).compare(LE, 1)).and(t.compare(GT, 0));
+            candidates |= (int) inside.toLong() << i;
+        }
+        candidates &= (1 << Math.min(i, count)) - 1;
+        for (; i < count; i++) {
+            double qx = vy * e2z[i] - vz * e2y[i];
+            double qy = vz * e2x[i] - vx * e2z[i];
+            double qz = vx * e2y[i] - vy * e2x[i];
+            double det = e1x[i] * qx + e1y[i] * qy + e1z[i] * qz;
+            double invDet = 1 / det;
+            double tx = hx - px[i], ty = hy - py[i], tz = hz - pz[i];
+            double rx = ty * e1z[i] - tz * e1y[i];
+            double ry = tz * e1x[i] - tx * e1z[i];
+            double rz = tx * e1y[i] - ty * e1x[i];
+            lanes[i] = det * scale[i];
+            lanes[MAX_SIZE + i] = (tx * qx + ty * qy + tz * qz) * invDet;
+            lanes[2 * MAX_SIZE + i] = (vx * rx + vy * ry + vz * rz) * invDet;
+            lanes[3 * MAX_SIZE + i] = (e2x[i] * rx + e2y[i] * ry + e2z[i] * rz) * invDet;
+            candidates |= 1 << i;
+        }
+        return candidates;
+    }
+}
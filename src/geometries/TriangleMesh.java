@@ -0,0 +1,589 @@
+package geometries;
+
+import primitives.*;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Represents an indexed triangle mesh with a single material.
+ * The vertices are stored in a flat coordinates array (x, y, z for each vertex) and the triangles
+ * as triples of vertex indices, so a shared vertex is stored once and a triangle costs three ints
+ * (and the inverse length of its normal before normalization), instead of a separate {@link Triangle} object (with its own plane, vertices list and material) per triangle.
+ * <p>
+ * The mesh keeps its own bounding volume hierarchy over its triangles, stored in arrays as well,
+ * so inside a {@link Geometries} collection it acts as a single intersectable.
+ * The geometry of each intersection point is a lightweight face object of the mesh, which gives
+ * the normal of the hit triangle and the emission and material of the mesh.
+ * <p>
+ * Unlike a single {@link Triangle}, points on the edges and vertices of a mesh triangle are
+ * considered intersections, so rays don't slip through the edges shared by neighbouring triangles.
+ */
+public class TriangleMesh extends Geometry {
+    /** The maximal number of triangles in a leaf of the hierarchy */
+    private static final int MAX_LEAF_SIZE = 4;
+    /** The maximal depth of the hierarchy (the tree is split in the median, so it is balanced) */
+    private static final int MAX_DEPTH = 64;
+
+    /** The coordinates of the vertices: x, y, z of each vertex */
+    private final double[] vertices;
+    /** The vertex indices of the triangles: three indices for each triangle */
+    private final int[] indices;
+    /**
+     * The inverse lengths of the cross products of the triangle edges, which scale the determinants
+     * of the intersection as in {@link Triangle}, or 0 for a degenerate triangle
+     */
+    private final double[] invNormalLengths;
+
+    /** The triangle numbers, in the order of the leaves of the hierarchy */
+    private final int[] order;
+    /** The boxes of the hierarchy nodes: minX, minY, minZ, maxX, maxY, maxZ for each node */
+    private final double[] nodeBoxes;
+    /**
+     * For a leaf - the position of its first triangle in {@link #order},
+     * for an inner node - the index of its right child (the left child follows its parent)
+     */
+    private final int[] nodeFirst;
+    /** The number of triangles in a leaf, 0 for an inner node */
+    private final int[] nodeCount;
+    /** The number of nodes in the hierarchy */
+    private int nodes;
+
+    /** The bounding box of the whole mesh */
+    private final BoundingBox box;
+
+    /**
+     * Constructs a triangle mesh from vertex coordinates and triangle indices.
+     * The arrays are used as they are (not copied) and should not be changed afterwards.
+     * The normal of a triangle (a, b, c) is the normalized (b - a) x (c - a).
+     *
+     * @param vertices the coordinates of the vertices: x, y, z of each vertex
+     * @param indices  the vertex indices of the triangles: three indices for each triangle
+     * @throws IllegalArgumentException if there are no triangles, the arrays are not made of
+     *                                  triples, or an index is out of the vertices range
+     */
+    public TriangleMesh(double[] vertices, int[] indices) {
+        if (vertices.length % 3 != 0)
+            throw new IllegalArgumentException("The vertices array must hold three coordinates for each vertex");
+        if (indices.length == 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("The indices array must hold three indices for each triangle");
+        int vertexCount = vertices.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("Vertex index out of range: " + index);
+
+        this.vertices = vertices;
+        this.indices = indices;
+
+        int count = indices.length / 3;
+        order = new int[count];
+        invNormalLengths = new double[count];
+        double[] centroids = new double[3 * count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            int a = 3 * indices[3 * i], b = 3 * indices[3 * i + 1], c = 3 * indices[3 * i + 2];
+            for (int axis = 0; axis < 3; axis++)
+                centroids[3 * i + axis] = (vertices[a + axis] + vertices[b + axis] + vertices[c + axis]) / 3;
+            double e1x = vertices[b] - vertices[a], e1y = vertices[b + 1] - vertices[a + 1], e1z = vertices[b + 2] - vertices[a + 2];
+            double e2x = vertices[c] - vertices[a], e2y = vertices[c + 1] - vertices[a + 1], e2z = vertices[c + 2] - vertices[a + 2];
+            double cx = e1y * e2z - e1z * e2y, cy = e1z * e2x - e1x * e2z, cz = e1x * e2y - e1y * e2x;
+            double length = Math.sqrt(cx * cx + cy * cy + cz * cz);
+            invNormalLengths[i] = length == 0 ? 0 : 1 / length;
+        }
+
+        int maxNodes = 2 * count;
+        nodeBoxes = new double[6 * maxNodes];
+        nodeFirst = new int[maxNodes];
+        nodeCount = new int[maxNodes];
+        build(centroids, 0, count);
+        box = new BoundingBox(nodeBoxes[0], nodeBoxes[1], nodeBoxes[2], nodeBoxes[3], nodeBoxes[4], nodeBoxes[5]);
+    }
+
+    /**
+     * Returns the number of triangles in the mesh.
+     *
+     * @return the number of triangles
+     */
+    public int getTriangleCount() {
+        return order.length;
+    }
+
+    /**
+     * Returns the normal of the triangle nearest to the point, which is the triangle of the point
+     * if it lies on the mesh. The normal at an intersection point is also given directly by the
+     * geometry of that point (a face of the mesh), without searching.
+     *
+     * @param p the point
+     * @return the normal of the nearest triangle
+     */
+    @Override
+    public Vector getNormal(Point p) {
+        return normal(nearestTriangle(p.getX(), p.getY(), p.getZ()));
+    }
+
+    /**
+     * Returns the face of a triangle of the mesh.
+     *
+     * @param index the triangle number
+     * @return the face of the triangle
+     */
+    @Override
+    protected Geometry part(int index) {
+        return new Face(index);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return box;
+    }
+
+    /**
+     * Calculates the normal of a triangle of the mesh.
+     *
+     * @param triangle the triangle number
+     * @return the normalized (b - a) x (c - a) of the triangle (a, b, c)
+     */
+    private Vector normal(int triangle) {
+        int a = 3 * indices[3 * triangle], b = 3 * indices[3 * triangle + 1], c = 3 * indices[3 * triangle + 2];
+        Vector edge1 = new Vector(vertices[b] - vertices[a], vertices[b + 1] - vertices[a + 1], vertices[b + 2] - vertices[a + 2]);
+        Vector edge2 = new Vector(vertices[c] - vertices[a], vertices[c + 1] - vertices[a + 1], vertices[c + 2] - vertices[a + 2]);
+        return edge1.crossProduct(edge2).normalize();
+    }
+
+    /**
+     * Finds the (non-degenerate) triangle nearest to a point, visiting only the hierarchy nodes
+     * whose boxes are nearer than the nearest triangle found so far.
+     *
+     * @param x x of the point
+     * @param y y of the point
+     * @param z z of the point
+     * @return the nearest triangle number
+     */
+    private int nearestTriangle(double x, double y, double z) {
+        double nearest = Double.POSITIVE_INFINITY;
+        int nearestTriangle = 0;
+        int[] stack = new int[MAX_DEPTH];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (boxDistanceSquared(node, x, y, z) >= nearest)
+                continue;
+            int count = nodeCount[node];
+            if (count == 0) {
+                stack[top++] = nodeFirst[node];
+                stack[top++] = node + 1;
+                continue;
+            }
+            for (int i = nodeFirst[node], end = i + count; i < end; i++) {
+                if (invNormalLengths[order[i]] == 0)
+                    continue;
+                double distance = triangleDistanceSquared(order[i], x, y, z);
+                if (distance < nearest) {
+                    nearest = distance;
+                    nearestTriangle = order[i];
+                }
+            }
+        }
+        return nearestTriangle;
+    }
+
+    /**
+     * Calculates the squared distance of a point from the box of a hierarchy node.
+     *
+     * @param node the node index
+     * @param x    x of the point
+     * @param y    y of the point
+     * @param z    z of the point
+     * @return the squared distance, 0 if the point is inside the box
+     */
+    private double boxDistanceSquared(int node, double x, double y, double z) {
+        int offset = 6 * node;
+        double dx = Math.max(0, Math.max(nodeBoxes[offset] - x, x - nodeBoxes[offset + 3]));
+        double dy = Math.max(0, Math.max(nodeBoxes[offset + 1] - y, y - nodeBoxes[offset + 4]));
+        double dz = Math.max(0, Math.max(nodeBoxes[offset + 2] - z, z - nodeBoxes[offset + 5]));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Calculates the squared distance of a point from a triangle of the mesh, by the closest point
+     * of the triangle: a vertex, a point of an edge or a point of the face, by the region of the
+     * point relative to the triangle.
+     *
+     * @param triangle the triangle number
+     * @param x        x of the point
+     * @param y        y of the point
+     * @param z        z of the point
+     * @return the squared distance
+     */
+    private double triangleDistanceSquared(int triangle, double x, double y, double z) {
+        int a = 3 * indices[3 * triangle], b = 3 * indices[3 * triangle + 1], c = 3 * indices[3 * triangle + 2];
+        double ax = vertices[a], ay = vertices[a + 1], az = vertices[a + 2];
+        double abx = vertices[b] - ax, aby = vertices[b + 1] - ay, abz = vertices[b + 2] - az;
+        double acx = vertices[c] - ax, acy = vertices[c + 1] - ay, acz = vertices[c + 2] - az;
+        double apx = x - ax, apy = y - ay, apz = z - az;
+        double d1 = abx * apx + aby * apy + abz * apz;
+        double d2 = acx * apx + acy * apy + acz * apz;
+        // the weights of the second and third vertices in the closest point
+        double v, w;
+        double d3 = d1 - (abx * abx + aby * aby + abz * abz);
+        double d4 = d2 - (acx * abx + acy * aby + acz * abz);
+        double d5 = d1 - (abx * acx + aby * acy + abz * acz);
+        double d6 = d2 - (acx * acx + acy * acy + acz * acz);
+        double va = d3 * d6 - d5 * d4, vb = d5 * d2 - d1 * d6, vc = d1 * d4 - d3 * d2;
+        if (d1 <= 0 && d2 <= 0) { // the first vertex
+            v = 0;
+            w = 0;
+        } else if (d3 >= 0 && d4 <= d3) { // the second vertex
+            v = 1;
+            w = 0;
+        } else if (d6 >= 0 && d5 <= d6) { // the third vertex
+            v = 0;
+            w = 1;
+        } else if (vc <= 0 && d1 >= 0 && d3 <= 0) { // the edge of the first and second vertices
+            v = d1 / (d1 - d3);
+            w = 0;
+        } else if (vb <= 0 && d2 >= 0 && d6 <= 0) { // the edge of the first and third vertices
+            v = 0;
+            w = d2 / (d2 - d6);
+        } else if (va <= 0 && d4 - d3 >= 0 && d5 - d6 >= 0) { // the edge of the second and third vertices
+            w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+            v = 1 - w;
+        } else { // the face
+            double denominator = va + vb + vc;
+            v = vb / denominator;
+            w = vc / denominator;
+        }
+        double dx = apx - abx * v - acx * w, dy = apy - aby * v - acy * w, dz = apz - abz * v - acz * w;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Builds the hierarchy node of the triangles in a range of {@link #order}.
+     * The range is split at the median of the triangle centroids along their longest axis.
+     *
+     * @param centroids the centroids of the triangles
+     * @param from      first position in the range (inclusive)
+     * @param to        last position in the range (exclusive)
+     * @return the index of the built node
+     */
+    private int build(double[] centroids, int from, int to) {
+        int node = nodes++;
+        double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        double[] centroidMin = min.clone();
+        double[] centroidMax = max.clone();
+        for (int i = from; i < to; i++) {
+            int triangle = order[i];
+            for (int k = 0; k < 3; k++) {
+                int vertex = 3 * indices[3 * triangle + k];
+                for (int axis = 0; axis < 3; axis++) {
+                    min[axis] = Math.min(min[axis], vertices[vertex + axis]);
+                    max[axis] = Math.max(max[axis], vertices[vertex + axis]);
+                }
+            }
+            for (int axis = 0; axis < 3; axis++) {
+                centroidMin[axis] = Math.min(centroidMin[axis], centroids[3 * triangle + axis]);
+                centroidMax[axis] = Math.max(centroidMax[axis], centroids[3 * triangle + axis]);
+            }
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            nodeBoxes[6 * node + axis] = min[axis];
+            nodeBoxes[6 * node + 3 + axis] = max[axis];
+        }
+
+        int axis = 0;
+        for (int k = 1; k < 3; k++)
+            if (centroidMax[k] - centroidMin[k] > centroidMax[axis] - centroidMin[axis])
+                axis = k;
+        // a small range, or triangles that can't be separated by their centroids, make a leaf
+        if (to - from <= MAX_LEAF_SIZE || centroidMax[axis] == centroidMin[axis]) {
+            nodeFirst[node] = from;
+            nodeCount[node] = to - from;
+            return node;
+        }
+
+        int middle = (from + to) >>> 1;
+        select(centroids, axis, from, to, middle);
+        build(centroids, from, middle);
+        nodeFirst[node] = build(centroids, middle, to);
+        nodeCount[node] = 0;
+        return node;
+    }
+
+    /**
+     * Partially sorts a range of {@link #order} by the centroids along an axis,
+     * so that the triangle at the given position is the one that would be there in a full sort,
+     * the triangles before it are not greater and the ones after it are not smaller (quick select).
+     *
+     * @param centroids the centroids of the triangles
+     * @param axis      the axis to sort by
+     * @param from      first position in the range (inclusive)
+     * @param to        last position in the range (exclusive)
+     * @param nth       the position to select
+     */
+    private void select(double[] centroids, int axis, int from, int to, int nth) {
+        int low = from, high = to - 1;
+        while (low < high) {
+            double pivot = centroids[3 * order[(low + high) >>> 1] + axis];
+            int i = low, j = high;
+            while (i <= j) {
+                while (centroids[3 * order[i] + axis] < pivot) i++;
+                while (centroids[3 * order[j] + axis] > pivot) j--;
+                if (i <= j) {
+                    int temp = order[i];
+                    order[i++] = order[j];
+                    order[j--] = temp;
+                }
+            }
+            if (nth <= j) high = j;
+            else if (nth >= i) low = i;
+            else return;
+        }
+    }
+
+    /**
+     * Calculates the distance along a ray to its intersection with a triangle of the mesh
+     * (Möller–Trumbore algorithm). Points on the edges of the triangle are intersections.
+     *
+     * @param triangle    the triangle number
+     * @param ray         the ray
+     * @param maxDistance the distance along the ray from which intersections are ignored
+     * @return the distance to the intersection, or positive infinity if there is none
+     */
+    private double triangleDistance(int triangle, Ray ray, double maxDistance) {
+        int a = 3 * indices[3 * triangle], b = 3 * indices[3 * triangle + 1], c = 3 * indices[3 * triangle + 2];
+        double ax = vertices[a], ay = vertices[a + 1], az = vertices[a + 2];
+        double e1x = vertices[b] - ax, e1y = vertices[b + 1] - ay, e1z = vertices[b + 2] - az;
+        double e2x = vertices[c] - ax, e2y = vertices[c + 1] - ay, e2z = vertices[c + 2] - az;
+
+        Point p0 = ray.getHead();
+        Vector v = ray.getDirection();
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
+        double px = vy * e2z - vz * e2y;
+        double py = vz * e2x - vx * e2z;
+        double pz = vx * e2y - vy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // the ray is parallel to the triangle (by the cosine of the angle between the ray and the normal)
+        if (isZero(det * invNormalLengths[triangle]))
+            return Double.POSITIVE_INFINITY;
+        double invDet = 1 / det;
+
+        double tx = p0.getX() - ax, ty = p0.getY() - ay, tz = p0.getZ() - az;
+        double u = alignZero((tx * px + ty * py + tz * pz) * invDet);
+        if (u < 0 || u > 1)
+            return Double.POSITIVE_INFINITY;
+        double qx = ty * e1z - tz * e1y;
+        double qy = tz * e1x - tx * e1z;
+        double qz = tx * e1y - ty * e1x;
+        double w = alignZero((vx * qx + vy * qy + vz * qz) * invDet);
+        if (w < 0 || alignZero(u + w - 1) > 0)
+            return Double.POSITIVE_INFINITY;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * invDet);
+        return t <= 0 || alignZero(t - maxDistance) >= 0 ? Double.POSITIVE_INFINITY : t;
+    }
+
+    /**
+     * Writes the barycentric coordinates of a ray's hit point on a triangle into a hit record.
+     *
+     * @param triangle the hit triangle
+     * @param hit      the hit record with the intersection point
+     */
+    private void setBarycentric(int triangle, HitRecord hit) {
+        int a = 3 * indices[3 * triangle], b = 3 * indices[3 * triangle + 1], c = 3 * indices[3 * triangle + 2];
+        double ax = vertices[a], ay = vertices[a + 1], az = vertices[a + 2];
+        double e1x = vertices[b] - ax, e1y = vertices[b + 1] - ay, e1z = vertices[b + 2] - az;
+        double e2x = vertices[c] - ax, e2y = vertices[c + 1] - ay, e2z = vertices[c + 2] - az;
+        double px = hit.x - ax, py = hit.y - ay, pz = hit.z - az;
+        double d11 = e1x * e1x + e1y * e1y + e1z * e1z;
+        double d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+        double d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+        double dp1 = px * e1x + py * e1y + pz * e1z;
+        double dp2 = px * e2x + py * e2y + pz * e2z;
+        double denominator = d11 * d22 - d12 * d12;
+        hit.u = (d22 * dp1 - d12 * dp2) / denominator;
+        hit.v = (d11 * dp2 - d12 * dp1) / denominator;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        TraversalScratch scratch = TraversalScratch.acquire().forRay(MAX_DEPTH);
+        try {
+            double[] data = BoundingBox.rayData(ray, scratch.ray);
+            List<GeoPoint> intersections = null;
+            int[] stack = scratch.nodes;
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int node = stack[--top];
+                if (BoundingBox.intersectionDistance(nodeBoxes, 6 * node, data, maxDistance) == Double.POSITIVE_INFINITY)
+                    continue;
+                int count = nodeCount[node];
+                if (count == 0) {
+                    stack[top++] = nodeFirst[node];
+                    stack[top++] = node + 1;
+                    continue;
+                }
+                for (int i = nodeFirst[node], end = i + count; i < end; i++) {
+                    double t = triangleDistance(order[i], ray, maxDistance);
+                    if (t != Double.POSITIVE_INFINITY) {
+                        if (intersections == null)
+                            intersections = new LinkedList<>();
+                        intersections.add(new GeoPoint(new Face(order[i]), ray.getPoint(t)));
+                    }
+                }
+            }
+            return intersections;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        HitRecord hit = new HitRecord().reset(maxDistance);
+        return intersectHelper(ray, hit) ? hit.toGeoPoint() : null;
+    }
+
+    /**
+     * Finds the closest intersection of the ray with the mesh, visiting the hierarchy nodes
+     * front to back and skipping the nodes that start beyond the closest triangle hit found so far.
+     * The hit record gets the mesh as the geometry and the index of the hit triangle as the part
+     * (so its face is created only for the final hit), and the barycentric coordinates of the point
+     * in the hit triangle. The traversal stacks are the reused scratch of the thread.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        TraversalScratch scratch = TraversalScratch.acquire().forRay(MAX_DEPTH);
+        try {
+            return intersectHelper(ray, hit, scratch);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Finds the closest intersection of the ray with the mesh, with the given traversal stacks.
+     *
+     * @param ray     the ray
+     * @param hit     the record of the closest intersection found so far, updated in place
+     * @param scratch the traversal scratch of the thread
+     * @return true if a closer intersection was found, false otherwise
+     */
+    private boolean intersectHelper(Ray ray, HitRecord hit, TraversalScratch scratch) {
+        double[] data = BoundingBox.rayData(ray, scratch.ray);
+        double closest = hit.t;
+        int closestTriangle = -1;
+        int[] nodeStack = scratch.nodes;
+        double[] distanceStack = scratch.distances;
+        int top = 0;
+        double distance = BoundingBox.intersectionDistance(nodeBoxes, 0, data, closest);
+        if (distance == Double.POSITIVE_INFINITY)
+            return false;
+        nodeStack[top] = 0;
+        distanceStack[top++] = distance;
+        while (top > 0) {
+            int node = nodeStack[--top];
+            if (distanceStack[top] >= closest)
+                continue;
+            int count = nodeCount[node];
+            if (count == 0) {
+                int left = node + 1, right = nodeFirst[node];
+                double leftDistance = BoundingBox.intersectionDistance(nodeBoxes, 6 * left, data, closest);
+                double rightDistance = BoundingBox.intersectionDistance(nodeBoxes, 6 * right, data, closest);
+                // the nearer child is pushed last so it is visited first
+                if (leftDistance > rightDistance) {
+                    int n = left; left = right; right = n;
+                    double d = leftDistance; leftDistance = rightDistance; rightDistance = d;
+                }
+                if (rightDistance != Double.POSITIVE_INFINITY) {
+                    nodeStack[top] = right;
+                    distanceStack[top++] = rightDistance;
+                }
+                if (leftDistance != Double.POSITIVE_INFINITY) {
+                    nodeStack[top] = left;
+                    distanceStack[top++] = leftDistance;
+                }
+                continue;
+            }
+            for (int i = nodeFirst[node], end = i + count; i < end; i++) {
+                double t = triangleDistance(order[i], ray, closest);
+                if (t < closest) {
+                    closest = t;
+                    closestTriangle = order[i];
+                }
+            }
+        }
+        if (closestTriangle < 0)
+            return false;
+        hit.set(this, ray, closest);
+        hit.part = closestTriangle;
+        setBarycentric(closestTriangle, hit);
+        return true;
+    }
+
+    /**
+     * A single triangle of the mesh, used as the geometry of the intersection points with the mesh.
+     * It takes the emission and material of the mesh, and its normal is the normal of its triangle.
+     * Faces are created for found intersections only, so the mesh itself holds no object per triangle.
+     */
+    private class Face extends Geometry {
+        /** The triangle number in the mesh */
+        private final int triangle;
+
+        /**
+         * Constructs a face of the mesh.
+         *
+         * @param triangle the triangle number in the mesh
+         */
+        Face(int triangle) {
+            this.triangle = triangle;
+        }
+
+        @Override
+        public Color getEmission() {
+            return TriangleMesh.this.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return TriangleMesh.this.getMaterial();
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return normal(triangle);
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+            double t = triangleDistance(triangle, ray, maxDistance);
+            return t == Double.POSITIVE_INFINITY ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof Face face && face.triangle == triangle && face.mesh() == TriangleMesh.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(TriangleMesh.this), triangle);
+        }
+
+        /**
+         * Returns the mesh of the face.
+         *
+         * @return the mesh
+         */
+        private TriangleMesh mesh() {
+            return TriangleMesh.this;
+        }
+    }
+}
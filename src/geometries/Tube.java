@@ -2,8 +2,10 @@ package geometries;
 
 import primitives.*;
 
+import java.util.LinkedList;
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
@@ -15,6 +17,11 @@ public class Tube extends RadialGeometry {
      * The axis of the tube (a ray representing its direction).
      */
     protected final Ray axis;
+    /** The coordinates of the axis head */
+    protected final double ax, ay, az;
+    /** The coordinates of the (unit) axis direction */
+    protected final double dx, dy, dz;
+
     /**
      * Constructs a new Tube with the specified radius and axis.
      *
@@ -24,6 +31,14 @@ public class Tube extends RadialGeometry {
     public Tube(double radius, Ray axis) {
         super(radius);
         this.axis = axis;
+        Point head = axis.getHead();
+        Vector direction = axis.getDirection();
+        ax = head.getX();
+        ay = head.getY();
+        az = head.getZ();
+        dx = direction.getX();
+        dy = direction.getY();
+        dz = direction.getZ();
     }
 
 
@@ -44,8 +59,151 @@ public class Tube extends RadialGeometry {
             return point.subtract(p0).normalize();
     }
 
+    /**
+     * An infinite tube has no bounding box.
+     *
+     * @return null, as the tube is unbounded
+     */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
+    public BoundingBox getBoundingBox() {
         return null;
     }
+
+    /**
+     * Calculates the distance along a ray to one of the points where its line crosses the tube's surface,
+     * by solving the quadratic equation |(w + t*v)_perp|^2 = r^2, where w is the vector from the axis head
+     * to the ray head, v is the ray direction, and _perp removes the component along the axis.
+     *
+     * @param ray the ray
+     * @param far false for the nearer point, true for the farther one
+     * @return the distance (may be negative), or NaN if the line is parallel to the axis,
+     * tangent to the tube or misses it
+     */
+    private double sideDistance(Ray ray, boolean far) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double vx = direction.getX(), vy = direction.getY(), vz = direction.getZ();
+        double wx = head.getX() - ax, wy = head.getY() - ay, wz = head.getZ() - az;
+        double vd = vx * dx + vy * dy + vz * dz;
+        double wd = wx * dx + wy * dy + wz * dz;
+        // The components perpendicular to the axis
+        double px = vx - vd * dx, py = vy - vd * dy, pz = vz - vd * dz;
+        double qx = wx - wd * dx, qy = wy - wd * dy, qz = wz - wd * dz;
+        double a = px * px + py * py + pz * pz;
+        if (isZero(a))
+            return Double.NaN;
+        double halfB = px * qx + py * qy + pz * qz;
+        double c = qx * qx + qy * qy + qz * qz - radius * radius;
+        double discriminant = alignZero(halfB * halfB - a * c);
+        if (discriminant <= 0)
+            return Double.NaN;
+        double root = Math.sqrt(discriminant);
+        return (far ? -halfB + root : -halfB - root) / a;
+    }
+
+    /**
+     * Calculates the coordinate along the axis of a point on a ray.
+     *
+     * @param ray the ray
+     * @param t   the distance of the point along the ray
+     * @return the distance of the point's projection on the axis from the axis head
+     */
+    protected double axialCoordinate(Ray ray, double t) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        return (head.getX() + direction.getX() * t - ax) * dx
+                + (head.getY() + direction.getY() * t - ay) * dy
+                + (head.getZ() + direction.getZ() * t - az) * dz;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the side of the tube between two axial coordinates
+     * (exclusive), closer than the one in the hit record.
+     *
+     * @param ray  the ray
+     * @param hit  the record of the closest intersection found so far, updated in place
+     * @param minS the axial coordinate where the side starts
+     * @param maxS the axial coordinate where the side ends
+     * @return true if a closer intersection was found, false otherwise
+     */
+    protected boolean intersectSide(Ray ray, HitRecord hit, double minS, double maxS) {
+        for (int k = 0; k < 2; k++) {
+            double t = sideDistance(ray, k == 1);
+            if (Double.isNaN(t))
+                return false;
+            t = alignZero(t);
+            if (t > 0 && alignZero(t - hit.t) < 0 && onSide(ray, t, minS, maxS)) {
+                hit.set(this, ray, t);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the intersections of a ray with the side of the tube between two axial coordinates (exclusive),
+     * up to a distance (inclusive), the nearer point first.
+     *
+     * @param ray         the ray
+     * @param maxDistance the distance beyond which intersections are ignored
+     * @param minS        the axial coordinate where the side starts
+     * @param maxS        the axial coordinate where the side ends
+     * @return the intersection points, or null if there are none
+     */
+    protected List<GeoPoint> sideIntersections(Ray ray, double maxDistance, double minS, double maxS) {
+        List<GeoPoint> intersections = null;
+        for (int k = 0; k < 2; k++) {
+            double t = sideDistance(ray, k == 1);
+            if (Double.isNaN(t))
+                return null;
+            t = alignZero(t);
+            if (t > 0 && alignZero(t - maxDistance) <= 0 && onSide(ray, t, minS, maxS)) {
+                if (intersections == null)
+                    intersections = new LinkedList<>();
+                intersections.add(new GeoPoint(this, ray.getPoint(t)));
+            }
+        }
+        return intersections;
+    }
+
+    /**
+     * Checks whether a point on a ray is between two axial coordinates (exclusive).
+     *
+     * @param ray  the ray
+     * @param t    the distance of the point along the ray
+     * @param minS the minimal axial coordinate
+     * @param maxS the maximal axial coordinate
+     * @return true if the point is between the coordinates
+     */
+    private boolean onSide(Ray ray, double t, double minS, double maxS) {
+        if (minS == Double.NEGATIVE_INFINITY && maxS == Double.POSITIVE_INFINITY)
+            return true;
+        double s = axialCoordinate(ray, t);
+        return alignZero(s - minS) > 0 && alignZero(s - maxS) < 0;
+    }
+
+    /**
+     * Finds the intersection points between the given ray and the tube.
+     * A ray parallel to the axis or tangent to the tube has no intersections.
+     *
+     * @param ray         the ray to check for intersections with the tube.
+     * @param maxDistance the distance beyond which intersections are ignored.
+     * @return the intersection points, the nearer first, or null if there are none.
+     */
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        return sideIntersections(ray, maxDistance, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the closest intersection point between the given ray and the tube without allocations.
+     *
+     * @param ray the ray to check for intersections with the tube.
+     * @param hit the record of the closest intersection found so far.
+     * @return true if the tube has a closer intersection point, false otherwise.
+     */
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        return intersectSide(ray, hit, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
 }
@@ -0,0 +1,495 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Represents a collection of intersectable geometries organized in a uniform grid.
+ * The box of the bounded geometries is divided into equal cells, and every cell lists the geometries
+ * whose bounding box overlaps it. A ray walks only through the cells it passes (3D-DDA), in order,
+ * so the closest intersection is usually found in the first cells and the walk stops there.
+ * <p>
+ * A geometry that overlaps several cells is tested at most once per ray: every thread keeps a mailbox
+ * with the last ray that tested each geometry. The grid is built in time linear in the number of
+ * geometries (two passes of counting), which suits scenes of many similarly sized geometries that
+ * change every frame. Unbounded geometries (e.g. planes) are tested for every ray.
+ * <p>
+ * A grid can replace {@link Geometries} anywhere (e.g. as the geometries of a scene). It is built
+ * lazily on the first query after the collection has changed, and built again by {@link #refit()}
+ * after its geometries have moved. A build never changes the current grid: the new cells are built
+ * apart and replace the old ones as a whole, so a query running meanwhile finishes on the old grid.
+ */
+public class UniformGrid extends Geometries {
+    /** The number of cells per bounded geometry */
+    private static final double DENSITY = 3;
+    /** The maximal number of cells along an axis */
+    private static final int MAX_RESOLUTION = 256;
+
+    /** The current grid, null before the first build */
+    private volatile Cells cells = null;
+
+    /** The mailboxes of the threads */
+    private final ThreadLocal<Mailbox> mailbox = ThreadLocal.withInitial(Mailbox::new);
+
+    /**
+     * A built grid: the geometries of the collection and the lists of the cells. It is not changed
+     * after it is built.
+     */
+    private static final class Cells {
+        /** The version of the collection that was built */
+        final long version;
+        /** The bounded geometries, referred to by their index in the cells */
+        final Intersectable[] items;
+        /** The geometries without a bounding box, tested for every ray */
+        final Intersectable[] unbounded;
+        /** The box of all the bounded geometries, null if there are none */
+        final BoundingBox box;
+        /** The number of cells along each axis */
+        final int[] resolution = new int[3];
+        /** The minimal corner of the grid */
+        final double[] origin = new double[3];
+        /** The size of a cell along each axis */
+        final double[] cellSize = new double[3];
+        /** The start of every cell's list in {@link #cellItems}, with the end of the last one at the end */
+        final int[] cellStart;
+        /** The indices of the geometries of all the cells, cell after cell */
+        final int[] cellItems;
+
+        /**
+         * Builds the grid: chooses the resolution so there are about {@link #DENSITY} cells per geometry,
+         * counts the geometries of every cell and then fills the cells' lists.
+         *
+         * @param version    the version of the collection
+         * @param geometries the geometries of the collection
+         */
+        Cells(long version, List<Intersectable> geometries) {
+            this.version = version;
+            List<Intersectable> bounded = new ArrayList<>();
+            List<BoundingBox> boxes = new ArrayList<>();
+            List<Intersectable> infinite = new ArrayList<>();
+            BoundingBox union = null;
+            for (Intersectable geometry : geometries) {
+                BoundingBox geometryBox = geometry.getBoundingBox();
+                if (geometryBox == null)
+                    infinite.add(geometry);
+                else {
+                    bounded.add(geometry);
+                    boxes.add(geometryBox);
+                    union = union == null ? geometryBox : union.union(geometryBox);
+                }
+            }
+            items = bounded.toArray(new Intersectable[0]);
+            unbounded = infinite.toArray(new Intersectable[0]);
+            box = union;
+            if (box == null) {
+                cellStart = new int[1];
+                cellItems = new int[0];
+                return;
+            }
+
+            double[] min = {box.minX, box.minY, box.minZ};
+            double[] extent = {box.maxX - box.minX, box.maxY - box.minY, box.maxZ - box.minZ};
+            double volume = 1;
+            int dimensions = 0;
+            for (int axis = 0; axis < 3; axis++)
+                if (extent[axis] > 0) {
+                    volume *= extent[axis];
+                    dimensions++;
+                }
+            double size = dimensions == 0 ? 0 : Math.pow(volume / (DENSITY * items.length), 1d / dimensions);
+            int cells = 1;
+            for (int axis = 0; axis < 3; axis++) {
+                origin[axis] = min[axis];
+                resolution[axis] = extent[axis] > 0
+                        ? Math.max(1, Math.min(MAX_RESOLUTION, (int) Math.ceil(extent[axis] / size)))
+                        : 1;
+                cellSize[axis] = extent[axis] / resolution[axis];
+                cells *= resolution[axis];
+            }
+
+            // count the geometries of every cell, then turn the counts into list starts
+            int[] start = new int[cells + 1];
+            int[] range = new int[6];
+            for (BoundingBox geometryBox : boxes) {
+                cellRange(geometryBox, range);
+                for (int z = range[2]; z <= range[5]; z++)
+                    for (int y = range[1]; y <= range[4]; y++)
+                        for (int x = range[0]; x <= range[3]; x++)
+                            start[cellIndex(x, y, z) + 1]++;
+            }
+            for (int cell = 0; cell < cells; cell++)
+                start[cell + 1] += start[cell];
+
+            int[] lists = new int[start[cells]];
+            int[] next = Arrays.copyOf(start, cells);
+            for (int item = 0; item < items.length; item++) {
+                cellRange(boxes.get(item), range);
+                for (int z = range[2]; z <= range[5]; z++)
+                    for (int y = range[1]; y <= range[4]; y++)
+                        for (int x = range[0]; x <= range[3]; x++)
+                            lists[next[cellIndex(x, y, z)]++] = item;
+            }
+            cellStart = start;
+            cellItems = lists;
+        }
+
+        /**
+         * Finds the cells overlapped by a box.
+         *
+         * @param geometryBox the box
+         * @param range       receives the minimal x, y, z and the maximal x, y, z cell coordinates
+         */
+        void cellRange(BoundingBox geometryBox, int[] range) {
+            range[0] = cellCoordinate(0, geometryBox.minX);
+            range[1] = cellCoordinate(1, geometryBox.minY);
+            range[2] = cellCoordinate(2, geometryBox.minZ);
+            range[3] = cellCoordinate(0, geometryBox.maxX);
+            range[4] = cellCoordinate(1, geometryBox.maxY);
+            range[5] = cellCoordinate(2, geometryBox.maxZ);
+        }
+
+        /**
+         * Finds the cell coordinate of a value along an axis, clamped to the grid.
+         *
+         * @param axis  0 for x, 1 for y, 2 for z
+         * @param value the coordinate value
+         * @return the cell coordinate
+         */
+        int cellCoordinate(int axis, double value) {
+            if (cellSize[axis] == 0)
+                return 0;
+            int cell = (int) ((value - origin[axis]) / cellSize[axis]);
+            return Math.max(0, Math.min(resolution[axis] - 1, cell));
+        }
+
+        /**
+         * Calculates the index of a cell from its coordinates.
+         *
+         * @param x the x cell coordinate
+         * @param y the y cell coordinate
+         * @param z the z cell coordinate
+         * @return the cell index
+         */
+        int cellIndex(int x, int y, int z) {
+            return (z * resolution[1] + y) * resolution[0] + x;
+        }
+    }
+
+    /**
+     * The last ray that tested each geometry, and the walk of the current ray through the cells,
+     * kept for a single thread.
+     */
+    private static final class Mailbox {
+        int[] stamps = new int[0];
+        int ray = 0;
+        /** The walk of the current ray */
+        final Walk walk = new Walk();
+
+        /**
+         * Starts a new ray.
+         *
+         * @param size the number of geometries in the grid
+         * @return the mailbox
+         */
+        Mailbox start(int size) {
+            if (stamps.length < size)
+                stamps = new int[size];
+            if (++ray == 0) {
+                Arrays.fill(stamps, 0);
+                ray = 1;
+            }
+            return this;
+        }
+
+        /**
+         * Checks whether the current ray has already tested a geometry, and marks it as tested.
+         *
+         * @param item the index of the geometry
+         * @return true if it is the first test of the geometry by the current ray, false otherwise
+         */
+        boolean first(int item) {
+            if (stamps[item] == ray)
+                return false;
+            stamps[item] = ray;
+            return true;
+        }
+    }
+
+    /**
+     * default constructor
+     */
+    public UniformGrid() {}
+
+    /**
+     * Constructor that adds given geometries to the grid.
+     *
+     * @param geometries The intersectable geometries to add.
+     */
+    public UniformGrid(Intersectable... geometries) {
+        super(geometries);
+    }
+
+    /**
+     * Constructor that builds a grid over the content of a collection of geometries.
+     * Nested plain collections are flattened so that the grid covers their geometries directly.
+     *
+     * @param geometries The collection to build the grid from.
+     */
+    public UniformGrid(Geometries geometries) {
+        super(geometries.flatten());
+    }
+
+    /**
+     * Returns the current grid, building it if the collection has changed since it was last built.
+     *
+     * @return the grid
+     */
+    private Cells cells() {
+        Cells current = cells;
+        if (current != null && current.version == version()) return current;
+        synchronized (this) {
+            current = cells;
+            if (current != null && current.version == version()) return current;
+            current = new Cells(version(), getGeometries());
+            cells = current;
+            return current;
+        }
+    }
+
+    /**
+     * Refits the geometries of the grid and builds the grid again, in time linear in the number of geometries.
+     *
+     * @return always true, as the grid is rebuilt
+     */
+    @Override
+    public boolean refit() {
+        for (Intersectable geometry : getGeometries())
+            geometry.refit();
+        synchronized (this) {
+            cells = new Cells(version(), getGeometries());
+        }
+        return true;
+    }
+
+    /**
+     * A walk of a ray through the cells of a grid, in the order the ray passes them (3D-DDA).
+     * Every thread reuses a single walk (kept in its mailbox), so a ray allocates nothing.
+     */
+    private static final class Walk {
+        private final int[] cell = new int[3];
+        private final int[] step = new int[3];
+        private final double[] next = new double[3];
+        private final double[] delta = new double[3];
+        /** The grid of the walk */
+        private Cells grid;
+        private double maxDistance;
+        /** The current cell index, -1 when the walk has ended */
+        private int current;
+        /** The distance along the ray at which it leaves the last returned cell */
+        double exit;
+
+        /**
+         * Starts a walk at the cell where the ray enters the grid.
+         *
+         * @param grid        the grid
+         * @param ray         the ray
+         * @param maxDistance the distance beyond which the walk ends
+         * @return the walk
+         */
+        Walk start(Cells grid, Ray ray, double maxDistance) {
+            this.grid = grid;
+            this.maxDistance = maxDistance;
+            double enter = grid.box.intersectionDistance(ray, maxDistance);
+            if (enter == Double.POSITIVE_INFINITY) {
+                current = -1;
+                return this;
+            }
+            Point head = ray.getHead();
+            Vector direction = ray.getDirection();
+            startAxis(0, head.getX(), direction.getX(), ray.getInvX(), enter);
+            startAxis(1, head.getY(), direction.getY(), ray.getInvY(), enter);
+            startAxis(2, head.getZ(), direction.getZ(), ray.getInvZ(), enter);
+            current = grid.cellIndex(cell[0], cell[1], cell[2]);
+            return this;
+        }
+
+        /**
+         * Starts the walk along an axis.
+         *
+         * @param axis  0 for x, 1 for y, 2 for z
+         * @param h     the coordinate of the ray head along the axis
+         * @param d     the component of the ray direction along the axis
+         * @param inv   the inverse of the direction component
+         * @param enter the distance along the ray at which it enters the grid
+         */
+        private void startAxis(int axis, double h, double d, double inv, double enter) {
+            cell[axis] = grid.cellCoordinate(axis, h + d * enter);
+            if (d > 0) {
+                step[axis] = 1;
+                next[axis] = (grid.origin[axis] + (cell[axis] + 1) * grid.cellSize[axis] - h) * inv;
+                delta[axis] = grid.cellSize[axis] * inv;
+            } else if (d < 0) {
+                step[axis] = -1;
+                next[axis] = (grid.origin[axis] + cell[axis] * grid.cellSize[axis] - h) * inv;
+                delta[axis] = -grid.cellSize[axis] * inv;
+            } else {
+                step[axis] = 0;
+                next[axis] = Double.POSITIVE_INFINITY;
+                delta[axis] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        /**
+         * Returns the current cell and moves to the next cell along the ray.
+         * The distance at which the ray leaves the returned cell is kept in {@link #exit}.
+         *
+         * @return the index of the current cell, or -1 if the walk has ended
+         */
+        int nextCell() {
+            int result = current;
+            if (result < 0)
+                return result;
+            int axis = next[0] < next[1] ? (next[0] < next[2] ? 0 : 2) : (next[1] < next[2] ? 1 : 2);
+            exit = next[axis];
+            cell[axis] += step[axis];
+            if (exit > maxDistance || cell[axis] < 0 || cell[axis] >= grid.resolution[axis])
+                current = -1;
+            else {
+                next[axis] += delta[axis];
+                current = grid.cellIndex(cell[0], cell[1], cell[2]);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        Cells grid = cells();
+        return grid.unbounded.length > 0 ? null : grid.box;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        Cells grid = cells();
+        List<GeoPoint> intersectionsResult = null;
+        for (Intersectable geometry : grid.unbounded)
+            intersectionsResult = addIntersections(intersectionsResult, geometry, ray, maxDistance);
+        if (grid.box == null)
+            return intersectionsResult;
+
+        Mailbox tested = mailbox.get().start(grid.items.length);
+        Walk walk = tested.walk.start(grid, ray, maxDistance);
+        for (int cell = walk.nextCell(); cell >= 0; cell = walk.nextCell())
+            for (int i = grid.cellStart[cell]; i < grid.cellStart[cell + 1]; i++)
+                if (tested.first(grid.cellItems[i]))
+                    intersectionsResult = addIntersections(intersectionsResult, grid.items[grid.cellItems[i]], ray, maxDistance);
+        return intersectionsResult;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Cells grid = cells();
+        GeoPoint closest = null;
+        for (Intersectable geometry : grid.unbounded) {
+            GeoPoint intersection = geometry.findClosestGeoIntersection(ray, maxDistance);
+            if (intersection != null) {
+                closest = intersection;
+                maxDistance = ray.getHead().distance(intersection.point);
+            }
+        }
+        if (grid.box == null)
+            return closest;
+
+        Mailbox tested = mailbox.get().start(grid.items.length);
+        Walk walk = tested.walk.start(grid, ray, maxDistance);
+        for (int cell = walk.nextCell(); cell >= 0; cell = walk.nextCell()) {
+            for (int i = grid.cellStart[cell]; i < grid.cellStart[cell + 1]; i++) {
+                if (!tested.first(grid.cellItems[i]))
+                    continue;
+                GeoPoint intersection = grid.items[grid.cellItems[i]].findClosestGeoIntersection(ray, maxDistance);
+                if (intersection != null) {
+                    closest = intersection;
+                    maxDistance = ray.getHead().distance(intersection.point);
+                }
+            }
+            // an intersection inside the cell is closer than anything in the next cells
+            if (maxDistance <= walk.exit)
+                break;
+        }
+        return closest;
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance, Double3 ktr, double minK) {
+        Cells grid = cells();
+        for (Intersectable geometry : grid.unbounded) {
+            ktr = geometry.findTransparencyHelper(ray, maxDistance, ktr, minK);
+            if (ktr.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        if (grid.box == null)
+            return ktr;
+
+        Mailbox tested = mailbox.get().start(grid.items.length);
+        Walk walk = tested.walk.start(grid, ray, maxDistance);
+        for (int cell = walk.nextCell(); cell >= 0; cell = walk.nextCell())
+            for (int i = grid.cellStart[cell]; i < grid.cellStart[cell + 1]; i++) {
+                if (!tested.first(grid.cellItems[i]))
+                    continue;
+                ktr = grid.items[grid.cellItems[i]].findTransparencyHelper(ray, maxDistance, ktr, minK);
+                if (ktr.lowerThan(minK))
+                    return Double3.ZERO;
+            }
+        return ktr;
+    }
+
+    @Override
+    protected boolean intersectHelper(Ray ray, HitRecord hit) {
+        Cells grid = cells();
+        boolean found = false;
+        for (Intersectable geometry : grid.unbounded)
+            if (geometry.intersectHelper(ray, hit))
+                found = true;
+        if (grid.box == null)
+            return found;
+
+        Mailbox tested = mailbox.get().start(grid.items.length);
+        Walk walk = tested.walk.start(grid, ray, hit.t);
+        for (int cell = walk.nextCell(); cell >= 0; cell = walk.nextCell()) {
+            for (int i = grid.cellStart[cell]; i < grid.cellStart[cell + 1]; i++)
+                if (tested.first(grid.cellItems[i]) && grid.items[grid.cellItems[i]].intersectHelper(ray, hit))
+                    found = true;
+            // an intersection inside the cell is closer than anything in the next cells
+            if (hit.t <= walk.exit)
+                break;
+        }
+        return found;
+    }
+
+    /**
+     * Adds the intersections of a ray with a single geometry to the result.
+     *
+     * @param intersectionsResult the intersections found so far (may be null)
+     * @param geometry            the geometry to intersect
+     * @param ray                 the ray to intersect
+     * @param maxDistance         the distance beyond which intersections are ignored
+     * @return the updated result, or null if there are still no intersections
+     */
+    private static List<GeoPoint> addIntersections(List<GeoPoint> intersectionsResult, Intersectable geometry,
+                                                   Ray ray, double maxDistance) {
+        var intersections = geometry.findGeoIntersections(ray, maxDistance);
+        if (intersections != null) {
+            if (intersectionsResult == null)
+                intersectionsResult = new LinkedList<>();
+            intersectionsResult.addAll(intersections);
+        }
+        return intersectionsResult;
+    }
+}
@@ -18,7 +18,7 @@ public interface LightSource {
      * Returns the direction of the light at given point
      *
      * @param point the point
-     * @return Vector object
+     * @return the unit vector from the light source to the point
      */
     public Vector getL(Point point);
 
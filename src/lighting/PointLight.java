@@ -3,6 +3,7 @@ package lighting;
 import primitives.Color;
 import primitives.Point;
 import primitives.Vector;
+import primitives.VectorMath;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -110,7 +111,7 @@ public class PointLight extends Light implements LightSource {
     public Vector getL(Point point) {
         if (point.equals(position))
             return null;
-        return point.subtract(position).normalize();
+        return VectorMath.unitDifference(point, position);
     }
 
 
@@ -157,7 +158,7 @@ public class PointLight extends Light implements LightSource {
             Vector offset = normX.scale(x).add(normY.scale(y));
             Point newPoint = position.add(offset); // New point within the radius
 
-            beam.add(point.subtract(newPoint).normalize());
+            beam.add(VectorMath.unitDifference(point, newPoint));
         }
         return beam;
     }
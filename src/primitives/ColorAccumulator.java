@@ -0,0 +1,123 @@
+package primitives;
+
+/**
+ * A mutable sum of RGB values, for the loops of the renderer that add up many contributions
+ * (lights, samples of a pixel, rays of a beam). Adding to the sum updates it in place, so the loop
+ * does not allocate a color (and its {@link Double3}) for every step, and the sum is converted into
+ * a single {@link Color} (or {@link Double3}) at the end.
+ * <p>
+ * The contributions are multiplied and added in the same order as the equivalent chain of
+ * {@link Color#scale(Double3)} and {@link Color#add(Color...)} calls, so the results are the same.
+ * Unlike them, the contributions are not checked for negative values, which is left to the
+ * conversion at the end.
+ */
+public final class ColorAccumulator {
+    /** The red, green and blue components of the sum */
+    private double r, g, b;
+
+    /**
+     * Constructs an empty (black) sum.
+     */
+    public ColorAccumulator() {}
+
+    /**
+     * Constructs a sum that starts with a given color.
+     *
+     * @param color the initial color
+     */
+    public ColorAccumulator(Color color) {
+        r = color.rgb.d1;
+        g = color.rgb.d2;
+        b = color.rgb.d3;
+    }
+
+    /**
+     * Adds a color to the sum.
+     *
+     * @param color the color to add
+     * @return the sum itself
+     */
+    public ColorAccumulator add(Color color) {
+        r += color.rgb.d1;
+        g += color.rgb.d2;
+        b += color.rgb.d3;
+        return this;
+    }
+
+    /**
+     * Adds a color scaled by a factor to the sum, as {@code add(color.scale(k))}.
+     *
+     * @param color the color to add
+     * @param k     the factor
+     * @return the sum itself
+     */
+    public ColorAccumulator add(Color color, double k) {
+        r += color.rgb.d1 * k;
+        g += color.rgb.d2 * k;
+        b += color.rgb.d3 * k;
+        return this;
+    }
+
+    /**
+     * Adds a color scaled by a factor per component to the sum, as {@code add(color.scale(k))}.
+     *
+     * @param color the color to add
+     * @param k     the factors of the components
+     * @return the sum itself
+     */
+    public ColorAccumulator add(Color color, Double3 k) {
+        r += color.rgb.d1 * k.d1;
+        g += color.rgb.d2 * k.d2;
+        b += color.rgb.d3 * k.d3;
+        return this;
+    }
+
+    /**
+     * Adds a color scaled by two factors per component to the sum,
+     * as {@code add(color.scale(k1).scale(k2))}, e.g. a light intensity attenuated by the
+     * transparency of its way and by the diffuse or specular coefficient of the material.
+     *
+     * @param color the color to add
+     * @param k1    the first factors of the components
+     * @param k2    the second factors of the components
+     * @return the sum itself
+     */
+    public ColorAccumulator add(Color color, Double3 k1, Double3 k2) {
+        r += color.rgb.d1 * k1.d1 * k2.d1;
+        g += color.rgb.d2 * k1.d2 * k2.d2;
+        b += color.rgb.d3 * k1.d3 * k2.d3;
+        return this;
+    }
+
+    /**
+     * Adds a triad of values (e.g. transparency factors) to the sum.
+     *
+     * @param values the values to add
+     * @return the sum itself
+     */
+    public ColorAccumulator add(Double3 values) {
+        r += values.d1;
+        g += values.d2;
+        b += values.d3;
+        return this;
+    }
+
+    /**
+     * Converts the sum into a color.
+     *
+     * @return the color of the sum
+     * @throws IllegalArgumentException if a component of the sum is negative
+     */
+    public Color toColor() {
+        return new Color(r, g, b);
+    }
+
+    /**
+     * Converts the sum into a triad of values.
+     *
+     * @return the values of the sum
+     */
+    public Double3 toDouble3() {
+        return new Double3(r, g, b);
+    }
+}
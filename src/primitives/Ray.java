@@ -8,6 +8,8 @@ import geometries.Intersectable.GeoPoint;
 
 /**
  * Represents a ray in 3D space, defined by a head point and a direction vector.
+ * The inverse of every direction component and the octant of the direction are calculated
+ * once, when the ray is constructed, for the slab tests and grid walks of the acceleration structures.
  */
 public class Ray {
 
@@ -16,6 +18,11 @@ public class Ray {
 
     private final Vector direction;
 
+    /** The inverse direction components (infinite for a zero component, with its sign) */
+    private final double invX, invY, invZ;
+    /** The octant of the direction: bit 2, 1 and 0 are set if the inverse x, y and z are negative */
+    private final int octant;
+
     /**
      * Constructs a new Ray with the specified head point and direction vector.
      *
@@ -23,9 +30,26 @@ public class Ray {
      * @param direction The direction vector of the ray.
      */
     public Ray(Point head, Vector direction) {
+        this(head, direction.normalize(), true);
+    }
+
+    /**
+     * Constructs a new Ray with the specified head point and a direction vector that may already
+     * be normalized, e.g. when it is calculated as a unit vector or taken from another ray.
+     *
+     * @param head       The head point of the ray.
+     * @param direction  The direction vector of the ray.
+     * @param normalized true if the direction is a unit vector, so it is used as is without normalizing it
+     */
+    public Ray(Point head, Vector direction, boolean normalized) {
         this.head = head;
-        this.direction = direction.normalize();
+        this.direction = normalized ? direction : direction.normalize();
+        invX = 1 / this.direction.getX();
+        invY = 1 / this.direction.getY();
+        invZ = 1 / this.direction.getZ();
+        octant = (invX < 0 ? 4 : 0) | (invY < 0 ? 2 : 0) | (invZ < 0 ? 1 : 0);
     }
+
     /**
      * costruct a ray and move point slightly
      *  @param point     the point
@@ -34,11 +58,33 @@ public class Ray {
      */
 
     public Ray(Point point, Vector direction, Vector normal) {
-        this.direction = direction.normalize();
-        double nv = normal.dotProduct(this.direction);
-        Vector dltVector = normal.scale(nv < 0 ? -DELTA : DELTA);
-        head = point.add(dltVector);
+        this(point, direction, normal, false);
+    }
 
+    /**
+     * construct a ray whose direction may already be normalized and move its point slightly
+     * off the surface, towards the side of the direction
+     *
+     * @param point      the point
+     * @param direction  direction vector
+     * @param normal     normal
+     * @param normalized true if the direction is a unit vector, so it is used as is without normalizing it
+     */
+    public Ray(Point point, Vector direction, Vector normal, boolean normalized) {
+        this(movedHead(point, direction, normal), normalized ? direction : direction.normalize(), true);
+    }
+
+    /**
+     * move a point slightly off the surface, towards the side of the direction
+     * (the side does not depend on the length of the direction, so it need not be normalized)
+     *
+     * @param point     the point
+     * @param direction direction vector
+     * @param normal    normal
+     * @return the moved point
+     */
+    private static Point movedHead(Point point, Vector direction, Vector normal) {
+        return VectorMath.moved(point, normal, normal.dotProduct(direction) < 0 ? -DELTA : DELTA);
     }
 
     /**
@@ -59,6 +105,43 @@ public class Ray {
         return direction;
     }
 
+    /**
+     * returns the inverse of the x component of the direction
+     *
+     * @return 1 / direction.x, infinite if the component is zero
+     */
+    public double getInvX() {
+        return invX;
+    }
+
+    /**
+     * returns the inverse of the y component of the direction
+     *
+     * @return 1 / direction.y, infinite if the component is zero
+     */
+    public double getInvY() {
+        return invY;
+    }
+
+    /**
+     * returns the inverse of the z component of the direction
+     *
+     * @return 1 / direction.z, infinite if the component is zero
+     */
+    public double getInvZ() {
+        return invZ;
+    }
+
+    /**
+     * returns the octant of the direction, i.e. the signs of its components:
+     * bit 2, 1 and 0 are set if the x, y and z components are negative (including -0)
+     *
+     * @return the octant, from 0 to 7
+     */
+    public int getOctant() {
+        return octant;
+    }
+
     /**
      * @param t is a scalar
      * @return A point on the beam at a given distance : p0+t*v
@@ -66,7 +149,7 @@ public class Ray {
     public Point getPoint(double t) {
         if (isZero(t))
             return head;
-        return head.add(direction.scale(t));
+        return VectorMath.moved(head, direction, t);
     }
 
     /**
@@ -0,0 +1,218 @@
+package primitives;
+
+/**
+ * An affine transformation of 3D space: a linear part (rotation, scaling) followed by a translation.
+ * The transformation is stored as a 3x4 matrix together with its inverse, so points, vectors and
+ * normals can be moved both ways without inverting a matrix on every use.
+ * Transformations are immutable and are combined with {@link #then(Transform)}.
+ */
+public final class Transform {
+    /** The identity transformation */
+    public static final Transform IDENTITY = new Transform(
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0},
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    /** The transformation matrix, row by row: m00, m01, m02, tx, m10, ... */
+    private final double[] matrix;
+    /** The matrix of the inverse transformation, in the same layout */
+    private final double[] inverse;
+
+    /**
+     * Constructs a transformation from its matrix and the matrix of its inverse.
+     *
+     * @param matrix  the transformation matrix
+     * @param inverse the inverse matrix
+     */
+    private Transform(double[] matrix, double[] inverse) {
+        this.matrix = matrix;
+        this.inverse = inverse;
+    }
+
+    /**
+     * Creates a translation.
+     *
+     * @param offset the translation vector
+     * @return the translation
+     */
+    public static Transform translation(Vector offset) {
+        double x = offset.getX(), y = offset.getY(), z = offset.getZ();
+        return new Transform(
+                new double[]{1, 0, 0, x, 0, 1, 0, y, 0, 0, 1, z},
+                new double[]{1, 0, 0, -x, 0, 1, 0, -y, 0, 0, 1, -z});
+    }
+
+    /**
+     * Creates a uniform scaling around the origin.
+     *
+     * @param factor the scale factor
+     * @return the scaling
+     * @throws IllegalArgumentException if the factor is zero
+     */
+    public static Transform scaling(double factor) {
+        return scaling(factor, factor, factor);
+    }
+
+    /**
+     * Creates a scaling around the origin with a different factor along each axis.
+     *
+     * @param x the scale factor along the x axis
+     * @param y the scale factor along the y axis
+     * @param z the scale factor along the z axis
+     * @return the scaling
+     * @throws IllegalArgumentException if a factor is zero
+     */
+    public static Transform scaling(double x, double y, double z) {
+        if (Util.isZero(x) || Util.isZero(y) || Util.isZero(z))
+            throw new IllegalArgumentException("Scale factors cannot be zero");
+        return new Transform(
+                new double[]{x, 0, 0, 0, 0, y, 0, 0, 0, 0, z, 0},
+                new double[]{1 / x, 0, 0, 0, 0, 1 / y, 0, 0, 0, 0, 1 / z, 0});
+    }
+
+    /**
+     * Creates a rotation around an axis through the origin.
+     * A positive angle rotates counterclockwise when looking from the tip of the axis towards the origin.
+     *
+     * @param axis  the rotation axis
+     * @param angle the rotation angle in degrees
+     * @return the rotation
+     */
+    public static Transform rotation(Vector axis, double angle) {
+        Vector a = axis.normalize();
+        double x = a.getX(), y = a.getY(), z = a.getZ();
+        double radians = Math.toRadians(angle);
+        double cos = Math.cos(radians), sin = Math.sin(radians), c = 1 - cos;
+        double[] matrix = {
+                cos + x * x * c, x * y * c - z * sin, x * z * c + y * sin, 0,
+                y * x * c + z * sin, cos + y * y * c, y * z * c - x * sin, 0,
+                z * x * c - y * sin, z * y * c + x * sin, cos + z * z * c, 0};
+        // the inverse of a rotation is its transpose
+        double[] inverse = {
+                matrix[0], matrix[4], matrix[8], 0,
+                matrix[1], matrix[5], matrix[9], 0,
+                matrix[2], matrix[6], matrix[10], 0};
+        return new Transform(matrix, inverse);
+    }
+
+    /**
+     * Combines this transformation with another one, applied after it.
+     *
+     * @param next the transformation to apply after this one
+     * @return the combined transformation
+     */
+    public Transform then(Transform next) {
+        return new Transform(multiply(next.matrix, matrix), multiply(inverse, next.inverse));
+    }
+
+    /**
+     * Returns the inverse transformation.
+     *
+     * @return the inverse transformation
+     */
+    public Transform inverse() {
+        return new Transform(inverse, matrix);
+    }
+
+    /**
+     * Multiplies two affine matrices.
+     *
+     * @param a the left matrix
+     * @param b the right matrix (applied first)
+     * @return the product matrix
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] result = new double[12];
+        for (int row = 0; row < 3; row++) {
+            int r = 4 * row;
+            for (int column = 0; column < 4; column++)
+                result[r + column] = a[r] * b[column] + a[r + 1] * b[4 + column] + a[r + 2] * b[8 + column];
+            result[r + 3] += a[r + 3];
+        }
+        return result;
+    }
+
+    /**
+     * Transforms a point.
+     *
+     * @param point the point
+     * @return the transformed point
+     */
+    public Point applyToPoint(Point point) {
+        return applyPoint(matrix, point);
+    }
+
+    /**
+     * Transforms a point by the inverse transformation.
+     *
+     * @param point the point
+     * @return the point before this transformation
+     */
+    public Point applyInverseToPoint(Point point) {
+        return applyPoint(inverse, point);
+    }
+
+    /**
+     * Transforms a direction vector (without the translation).
+     *
+     * @param vector the vector
+     * @return the transformed vector, not normalized
+     */
+    public Vector applyToVector(Vector vector) {
+        return applyVector(matrix, vector);
+    }
+
+    /**
+     * Transforms a direction vector by the inverse transformation (without the translation).
+     *
+     * @param vector the vector
+     * @return the vector before this transformation, not normalized
+     */
+    public Vector applyInverseToVector(Vector vector) {
+        return applyVector(inverse, vector);
+    }
+
+    /**
+     * Transforms a normal vector, by the transpose of the inverse linear part,
+     * so it stays perpendicular to transformed surfaces also under non-uniform scaling.
+     *
+     * @param normal the normal
+     * @return the transformed normal, normalized
+     */
+    public Vector applyToNormal(Vector normal) {
+        double x = normal.getX(), y = normal.getY(), z = normal.getZ();
+        return new Vector(
+                inverse[0] * x + inverse[4] * y + inverse[8] * z,
+                inverse[1] * x + inverse[5] * y + inverse[9] * z,
+                inverse[2] * x + inverse[6] * y + inverse[10] * z).normalize();
+    }
+
+    /**
+     * Multiplies a point by an affine matrix.
+     *
+     * @param m     the matrix
+     * @param point the point
+     * @return the result point
+     */
+    private static Point applyPoint(double[] m, Point point) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        return new Point(
+                m[0] * x + m[1] * y + m[2] * z + m[3],
+                m[4] * x + m[5] * y + m[6] * z + m[7],
+                m[8] * x + m[9] * y + m[10] * z + m[11]);
+    }
+
+    /**
+     * Multiplies a vector by the linear part of an affine matrix.
+     *
+     * @param m      the matrix
+     * @param vector the vector
+     * @return the result vector
+     */
+    private static Vector applyVector(double[] m, Vector vector) {
+        double x = vector.getX(), y = vector.getY(), z = vector.getZ();
+        return new Vector(
+                m[0] * x + m[1] * y + m[2] * z,
+                m[4] * x + m[5] * y + m[6] * z,
+                m[8] * x + m[9] * y + m[10] * z);
+    }
+}
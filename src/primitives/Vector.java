@@ -27,8 +27,20 @@ public class Vector extends Point {
      * @throws IllegalArgumentException If the vector is the zero vector.
      */
     public Vector(Double3 xyz) {
+        this(xyz, true);
+    }
+
+    /**
+     * Constructs a Vector with the specified Double3 object, optionally without checking it.
+     * The unchecked form is used by {@link VectorMath}, whose callers guarantee a non-zero vector.
+     *
+     * @param xyz      The Double3 object representing the coordinates.
+     * @param validate true to check that the vector is not the zero vector
+     * @throws IllegalArgumentException If the vector is validated and is the zero vector.
+     */
+    Vector(Double3 xyz, boolean validate) {
         super(xyz);
-        if (this.xyz.equals(Double3.ZERO))
+        if (validate && this.xyz.equals(Double3.ZERO))
             throw new IllegalArgumentException("Vector 0 cannot be defined");
     }
 
@@ -99,7 +111,7 @@ public class Vector extends Point {
      * @return The normalized vector.
      */
     public Vector normalize() {
-        return new Vector(this.scale(1 / this.length()).xyz);
+        return scale(1 / length());
     }
 
 
@@ -0,0 +1,123 @@
+package primitives;
+
+/**
+ * Unchecked vector operations for the internals of the renderer (intersections, shading and
+ * secondary rays). Unlike the methods of {@link Point} and {@link Vector}, they work on the
+ * coordinates directly: they allocate only the result, without intermediate vectors, and they
+ * don't check for the zero vector, so they never throw. The caller is responsible for using them
+ * only where the result is known to be valid (e.g. the reflection of a unit vector is never zero);
+ * scenes are still built with the validated API. The operations that may produce the zero vector
+ * (an arbitrary vector or a difference of points) are kept inside the package.
+ * <p>
+ * The results are calculated in the same order of operations as the validated API, so they are
+ * equal to the results of the equivalent chain of calls.
+ */
+public final class VectorMath {
+
+    /** Don't let anyone instantiate this class. */
+    private VectorMath() {}
+
+    /**
+     * Creates a vector without checking that it is not the zero vector.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the vector
+     */
+    static Vector vector(double x, double y, double z) {
+        return new Vector(new Double3(x, y, z), false);
+    }
+
+    /**
+     * Creates the unit vector in the direction of given coordinates, as {@link Vector#normalize()}.
+     * The coordinates must not be all zero.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the unit vector
+     */
+    public static Vector unit(double x, double y, double z) {
+        double scale = 1 / Math.sqrt(x * x + y * y + z * z);
+        return vector(x * scale, y * scale, z * scale);
+    }
+
+    /**
+     * Calculates the vector from one point to another, as {@link Point#subtract(Point)} but
+     * without checking that the points are different.
+     *
+     * @param to   the end point
+     * @param from the start point
+     * @return to - from
+     */
+    static Vector difference(Point to, Point from) {
+        return vector(to.xyz.d1 - from.xyz.d1, to.xyz.d2 - from.xyz.d2, to.xyz.d3 - from.xyz.d3);
+    }
+
+    /**
+     * Calculates the unit vector from one point to another, as {@code to.subtract(from).normalize()}.
+     * The points must be different.
+     *
+     * @param to   the end point
+     * @param from the start point
+     * @return the unit vector of to - from
+     */
+    public static Vector unitDifference(Point to, Point from) {
+        return unit(to.xyz.d1 - from.xyz.d1, to.xyz.d2 - from.xyz.d2, to.xyz.d3 - from.xyz.d3);
+    }
+
+    /**
+     * Calculates the dot product of a vector with the difference of two points,
+     * as {@code vector.dotProduct(to.subtract(from))}, which is zero for equal points.
+     *
+     * @param vector the vector
+     * @param to     the end point
+     * @param from   the start point
+     * @return vector * (to - from)
+     */
+    public static double dotDifference(Vector vector, Point to, Point from) {
+        return vector.xyz.d1 * (to.xyz.d1 - from.xyz.d1)
+                + vector.xyz.d2 * (to.xyz.d2 - from.xyz.d2)
+                + vector.xyz.d3 * (to.xyz.d3 - from.xyz.d3);
+    }
+
+    /**
+     * Moves a point along a vector, as {@code point.add(vector.scale(t))}, which is the point
+     * at distance t along a ray with a unit direction.
+     *
+     * @param point  the point
+     * @param vector the vector
+     * @param t      the scale of the vector
+     * @return point + t * vector
+     */
+    public static Point moved(Point point, Vector vector, double t) {
+        return new Point(point.xyz.d1 + vector.xyz.d1 * t,
+                point.xyz.d2 + vector.xyz.d2 * t,
+                point.xyz.d3 + vector.xyz.d3 * t);
+    }
+
+    /**
+     * Calculates the mirror direction of a unit vector about a unit normal,
+     * as {@code v.subtract(n.scale(2 * vn)).normalize()}.
+     *
+     * @param v  the unit vector to reflect
+     * @param n  the unit normal
+     * @param vn the dot product of the vector and the normal
+     * @return the unit reflected vector
+     */
+    public static Vector reflect(Vector v, Vector n, double vn) {
+        double scale = 2 * vn;
+        return unit(v.xyz.d1 - n.xyz.d1 * scale, v.xyz.d2 - n.xyz.d2 * scale, v.xyz.d3 - n.xyz.d3 * scale);
+    }
+
+    /**
+     * Calculates the opposite of a vector, as {@code vector.scale(-1)}.
+     *
+     * @param vector the vector
+     * @return -vector
+     */
+    public static Vector negate(Vector vector) {
+        return vector(-vector.xyz.d1, -vector.xyz.d2, -vector.xyz.d3);
+    }
+}
@@ -1,12 +1,10 @@
 package renderer;
 
+import geometries.RayPacket;
 import primitives.*;
 import primitives.Vector;
 
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
@@ -25,9 +23,13 @@ public class Camera implements Cloneable {
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
     private int countThread = 0;
+    private RenderExecutor renderExecutor = null;
+    private boolean virtualThreads = false;
+    private int tileSize = 16;
     private int numberRaysAdaptive = 20;
     private boolean adaptive = false;
     private boolean antiA = false;
+    private int packetSize = 0;
 
 
     /**
@@ -108,6 +110,33 @@ public class Camera implements Cloneable {
         return countThread;
     }
 
+    /**
+     * Gets the shared render executor used for rendering.
+     *
+     * @return the render executor, or null if the camera creates its own threads.
+     */
+    public RenderExecutor getRenderExecutor() {
+        return renderExecutor;
+    }
+
+    /**
+     * Checks if the tiles are rendered on virtual threads.
+     *
+     * @return true if virtual threads are used, false otherwise.
+     */
+    public boolean getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Gets the size (in pixels) of the square tiles the image is split into for multi-threaded rendering.
+     *
+     * @return the tile size.
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
     /**
      * Checks if anti-aliasing is enabled.
      *
@@ -117,6 +146,15 @@ public class Camera implements Cloneable {
         return antiA;
     }
 
+    /**
+     * Gets the size (in pixels) of the square blocks whose primary rays are traced as one packet.
+     *
+     * @return the packet size, or 0 if every ray is traced alone.
+     */
+    public int getPacketSize() {
+        return packetSize;
+    }
+
     /**
      * Returns a new builder for the Camera.
      *
@@ -128,7 +166,13 @@ public class Camera implements Cloneable {
 
     /**
      * Renders the image by casting rays through each pixel and determining the color for each pixel.
-     * If multi-threading is enabled, the rendering process will utilize multiple threads.
+     * If multi-threading is enabled, the image is split into square tiles that are rendered by
+     * a work-stealing pool, so idle threads take over tiles of busy ones on uneven scenes.
+     * A shared render executor is used if one was given, otherwise the tiles run on virtual threads
+     * if they were requested, or on a pool of countThread threads created for this render only.
+     * Without anti-aliasing, if a packet size was set, the primary rays of each block of pixels
+     * are traced together as a packet, and the packets are given to the ray tracer a tile at a time,
+     * also on a single thread.
      *
      * @return the current Camera instance for method chaining.
      */
@@ -136,31 +180,99 @@ public class Camera implements Cloneable {
         int nX = imageWriter.getNx();
         int nY = imageWriter.getNy();
 
-        if (countThread == 0) {
-            for (int i = 0; i < nY; i++)
-                for (int j = 0; j < nX; j++)
-                    castRay(nX, nY, j, i);
-        } else {
-            ExecutorService executor = Executors.newFixedThreadPool(countThread);
-
-            for (int i = 0; i < nY; i++) {
-                for (int j = 0; j < nX; j++) {
-                    final int pixelI = i;
-                    final int pixelJ = j;
-                    executor.execute(() -> castRay(nX, nY, pixelJ, pixelI));
-                }
+        if (renderExecutor != null) {
+            renderTiles(renderExecutor, nX, nY);
+        } else if (virtualThreads) {
+            try (RenderExecutor executor = RenderExecutor.ofVirtualThreads()) {
+                renderTiles(executor, nX, nY);
             }
-            executor.shutdown();
-            try {
-                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        } else if (countThread == 0) {
+            if (packetSize > 0 && !antiA) {
+                int tilesX = (nX + tileSize - 1) / tileSize;
+                int tilesY = (nY + tileSize - 1) / tileSize;
+                for (int tile = 0; tile < tilesX * tilesY; tile++)
+                    renderTile(nX, nY, tile % tilesX, tile / tilesX);
+            } else
+                for (int i = 0; i < nY; i++)
+                    for (int j = 0; j < nX; j++)
+                        castRay(nX, nY, j, i);
+        } else {
+            try (RenderExecutor executor = new RenderExecutor(countThread)) {
+                renderTiles(executor, nX, nY);
             }
-
         }
         return this;
     }
 
+    /**
+     * Renders all the tiles of the image on a render executor.
+     *
+     * @param executor the executor to render on
+     * @param nX       number of horizontal pixels
+     * @param nY       number of vertical pixels
+     */
+    private void renderTiles(RenderExecutor executor, int nX, int nY) {
+        int tilesX = (nX + tileSize - 1) / tileSize;
+        int tilesY = (nY + tileSize - 1) / tileSize;
+        executor.execute(tilesX * tilesY, tile -> renderTile(nX, nY, tile % tilesX, tile / tilesX));
+    }
+
+    /**
+     * Renders a single tile of the image.
+     *
+     * @param nX    number of horizontal pixels
+     * @param nY    number of vertical pixels
+     * @param tileX horizontal index of the tile
+     * @param tileY vertical index of the tile
+     */
+    private void renderTile(int nX, int nY, int tileX, int tileY) {
+        int endI = Math.min(nY, (tileY + 1) * tileSize);
+        int endJ = Math.min(nX, (tileX + 1) * tileSize);
+        if (packetSize > 0 && !antiA) {
+            castPackets(nX, nY, tileX * tileSize, tileY * tileSize, endJ, endI);
+            return;
+        }
+        for (int i = tileY * tileSize; i < endI; i++)
+            for (int j = tileX * tileSize; j < endJ; j++)
+                castRay(nX, nY, j, i);
+    }
+
+
+    /**
+     * Casts the primary rays of an area of the image in packets of packetSize x packetSize pixels
+     * (smaller at the edges of the area), and writes the colors of the pixels. All the packets of
+     * the area are given to the ray tracer together, so it may trace them a bounce at a time.
+     *
+     * @param nX     number of horizontal pixels
+     * @param nY     number of vertical pixels
+     * @param startJ horizontal index of the first pixel of the area
+     * @param startI vertical index of the first pixel of the area
+     * @param endJ   horizontal index after the last pixel of the area
+     * @param endI   vertical index after the last pixel of the area
+     */
+    private void castPackets(int nX, int nY, int startJ, int startI, int endJ, int endI) {
+        List<RayPacket> packets = new ArrayList<>();
+        for (int i0 = startI; i0 < endI; i0 += packetSize)
+            for (int j0 = startJ; j0 < endJ; j0 += packetSize) {
+                int rows = Math.min(packetSize, endI - i0);
+                int columns = Math.min(packetSize, endJ - j0);
+                Ray[] rays = new Ray[rows * columns];
+                for (int i = 0; i < rows; i++)
+                    for (int j = 0; j < columns; j++)
+                        rays[i * columns + j] = constructRay(nX, nY, j0 + j, i0 + i);
+                packets.add(new RayPacket(rays, columns));
+            }
+        Color[][] colors = rayTracer.tracePackets(packets.toArray(new RayPacket[0]));
+        int packet = 0;
+        for (int i0 = startI; i0 < endI; i0 += packetSize)
+            for (int j0 = startJ; j0 < endJ; j0 += packetSize, packet++) {
+                int rows = Math.min(packetSize, endI - i0);
+                int columns = Math.min(packetSize, endJ - j0);
+                for (int i = 0; i < rows; i++)
+                    for (int j = 0; j < columns; j++)
+                        imageWriter.writePixel(j0 + j, i0 + i, colors[packet][i * columns + j]);
+            }
+    }
 
     /**
      * Casts a ray through a specific pixel and determines the color for that pixel.
@@ -294,9 +406,14 @@ public class Camera implements Cloneable {
      * @return the constructed ray.
      */
     public Ray constructRay(int nX, int nY, int j, int i) {
-
-        Point pIJ = getCenterOfPixel(nX, nY, j, i);
-        return new Ray(p0, pIJ.subtract(p0));  // Construct the ray from the camera to the point
+        double xJ = (j - (nX - 1) / 2d) * (width / nX);  // The offset on the x-axis
+        double yI = -(i - (nY - 1) / 2d) * (height / nY);  // The offset on the y-axis
+        // The direction to the center of the pixel, calculated in place and normalized once
+        double x = vTo.getX() * distance + vRight.getX() * xJ + vUp.getX() * yI;
+        double y = vTo.getY() * distance + vRight.getY() * xJ + vUp.getY() * yI;
+        double z = vTo.getZ() * distance + vRight.getZ() * xJ + vUp.getZ() * yI;
+        double scale = 1 / Math.sqrt(x * x + y * y + z * z);
+        return new Ray(p0, new Vector(x * scale, y * scale, z * scale), true);
     }
 
     /**
@@ -386,6 +503,45 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets a shared render executor to render on. The executor is not shut down by the camera,
+         * so it can be reused by other cameras and frames; when it is set, countThread is ignored.
+         *
+         * @param renderExecutor The render executor.
+         * @return The Builder instance.
+         */
+        public Builder setRenderExecutor(RenderExecutor renderExecutor) {
+            camera.renderExecutor = renderExecutor;
+            return this;
+        }
+
+        /**
+         * Enables or disables rendering the tiles on virtual threads (a thread per tile).
+         * When disabled, countThread platform threads are used. A shared render executor,
+         * if set, takes precedence over both.
+         *
+         * @param virtualThreads true to render on virtual threads, false otherwise
+         * @return The Builder instance.
+         */
+        public Builder setVirtualThreads(boolean virtualThreads) {
+            camera.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Sets the size of the square tiles the image is split into for multi-threaded rendering
+         * and for tracing packets.
+         *
+         * @param tileSize The tile size in pixels.
+         * @return The Builder instance.
+         */
+        public Builder setTileSize(int tileSize) {
+            if (tileSize <= 0)
+                throw new IllegalArgumentException("tile size should be greater than zero");
+            camera.tileSize = tileSize;
+            return this;
+        }
+
         /**
          * Sets the number of rays for adaptive super-sampling.
          *
@@ -482,6 +638,21 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the size of the square blocks of pixels whose primary rays are traced together as a packet,
+         * e.g. 4 or 8, so the scene's acceleration structure is traversed once per block.
+         * Packets are used only when anti-aliasing is disabled.
+         *
+         * @param packetSize The packet size in pixels, or 0 to trace every ray alone.
+         * @return The Builder instance.
+         */
+        public Builder setPacketSize(int packetSize) {
+            if (packetSize < 0)
+                throw new IllegalArgumentException("packet size should not be negative");
+            camera.packetSize = packetSize;
+            return this;
+        }
+
         /**
          * Builds and returns the Camera instance.
          *
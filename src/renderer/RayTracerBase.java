@@ -1,5 +1,6 @@
 package renderer;
 
+import geometries.RayPacket;
 import primitives.Color;
 import primitives.Point;
 import primitives.Ray;
@@ -58,6 +59,34 @@ public abstract class RayTracerBase {
      */
     public abstract Color traceBeamRay(List<Ray> rays);
 
+    /**
+     * Traces a packet of coherent rays (e.g. the primary rays of a block of pixels) and calculates
+     * the color of each ray. The default implementation traces the rays one by one.
+     *
+     * @param packet The packet of rays.
+     * @return The colors of the rays, in the order of the packet.
+     */
+    public Color[] tracePacket(RayPacket packet) {
+        Color[] colors = new Color[packet.size()];
+        for (int i = 0; i < colors.length; i++)
+            colors[i] = traceRay(packet.getRay(i));
+        return colors;
+    }
+
+    /**
+     * Traces several packets of rays (e.g. the packets of a tile of the image) and calculates the
+     * color of each ray. The default implementation traces the packets one by one.
+     *
+     * @param packets The packets of rays.
+     * @return The colors of the rays of each packet, in the order of the packet.
+     */
+    public Color[][] tracePackets(RayPacket[] packets) {
+        Color[][] colors = new Color[packets.length][];
+        for (int i = 0; i < packets.length; i++)
+            colors[i] = tracePacket(packets[i]);
+        return colors;
+    }
+
     /**
      * Checks if soft shadows are enabled.
      *
@@ -0,0 +1,157 @@
+package renderer;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * The RenderExecutor class is a pool of render threads that can be shared by several cameras
+ * and reused across frames, so batch and animation renders don't pay for starting new
+ * (and JIT-cold) threads on every frame. The owner creates it once, passes it to the
+ * cameras through {@link Camera.Builder#setRenderExecutor(RenderExecutor)} and closes it
+ * when no more renders are needed.
+ * <p>
+ * A render executor can also run every job on its own virtual thread (see {@link #ofVirtualThreads()}),
+ * which lets a render service run many low-priority renders next to heavy ones without
+ * holding a platform thread per render.
+ */
+public class RenderExecutor implements AutoCloseable {
+    /** The work-stealing pool of platform threads, null in virtual thread mode */
+    private final ForkJoinPool pool;
+    /** The virtual thread per job executor, null in platform thread mode */
+    private final ExecutorService perJobExecutor;
+
+    /**
+     * Constructs a render executor with a thread per available processor.
+     */
+    public RenderExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a render executor with the given number of threads.
+     *
+     * @param threads the number of render threads
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public RenderExecutor(int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("number of threads should be greater than zero");
+        pool = new ForkJoinPool(threads);
+        perJobExecutor = null;
+    }
+
+    /**
+     * Constructs a render executor that runs every job on a virtual thread of its own.
+     *
+     * @param perJobExecutor the virtual thread per job executor
+     */
+    private RenderExecutor(ExecutorService perJobExecutor) {
+        pool = null;
+        this.perJobExecutor = perJobExecutor;
+    }
+
+    /**
+     * Creates a render executor that runs every job on a new virtual thread.
+     *
+     * @return the new render executor
+     */
+    public static RenderExecutor ofVirtualThreads() {
+        return new RenderExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Gets the number of render threads.
+     *
+     * @return the number of threads, or 0 if every job runs on a virtual thread of its own.
+     */
+    public int getThreads() {
+        return pool == null ? 0 : pool.getParallelism();
+    }
+
+    /**
+     * Runs a job for every index in [0, count) and waits until all of them are done.
+     * On the pool, the range is split in halves until a single index is left, so only a logarithmic
+     * number of tasks is queued at any time and idle threads steal the larger halves from busy ones.
+     * In virtual thread mode, every index is started on a virtual thread of its own.
+     *
+     * @param count the number of jobs
+     * @param job   the job to run for each index
+     */
+    public void execute(int count, IntConsumer job) {
+        if (pool != null) {
+            pool.invoke(new RangeTask(job, 0, count));
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            futures.add(perJobExecutor.submit(() -> job.accept(index)));
+        }
+        try {
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        }
+    }
+
+    /**
+     * Shuts down the render threads. Renders that are already running are completed.
+     */
+    @Override
+    public void close() {
+        if (pool != null)
+            pool.shutdown();
+        else
+            perJobExecutor.shutdown();
+    }
+
+    /**
+     * A fork-join task that runs a job for a range of indices.
+     */
+    private static class RangeTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient IntConsumer job;
+        private final int from, to;
+
+        /**
+         * Constructs a task for the indices in the range [from, to).
+         *
+         * @param job  the job to run for each index
+         * @param from first index (inclusive)
+         * @param to   last index (exclusive)
+         */
+        RangeTask(IntConsumer job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to)
+                    job.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(job, from, middle), new RangeTask(job, middle, to));
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package renderer;
 
 import geometries.Intersectable.GeoPoint;
+import geometries.Intersectable.HitRecord;
+import geometries.RayPacket;
 import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -21,6 +25,69 @@ public class SimpleRayTracer extends RayTracerBase {
     private static final double MIN_CALC_COLOR_K = 0.001;
     private static final Double3 INITIAL_K = Double3.ONE;
 
+    /** The number of bits of each coordinate of the grid cells by which secondary ray heads are sorted */
+    private static final int SORT_BITS = 10;
+    /** The number of bits of the sort keys of the rays sorted by each pass of the radix sort */
+    private static final int RADIX_BITS = 11;
+    /** The maximal number of rays of a bounce that are intersected together as a packet */
+    private static final int WAVE_PACKET_SIZE = 64;
+
+    /** A reusable hit record per render thread, so closest-hit searches don't allocate */
+    private final ThreadLocal<HitRecord> hitRecord = ThreadLocal.withInitial(HitRecord::new);
+    /** Tells whether packets are traced breadth first, a bounce at a time, instead of depth first */
+    private boolean wavefront = false;
+
+    /**
+     * A ray on the way from a pixel, with the factors of the bounces that led to it.
+     *
+     * @param ray    the ray
+     * @param pixel  the index of the pixel among the pixels traced together
+     * @param level  the recursion level of the ray, as in the depth first calculation
+     * @param k      the attenuation factor of the ray
+     * @param weight the factor by which the color found along the ray contributes to the pixel
+     */
+    private record PathRay(Ray ray, int pixel, int level, Double3 k, Double3 weight) {
+    }
+
+    /**
+     * A point hit by a ray of a bounce, waiting for the shadow rays of its lights to be traced.
+     * For each light (in the order of the scene) it keeps the light direction and the range of
+     * its shadow rays in the queue of the bounce.
+     */
+    private static final class HitPoint {
+        /** The ray that hit the point */
+        final PathRay pathRay;
+        /** The point */
+        final GeoPoint geoPoint;
+        /** The normal at the point */
+        final Vector n;
+        /** The dot product of the normal and the ray direction */
+        final double nv;
+        /** The directions from each light to the point */
+        final Vector[] l;
+        /** The dot products of the normal and the light directions */
+        final double[] nl;
+        /** The distances from the lights to the point */
+        final double[] lightDistance;
+        /** The position of the first shadow ray of each light in the queue, -1 if the light doesn't reach the point */
+        final int[] firstShadow;
+        /** The number of shadow rays of each light */
+        final int[] shadowCount;
+
+        HitPoint(PathRay pathRay, GeoPoint geoPoint, Vector n, double nv, int lights) {
+            this.pathRay = pathRay;
+            this.geoPoint = geoPoint;
+            this.n = n;
+            this.nv = nv;
+            l = new Vector[lights];
+            nl = new double[lights];
+            lightDistance = new double[lights];
+            firstShadow = new int[lights];
+            shadowCount = new int[lights];
+            Arrays.fill(firstShadow, -1);
+        }
+    }
+
     /**
      * Constructs a SimpleRayTracer with the specified scene.
      *
@@ -63,6 +130,24 @@ public class SimpleRayTracer extends RayTracerBase {
         return this;
     }
 
+    /**
+     * Enables or disables the wavefront mode, in which packets of rays are traced breadth first,
+     * a bounce at a time for all the pixels traced together (e.g. a tile of the image, see
+     * {@link #tracePackets(RayPacket[])}). The shadow and soft shadow rays of all the points hit by
+     * a bounce are queued, sorted by the octant of their direction and the cell of their head, and
+     * intersected together in packets, and so are the reflected and refracted rays of the next bounce.
+     * Rays that follow each other then traverse the same parts of the scene, which keeps the caches warm.
+     * The colors are summed in another order than in the depth first recursion, so a color channel
+     * may differ from it by 1.
+     *
+     * @param wavefront true to trace packets breadth first, false to trace each ray depth first
+     * @return this SimpleRayTracer instance for method chaining
+     */
+    public SimpleRayTracer setWavefront(boolean wavefront) {
+        this.wavefront = wavefront;
+        return this;
+    }
+
     /**
      * Traces a ray through the scene and calculates the color based on intersections.
      *
@@ -83,12 +168,391 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     @Override
     public Color traceBeamRay(List<Ray> rays) {
-        Color color = Color.BLACK;
+        ColorAccumulator color = new ColorAccumulator();
+        for (Ray ray : rays)
+            color.add(traceRay(ray), 1.0 / rays.size());
+        return color.toColor();
+    }
+
+    /**
+     * Traces a packet of rays: the closest intersections of all the rays are found by a single
+     * traversal of the scene's geometries, and then the color of each ray is calculated.
+     * In wavefront mode the packet is traced breadth first, as by {@link #tracePackets(RayPacket[])}.
+     *
+     * @param packet The packet of rays.
+     * @return The colors of the rays, in the order of the packet.
+     */
+    @Override
+    public Color[] tracePacket(RayPacket packet) {
+        if (wavefront)
+            return tracePackets(new RayPacket[]{packet})[0];
+        HitRecord[] hits = newHitRecords(packet.size());
+        scene.geometries.intersect(packet, hits);
+        Color[] colors = new Color[hits.length];
+        for (int i = 0; i < hits.length; i++)
+            colors[i] = hits[i].geometry == null ? scene.background : calcColor(hits[i].toGeoPoint(), packet.getRay(i));
+        return colors;
+    }
+
+    /**
+     * Traces several packets of rays. In wavefront mode all their rays are traced together breadth
+     * first: the primary hits of all the packets are shaded, then the reflected and refracted rays
+     * of all of them are traced as the next bounce, and so on.
+     *
+     * @param packets The packets of rays.
+     * @return The colors of the rays of each packet, in the order of the packet.
+     */
+    @Override
+    public Color[][] tracePackets(RayPacket[] packets) {
+        if (!wavefront)
+            return super.tracePackets(packets);
+        int total = 0;
+        for (RayPacket packet : packets)
+            total += packet.size();
+        ColorAccumulator[] sums = new ColorAccumulator[total];
+        List<PathRay> wave = new ArrayList<>(total);
+        List<GeoPoint> points = new ArrayList<>(total);
+        int pixel = 0;
+        for (RayPacket packet : packets) {
+            HitRecord[] hits = newHitRecords(packet.size());
+            scene.geometries.intersect(packet, hits);
+            for (int i = 0; i < hits.length; i++, pixel++) {
+                if (hits[i].geometry == null)
+                    sums[pixel] = new ColorAccumulator(scene.background);
+                else {
+                    sums[pixel] = new ColorAccumulator(scene.ambientLight.getIntensity());
+                    wave.add(new PathRay(packet.getRay(i), pixel, MAX_CALC_COLOR_LEVEL, INITIAL_K, Double3.ONE));
+                    points.add(hits[i].toGeoPoint());
+                }
+            }
+        }
+        while (!wave.isEmpty()) {
+            List<PathRay> next = shade(wave, points, sums);
+            List<Ray> rays = new ArrayList<>(next.size());
+            for (PathRay pathRay : next)
+                rays.add(pathRay.ray());
+            int[] order = coherentOrder(rays);
+            GeoPoint[] found = closestIntersections(rays, null, order);
+            wave = new ArrayList<>(next.size());
+            points = new ArrayList<>(next.size());
+            for (int i : order) {
+                PathRay pathRay = next.get(i);
+                if (found[i] == null)
+                    sums[pathRay.pixel()].add(scene.background, pathRay.weight());
+                else {
+                    wave.add(pathRay);
+                    points.add(found[i]);
+                }
+            }
+        }
+        Color[][] colors = new Color[packets.length][];
+        pixel = 0;
+        for (int p = 0; p < packets.length; p++) {
+            colors[p] = new Color[packets[p].size()];
+            for (int i = 0; i < colors[p].length; i++)
+                colors[p][i] = sums[pixel++].toColor();
+        }
+        return colors;
+    }
+
+    /**
+     * Creates empty hit records for the rays of a packet.
+     *
+     * @param count the number of rays
+     * @return the hit records
+     */
+    private static HitRecord[] newHitRecords(int count) {
+        HitRecord[] hits = new HitRecord[count];
+        for (int i = 0; i < count; i++)
+            hits[i] = new HitRecord();
+        return hits;
+    }
+
+    /**
+     * Shades the points hit by a bounce: queues the shadow rays of all the points, traces them
+     * together, adds the local effects at each point to the color of its pixel, and queues the
+     * reflected and refracted rays of the points for the next bounce.
+     *
+     * @param wave   the rays of the bounce
+     * @param points the points hit by the rays
+     * @param sums   the sums of the colors of the pixels
+     * @return the rays of the next bounce
+     */
+    private List<PathRay> shade(List<PathRay> wave, List<GeoPoint> points, ColorAccumulator[] sums) {
+        List<HitPoint> hitPoints = new ArrayList<>(wave.size());
+        List<Ray> shadowRays = new ArrayList<>();
+        for (int i = 0; i < wave.size(); i++)
+            hitPoints.add(queueShadowRays(wave.get(i), points.get(i), shadowRays));
+        Double3[] ktr = transparencies(hitPoints, shadowRays);
+
+        List<PathRay> next = new ArrayList<>();
+        for (HitPoint hitPoint : hitPoints) {
+            PathRay pathRay = hitPoint.pathRay;
+            sums[pathRay.pixel()].add(calcLocalEffects(hitPoint, ktr), pathRay.weight());
+            if (pathRay.level() == 1)
+                continue;
+            Point point = hitPoint.geoPoint.point;
+            Material material = hitPoint.geoPoint.geometry.getMaterial();
+            queue(pathRay, constructReflectedRay(point, pathRay.ray(), hitPoint.n), material.kR, next);
+            queue(pathRay, constructRefractedRay(point, pathRay.ray(), hitPoint.n), material.kT, next);
+        }
+        return next;
+    }
+
+    /**
+     * Queues the shadow rays of a point hit by a ray, toward every light that reaches its side of
+     * the surface: a single ray, or a beam with soft shadows, as {@link #calcLocalEffects(GeoPoint, Ray, Double3)}.
+     *
+     * @param pathRay    the ray that hit the point
+     * @param geoPoint   the point
+     * @param shadowRays the shadow rays of the bounce
+     * @return the point with its lights
+     */
+    private HitPoint queueShadowRays(PathRay pathRay, GeoPoint geoPoint, List<Ray> shadowRays) {
+        Vector n = geoPoint.geometry.getNormal(geoPoint.point);
+        double nv = alignZero(n.dotProduct(pathRay.ray().getDirection()));
+        HitPoint hitPoint = new HitPoint(pathRay, geoPoint, n, nv, scene.lights.size());
+        if (isZero(nv))
+            return hitPoint;
+        int light = 0;
+        for (LightSource lightSource : scene.lights) {
+            Vector l = lightSource.getL(geoPoint.point);
+            double nl = alignZero(n.dotProduct(l));
+            if (nl * nv > 0) {
+                hitPoint.l[light] = l;
+                hitPoint.nl[light] = nl;
+                hitPoint.firstShadow[light] = shadowRays.size();
+                List<Vector> beamL = softShadows ? lightSource.getBeamL(geoPoint.point, countBeam) : List.of(l);
+                if (beamL != null) {
+                    for (Vector vl : beamL)
+                        shadowRays.add(constructLightRay(geoPoint, vl, n));
+                    hitPoint.shadowCount[light] = beamL.size();
+                    hitPoint.lightDistance[light] = lightSource.getDistance(geoPoint.point);
+                }
+            }
+            light++;
+        }
+        return hitPoint;
+    }
+
+    /**
+     * Finds the transparency along the shadow rays of a bounce. The rays are sorted by coherence
+     * and intersected in packets up to the distance of their lights; only the rays that are blocked
+     * by something are searched again for the transparency of all their blockers.
+     *
+     * @param hitPoints  the points of the bounce, with the ranges of their shadow rays
+     * @param shadowRays the shadow rays
+     * @return the transparency along each shadow ray
+     */
+    private Double3[] transparencies(List<HitPoint> hitPoints, List<Ray> shadowRays) {
+        int n = shadowRays.size();
+        double[] maxDistances = new double[n];
+        for (HitPoint hitPoint : hitPoints)
+            for (int light = 0; light < hitPoint.firstShadow.length; light++) {
+                int first = hitPoint.firstShadow[light];
+                if (first >= 0)
+                    Arrays.fill(maxDistances, first, first + hitPoint.shadowCount[light], hitPoint.lightDistance[light]);
+            }
+        GeoPoint[] blockers = closestIntersections(shadowRays, maxDistances, coherentOrder(shadowRays));
+        Double3[] ktr = new Double3[n];
+        for (int i = 0; i < n; i++)
+            if (blockers[i] == null)
+                ktr[i] = Double3.ONE;
+            else if (blockers[i].geometry.getMaterial().kT.lowerThan(MIN_CALC_COLOR_K))
+                ktr[i] = Double3.ZERO;
+            else
+                ktr[i] = scene.geometries.findTransparency(shadowRays.get(i), maxDistances[i], MIN_CALC_COLOR_K);
+        return ktr;
+    }
+
+    /**
+     * Calculates the local effects of light at a point hit by a bounce, as
+     * {@link #calcLocalEffects(GeoPoint, Ray, Double3)}, with the transparency of its shadow rays
+     * already traced. A beam of shadow rays is averaged in the order of the beam, as by
+     * {@link #transparencyBeam(GeoPoint, LightSource, Vector, double)}.
+     *
+     * @param hitPoint the point with its lights
+     * @param ktr      the transparency along the shadow rays of the bounce
+     * @return the color contribution from local effects
+     */
+    private Color calcLocalEffects(HitPoint hitPoint, Double3[] ktr) {
+        Color emission = hitPoint.geoPoint.geometry.getEmission();
+        if (isZero(hitPoint.nv))
+            return emission;
+
+        ColorAccumulator color = new ColorAccumulator(emission);
+        Material material = hitPoint.geoPoint.geometry.getMaterial();
+        Vector v = hitPoint.pathRay.ray().getDirection();
+        int light = 0;
+        for (LightSource lightSource : scene.lights) {
+            int first = hitPoint.firstShadow[light], count = hitPoint.shadowCount[light];
+            if (first >= 0) {
+                Double3 k;
+                if (count == 0)
+                    k = Double3.ZERO;
+                else if (!softShadows)
+                    k = ktr[first];
+                else {
+                    ColorAccumulator sum = new ColorAccumulator();
+                    for (int i = first; i < first + count; i++)
+                        sum.add(ktr[i]);
+                    k = sum.toDouble3().reduce(count);
+                }
+                if (k.greaterThan(MIN_CALC_COLOR_K)) {
+                    Vector l = hitPoint.l[light];
+                    double nl = hitPoint.nl[light];
+                    Color intensity = lightSource.getIntensity(hitPoint.geoPoint.point);
+                    color.add(intensity, k, calcDiffusive(material, nl))
+                            .add(intensity, k, calcSpecular(material, hitPoint.n, l, nl, v));
+                }
+            }
+            light++;
+        }
+        return color.toColor();
+    }
+
+    /**
+     * Queues a reflected or refracted ray for the next bounce, unless its contribution is too small.
+     *
+     * @param parent the ray that hit the point of the new ray
+     * @param ray    the new ray, null if there is none
+     * @param kx     the reflection or refraction coefficient
+     * @param next   the rays of the next bounce
+     */
+    private void queue(PathRay parent, Ray ray, Double3 kx, List<PathRay> next) {
+        Double3 kkx = parent.k().product(kx);
+        if (ray == null || kkx.lowerThan(MIN_CALC_COLOR_K))
+            return;
+        next.add(new PathRay(ray, parent.pixel(), parent.level() - 1, kkx, parent.weight().product(kx)));
+    }
+
+    /**
+     * Finds the closest intersections of rays, taken in a given order in packets of up to
+     * {@link #WAVE_PACKET_SIZE} rays, so each packet traverses the scene's geometries once.
+     *
+     * @param rays         the rays
+     * @param maxDistances the distance up to which each ray is intersected, null for unlimited
+     * @param order        the order of the rays
+     * @return the closest intersection of each ray (by its index), null for a ray that hits nothing
+     */
+    private GeoPoint[] closestIntersections(List<Ray> rays, double[] maxDistances, int[] order) {
+        GeoPoint[] found = new GeoPoint[rays.size()];
+        HitRecord[] hits = newHitRecords(Math.min(WAVE_PACKET_SIZE, order.length));
+        for (int from = 0; from < order.length; from += WAVE_PACKET_SIZE) {
+            int count = Math.min(WAVE_PACKET_SIZE, order.length - from);
+            Ray[] packet = new Ray[count];
+            HitRecord[] packetHits = count == hits.length ? hits : Arrays.copyOf(hits, count);
+            for (int k = 0; k < count; k++) {
+                int i = order[from + k];
+                packet[k] = rays.get(i);
+                packetHits[k].reset(maxDistances == null ? Double.POSITIVE_INFINITY : maxDistances[i]);
+            }
+            scene.geometries.intersect(new RayPacket(packet, count), packetHits);
+            for (int k = 0; k < count; k++)
+                if (packetHits[k].geometry != null)
+                    found[order[from + k]] = packetHits[k].toGeoPoint();
+        }
+        return found;
+    }
+
+    /**
+     * Orders rays so that rays in the same direction octant and from nearby heads are traced one
+     * after the other. The key of a ray is the octant of its direction followed by the Morton
+     * (Z-order) code of its head's cell in a grid over the heads of the rays.
+     *
+     * @param rays the rays
+     * @return the indices of the rays, in the sorted order
+     */
+    private static int[] coherentOrder(List<Ray> rays) {
+        int n = rays.size();
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
         for (Ray ray : rays) {
-            Color temp = traceRay(ray);
-            color = color.add(temp.scale(1.0 / rays.size()));
+            Point head = ray.getHead();
+            minX = Math.min(minX, head.getX());
+            minY = Math.min(minY, head.getY());
+            minZ = Math.min(minZ, head.getZ());
+            maxX = Math.max(maxX, head.getX());
+            maxY = Math.max(maxY, head.getY());
+            maxZ = Math.max(maxZ, head.getZ());
+        }
+        double scaleX = cellScale(maxX - minX), scaleY = cellScale(maxY - minY), scaleZ = cellScale(maxZ - minZ);
+        long[] keys = new long[n];
+        int i = 0;
+        for (Ray ray : rays) {
+            Point head = ray.getHead();
+            long morton = spreadBits(cell(head.getX() - minX, scaleX))
+                    | spreadBits(cell(head.getY() - minY, scaleY)) << 1
+                    | spreadBits(cell(head.getZ() - minZ, scaleZ)) << 2;
+            keys[i++] = (long) ray.getOctant() << 3 * SORT_BITS | morton;
+        }
+        return sortByKey(keys, 3 * SORT_BITS + 3);
+    }
+
+    /**
+     * Sorts indices by their keys with a radix sort of {@link #RADIX_BITS} bits per pass, which is
+     * stable, so indices with equal keys stay in their order.
+     *
+     * @param keys the keys of the indices, non-negative
+     * @param bits the number of bits of the keys
+     * @return the indices 0 to keys.length - 1, in the order of their keys
+     */
+    private static int[] sortByKey(long[] keys, int bits) {
+        int n = keys.length;
+        int[] order = new int[n];
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        int mask = (1 << RADIX_BITS) - 1;
+        int[] starts = new int[mask + 2];
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            Arrays.fill(starts, 0);
+            for (int i : order)
+                starts[((int) (keys[i] >>> shift) & mask) + 1]++;
+            for (int digit = 0; digit <= mask; digit++)
+                starts[digit + 1] += starts[digit];
+            for (int i : order)
+                sorted[starts[(int) (keys[i] >>> shift) & mask]++] = i;
+            int[] swap = order;
+            order = sorted;
+            sorted = swap;
         }
-        return color;
+        return order;
+    }
+
+    /**
+     * Returns the factor that maps an offset along an axis of the ray heads to a cell of the sorting grid.
+     *
+     * @param extent the extent of the heads along the axis
+     * @return the factor, 0 if all the heads have the same coordinate
+     */
+    private static double cellScale(double extent) {
+        return extent > 0 ? (1 << SORT_BITS) / extent : 0;
+    }
+
+    /**
+     * Returns the cell of the sorting grid of an offset along an axis.
+     *
+     * @param offset the offset of the ray head from the lowest head along the axis
+     * @param scale  the factor of the axis
+     * @return the cell index
+     */
+    private static long cell(double offset, double scale) {
+        return Math.min((1 << SORT_BITS) - 1, (long) (offset * scale));
+    }
+
+    /**
+     * Spreads the {@link #SORT_BITS} bits of a cell index 3 bits apart, for interleaving them
+     * with the bits of the other axes into a Morton code.
+     *
+     * @param cell the cell index
+     * @return the bits of the index at every third position
+     */
+    private static long spreadBits(long cell) {
+        cell = (cell | cell << 16) & 0x030000FFL;
+        cell = (cell | cell << 8) & 0x0300F00FL;
+        cell = (cell | cell << 4) & 0x030C30C3L;
+        return (cell | cell << 2) & 0x09249249L;
     }
 
     /**
@@ -132,13 +596,14 @@ public class SimpleRayTracer extends RayTracerBase {
 
     private Color calcLocalEffects(GeoPoint geoPoint, Ray ray, Double3 k) {
 
-        Color color = geoPoint.geometry.getEmission();
+        Color emission = geoPoint.geometry.getEmission();
         Vector n = geoPoint.geometry.getNormal(geoPoint.point);
         Vector v = ray.getDirection();
         double nv = alignZero(n.dotProduct(v));
         if (isZero(nv))
-            return color;
+            return emission;
 
+        ColorAccumulator color = new ColorAccumulator(emission);
         Material material = geoPoint.geometry.getMaterial();
         for (LightSource lightSource : scene.lights) {
             Vector l = lightSource.getL(geoPoint.point);
@@ -151,12 +616,13 @@ public class SimpleRayTracer extends RayTracerBase {
                     ktr = transparency(geoPoint, lightSource, l, n, nv);
 
                 if (ktr.greaterThan(MIN_CALC_COLOR_K)) {
-                    Color iL = lightSource.getIntensity(geoPoint.point).scale(ktr);
-                    color = color.add(iL.scale(calcDiffusive(material, nl)), iL.scale(calcSpecular(material, n, l, nl, v)));
+                    Color intensity = lightSource.getIntensity(geoPoint.point);
+                    color.add(intensity, ktr, calcDiffusive(material, nl))
+                            .add(intensity, ktr, calcSpecular(material, n, l, nl, v));
                 }
             }
         }
-        return color;
+        return color.toColor();
     }
 
 
@@ -204,10 +670,8 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The closest intersection point, or null if no intersections are found.
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        return intersections == null ? null : ray.findClosestGeoPoint(intersections);
-
+        HitRecord hit = hitRecord.get().reset(Double.POSITIVE_INFINITY);
+        return scene.geometries.intersect(ray, hit) ? hit.toGeoPoint() : null;
     }
 
     /**
@@ -226,8 +690,8 @@ public class SimpleRayTracer extends RayTracerBase {
             return null;
         }
 
-        Vector r = v.subtract(n.scale(2 * vn)).normalize();// n*2*vn
-        return new Ray(point, r, n); //new Ray{point,v-2*(v*n)*n}
+        Vector r = VectorMath.reflect(v, n, vn);// v-2*(v*n)*n
+        return new Ray(point, r, n, true); //new Ray{point,v-2*(v*n)*n}
     }
 
     /**
@@ -239,7 +703,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The constructed refracted ray.
      */
     private Ray constructRefractedRay(Point point, Ray ray, Vector n) {
-        return new Ray(point, ray.getDirection(), n);
+        return new Ray(point, ray.getDirection(), n, true);
     }
 
     /**
@@ -265,7 +729,7 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The specular reflection color.
      */
     private Double3 calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
-        Vector r = l.subtract(n.scale(2 * nl)).normalize();
+        Vector r = VectorMath.reflect(l, n, nl);
         double coefficient = -alignZero(v.dotProduct(r));
         coefficient = coefficient > 0 ? coefficient : 0;
         return material.kS.scale(Math.pow(coefficient, material.nShininess));
@@ -282,10 +746,9 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return True if the point is unshaded, false otherwise.
      */
     private boolean unshaded(GeoPoint geoPoint, Vector l, Vector n, double nv, LightSource lightSource) {
-        Vector lightDirection = l.scale(-1);
-        Vector deltaVector = n.scale(nv < 0 ? DELTA : -DELTA);
-        Point point = geoPoint.point.add(deltaVector);
-        Ray ray = new Ray(point, lightDirection);
+        Vector lightDirection = VectorMath.negate(l);
+        Point point = VectorMath.moved(geoPoint.point, n, nv < 0 ? DELTA : -DELTA);
+        Ray ray = new Ray(point, lightDirection, true);
         List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
         if (intersections == null)
             return true;
@@ -299,6 +762,19 @@ public class SimpleRayTracer extends RayTracerBase {
         return true;
     }
 
+    /**
+     * Constructs the ray from a point toward a light source, with its head moved off the surface.
+     *
+     * @param geoPoint The GeoPoint the ray starts at.
+     * @param l        The direction vector from the light source to the point.
+     * @param n        The normal vector at the GeoPoint.
+     * @return The ray toward the light source.
+     */
+    private Ray constructLightRay(GeoPoint geoPoint, Vector l, Vector n) {
+        //from point to light source
+        return new Ray(geoPoint.point, VectorMath.negate(l), n, true);
+    }
+
     /**
      * Calculates the transparency factor (ktr) of a GeoPoint.
      *
@@ -310,27 +786,11 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The transparency factor (ktr).
      */
     private Double3 transparency(GeoPoint geoPoint, LightSource light, Vector l, Vector n, double nv) {
-        //from point to light source
-        Vector lightDirection = l.scale(-1);
-
-        // Refactored ray head move
-        Ray lightRay = new Ray(geoPoint.point, lightDirection, n);
+        Ray lightRay = constructLightRay(geoPoint, l, n);
         double maxDistance = light.getDistance(geoPoint.point);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(lightRay, maxDistance);
-
-        //if there are no intersections return true (there is no shadow)
-        if (intersections == null)
-            return Double3.ONE;
-
-        Double3 ktr = Double3.ONE;
 
-        //for each intersection
-        for (GeoPoint intersection : intersections) {
-            ktr = ktr.product(intersection.geometry.getMaterial().kT);
-            if (ktr.lowerThan(MIN_CALC_COLOR_K))
-                return Double3.ZERO;
-        }
-        return ktr;
+        // the search stops at the first blocker that makes the point fully shaded
+        return scene.geometries.findTransparency(lightRay, maxDistance, MIN_CALC_COLOR_K);
     }
 
     /**
@@ -343,16 +803,14 @@ public class SimpleRayTracer extends RayTracerBase {
      * @return The transparency factor (ktr) calculated from the beam of rays.
      */
     private Double3 transparencyBeam(GeoPoint geoPoint, LightSource lightSource, Vector n, double nv) {
-        Double3 tempKtr = Double3.ZERO;
         List<Vector> beamL = lightSource.getBeamL(geoPoint.point, countBeam);
         if (beamL == null)
-            return tempKtr;
+            return Double3.ZERO;
 
-        for (Vector vl : beamL) {
-            tempKtr = tempKtr.add(transparency(geoPoint, lightSource, vl, n, nv));
-        }
-        tempKtr = tempKtr.reduce(beamL.size());
+        ColorAccumulator tempKtr = new ColorAccumulator();
+        for (Vector vl : beamL)
+            tempKtr.add(transparency(geoPoint, lightSource, vl, n, nv));
 
-        return tempKtr;
+        return tempKtr.toDouble3().reduce(beamL.size());
     }
 }
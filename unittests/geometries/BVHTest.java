@@ -0,0 +1,274 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BVH class.
+ */
+class BVHTest {
+
+    /**
+     * Builds a pseudo random set of spheres and triangles.
+     *
+     * @param count the number of geometries to create
+     * @return the created geometries
+     */
+    private static Intersectable[] randomGeometries(int count) {
+        Random random = new Random(5784);
+        Intersectable[] result = new Intersectable[count];
+        for (int i = 0; i < count; i++) {
+            Point p = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+            result[i] = i % 2 == 0
+                    ? new Sphere(p, 0.5 + random.nextDouble() * 3)
+                    : new Triangle(p, p.add(new Vector(2 + random.nextDouble(), 0, 1)), p.add(new Vector(0, 2 + random.nextDouble(), 1)));
+        }
+        return result;
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Box of bounded geometries
+        BVH bvh = new BVH(new Sphere(new Point(0, 0, 0), 1d), new Sphere(new Point(5, 0, 0), 2d));
+        BoundingBox box = bvh.getBoundingBox();
+        assertEquals(new Point(-1, -2, -2), box.getMin(), "Wrong minimal corner");
+        assertEquals(new Point(7, 2, 2), box.getMax(), "Wrong maximal corner");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: An unbounded geometry makes the whole collection unbounded
+        bvh.add(new Plane(new Point(0, 0, -5), new Vector(0, 0, 1)));
+        assertNull(bvh.getBoundingBox(), "Collection with a plane must be unbounded");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Intersectable[] shapes = randomGeometries(500);
+        Geometries geometries = new Geometries(shapes);
+        BVH bvh = new BVH(geometries);
+        Plane plane = new Plane(new Point(0, 0, -60), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The hierarchy finds exactly the intersections of a flat collection
+        Random random = new Random(1640);
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+        for (int i = 0; i < 1000; i++) {
+            Ray ray = new Ray(new Point(0, 0, 100),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            List<Point> expected = geometries.findIntersections(ray);
+            List<Point> actual = bvh.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "Wrong number of intersections");
+            if (expected != null) {
+                assertEquals(ray.findClosestPoint(expected), ray.findClosestPoint(actual), "Wrong closest intersection");
+                assertEquals(ray.findClosestPoint(expected), bvh.findClosestGeoIntersection(ray).point,
+                        "Wrong closest intersection");
+                assertTrue(bvh.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Intersection not found");
+                assertEquals(ray.findClosestPoint(expected), hit.toGeoPoint().point, "Wrong closest intersection");
+            } else
+                assertNull(bvh.findClosestGeoIntersection(ray), "Ray without intersections");
+        }
+
+        // TC02: Geometries added after the first query are found
+        bvh.add(plane);
+        assertEquals(List.of(new Point(0, 0, -60)),
+                bvh.findIntersections(new Ray(new Point(0, 0, -55), new Vector(0, 0, -1))),
+                "Added plane was not found");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Ray that misses the whole hierarchy
+        assertNull(bvh.findIntersections(new Ray(new Point(0, 0, 100), new Vector(0, 0, 1))),
+                "Ray out of the hierarchy");
+
+        // TC04: Empty hierarchy
+        assertNull(new BVH().findIntersections(new Ray(new Point(0, 0, 0), new Vector(1, 0, 0))),
+                "empty hierarchy");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#intersect(RayPacket, Intersectable.HitRecord[])}.
+     */
+    @Test
+    void testIntersectPacket() {
+        Intersectable[] shapes = randomGeometries(2000);
+        Geometries geometries = new Geometries(shapes);
+        geometries.add(new Plane(new Point(0, 0, -60), new Vector(0, 0, 1)));
+        BVH bvh = new BVH(geometries);
+        Intersectable.HitRecord expected = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Packets of a camera grid find the same closest intersections as single rays
+        for (int block = 0; block < 16; block++) {
+            Ray[] rays = new Ray[64];
+            for (int i = 0; i < 8; i++)
+                for (int j = 0; j < 8; j++)
+                    rays[i * 8 + j] = new Ray(new Point(0, 0, 100),
+                            new Vector((block % 4) * 8 + j - 16, (block / 4) * 8 + i - 16, -40));
+            RayPacket packet = new RayPacket(rays, 8);
+            assertTrue(packet.hasFrustum(), "Camera grid must form a frustum");
+            Intersectable.HitRecord[] hits = new Intersectable.HitRecord[rays.length];
+            for (int i = 0; i < hits.length; i++)
+                hits[i] = new Intersectable.HitRecord();
+            bvh.intersect(packet, hits);
+            for (int i = 0; i < rays.length; i++) {
+                geometries.intersect(rays[i], expected.reset(Double.POSITIVE_INFINITY));
+                assertEquals(expected.toGeoPoint(), hits[i].toGeoPoint(), "Wrong closest intersection");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: A packet of incoherent rays from different heads falls back to single rays
+        Ray[] rays = {new Ray(new Point(0, 0, 100), new Vector(0, 0, -1)), new Ray(new Point(0, 0, -100), new Vector(0, 0, 1)),
+                new Ray(new Point(100, 0, 0), new Vector(-1, 0, 0)), new Ray(new Point(0, 100, 0), new Vector(0, -1, 0))};
+        Intersectable.HitRecord[] hits = new Intersectable.HitRecord[rays.length];
+        for (int i = 0; i < hits.length; i++)
+            hits[i] = new Intersectable.HitRecord();
+        bvh.intersect(new RayPacket(rays, 2), hits);
+        for (int i = 0; i < rays.length; i++) {
+            geometries.intersect(rays[i], expected.reset(Double.POSITIVE_INFINITY));
+            assertEquals(expected.toGeoPoint(), hits[i].toGeoPoint(), "Wrong closest intersection");
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#getStatistics()}.
+     */
+    @Test
+    void testGetStatistics() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Statistics of a hierarchy built with full SAH sweeps
+        BVH bvh = new BVH(randomGeometries(50));
+        bvh.add(new Plane(new Point(0, 0, -60), new Vector(0, 0, 1)));
+        BVH.Statistics statistics = bvh.getStatistics();
+        assertEquals(51, statistics.geometries(), "Wrong number of geometries");
+        assertEquals(1, statistics.unbounded(), "Wrong number of unbounded geometries");
+        assertEquals(2 * statistics.leaves() - 1, statistics.nodes(), "A binary tree must have one inner node less than leaves");
+        assertEquals(50, statistics.averageLeafSize() * statistics.leaves(), 1e-9, "Every bounded geometry must be in a leaf");
+        assertTrue(statistics.sahCost() > 0 && statistics.sahCost() < 50, "SAH cost must be lower than a flat list");
+
+        // TC02: A large hierarchy, split with binned SAH and built in parallel, finds the same intersections
+        Intersectable[] shapes = randomGeometries(20000);
+        Geometries geometries = new Geometries(shapes);
+        bvh = new BVH(geometries);
+        statistics = bvh.getStatistics();
+        assertEquals(2 * statistics.leaves() - 1, statistics.nodes(), "A binary tree must have one inner node less than leaves");
+        assertEquals(20000, statistics.averageLeafSize() * statistics.leaves(), 1e-6, "Every geometry must be in a leaf");
+        assertTrue(statistics.maxDepth() < 64, "Tree too deep: " + statistics);
+        Random random = new Random(1640);
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+        for (int i = 0; i < 200; i++) {
+            Ray ray = new Ray(new Point(0, 0, 100),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            Intersectable.GeoPoint expected = geometries.findClosestGeoIntersection(ray);
+            if (expected == null)
+                assertFalse(bvh.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Ray without intersections");
+            else {
+                assertTrue(bvh.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Intersection not found");
+                assertEquals(expected, hit.toGeoPoint(), "Wrong closest intersection");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Empty hierarchy
+        statistics = new BVH().getStatistics();
+        assertEquals(0, statistics.nodes(), "Empty hierarchy has no nodes");
+    }
+
+    /**
+     * Test method for {@link geometries.BVH#refit()}.
+     */
+    @Test
+    void testRefit() throws InterruptedException {
+        Random random = new Random(9917);
+        Sphere[] spheres = new Sphere[300];
+        for (int i = 0; i < spheres.length; i++)
+            spheres[i] = new Sphere(new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50,
+                    random.nextDouble() * 100 - 50), 0.5 + random.nextDouble() * 2);
+        BVH bvh = new BVH(spheres);
+        bvh.getStatistics();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A few spheres move a little - the tree is refitted and finds them in their new place
+        for (int i = 0; i < spheres.length; i += 10)
+            spheres[i].setCenter(spheres[i].getCenter().add(new Vector(1, -1, 0.5)));
+        assertFalse(bvh.refit(), "Small moves should only refit the tree");
+        assertClosestIntersections(spheres, bvh, random);
+
+        // TC02: All the spheres are scattered - the tree degrades and is rebuilt
+        for (Sphere sphere : spheres)
+            sphere.setCenter(new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50,
+                    random.nextDouble() * 100 - 50));
+        assertTrue(bvh.refit(), "Scattered geometries should rebuild the tree");
+        assertClosestIntersections(spheres, bvh, random);
+
+        // TC03: Queries running while the tree is refitted see a whole tree
+        Ray[] rays = new Ray[200];
+        Intersectable.HitRecord expected = new Intersectable.HitRecord();
+        double[] distances = new double[rays.length];
+        for (int i = 0; i < rays.length; i++) {
+            rays[i] = new Ray(new Point(0, 0, 100), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            distances[i] = bvh.intersect(rays[i], expected.reset(Double.POSITIVE_INFINITY))
+                    ? expected.t : Double.POSITIVE_INFINITY;
+        }
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] workers = new Thread[4];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = new Thread(() -> {
+                Intersectable.HitRecord hit = new Intersectable.HitRecord();
+                for (int round = 0; round < 20; round++)
+                    for (int i = 0; i < rays.length; i++) {
+                        double t = bvh.intersect(rays[i], hit.reset(Double.POSITIVE_INFINITY))
+                                ? hit.t : Double.POSITIVE_INFINITY;
+                        if (t != distances[i])
+                            failures.incrementAndGet();
+                    }
+            });
+            workers[w].start();
+        }
+        for (int i = 0; i < 50; i++)
+            bvh.refit();
+        for (Thread worker : workers)
+            worker.join();
+        assertEquals(0, failures.get(), "Wrong intersections while the tree was refitted");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Nothing moved
+        double cost = bvh.getStatistics().sahCost();
+        assertFalse(bvh.refit(), "Unchanged geometries should only refit the tree");
+        assertEquals(cost, bvh.getStatistics().sahCost(), 1e-9, "Cost of an unchanged tree");
+    }
+
+    /**
+     * Checks that a hierarchy finds the same closest intersections as testing every sphere.
+     *
+     * @param spheres the spheres of the hierarchy
+     * @param bvh     the hierarchy
+     * @param random  the random generator of the rays
+     */
+    private static void assertClosestIntersections(Sphere[] spheres, BVH bvh, Random random) {
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+        for (int i = 0; i < 300; i++) {
+            Ray ray = new Ray(new Point(0, 0, 100),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            Intersectable.HitRecord expected = new Intersectable.HitRecord().reset(Double.POSITIVE_INFINITY);
+            boolean found = false;
+            for (Sphere sphere : spheres)
+                found |= sphere.intersect(ray, expected);
+            assertEquals(found, bvh.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Wrong intersection result");
+            if (found)
+                assertEquals(expected.toGeoPoint(), hit.toGeoPoint(), "Wrong closest intersection");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BoundingBox class.
+ */
+class BoundingBoxTest {
+
+    private final BoundingBox box = new BoundingBox(new Point(-1, -1, -1), new Point(1, 1, 1));
+
+    /**
+     * Test method for {@link geometries.BoundingBox#union(BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        // ============ Equivalence Partitions Tests ==============
+        BoundingBox union = box.union(new BoundingBox(new Point(2, 0, 0), new Point(3, 4, 0)));
+        assertEquals(new Point(-1, -1, -1), union.getMin(), "Wrong minimal corner");
+        assertEquals(new Point(3, 4, 1), union.getMax(), "Wrong maximal corner");
+        assertEquals(2 * (4 * 5 + 5 * 2 + 2 * 4), union.surfaceArea(), 0.000001, "Wrong surface area");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersects(Ray, double)}.
+     */
+    @Test
+    void testIntersects() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the box
+        assertTrue(box.intersects(new Ray(new Point(-5, 0.5, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "Ray crosses the box");
+        // TC02: Ray misses the box
+        assertFalse(box.intersects(new Ray(new Point(-5, 2, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "Ray misses the box");
+        // TC03: Ray points away from the box
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(-1, 0.1, 0)), Double.POSITIVE_INFINITY),
+                "Ray points away from the box");
+        // TC04: Ray starts inside the box
+        assertTrue(box.intersects(new Ray(new Point(0, 0, 0), new Vector(1, 2, 3)), 0.1),
+                "Ray starts inside the box");
+        // TC05: Box is further than the max distance
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), 3),
+                "Box is further than the max distance");
+
+        // =============== Boundary Values Tests ==================
+        // TC06: Flat box crossed by a diagonal ray
+        BoundingBox flat = new BoundingBox(new Point(0, 0, 0), new Point(1, 1, 0));
+        assertTrue(flat.intersects(new Ray(new Point(0.5, 0.5, 1), new Vector(0.1, 0.1, -1)), Double.POSITIVE_INFINITY),
+                "Ray crosses a flat box");
+        // TC07: Ray parallel to a face, outside the box
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 1.5), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "Ray parallel to a face outside the box");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersectionDistance(double[], int, double[], double)}.
+     */
+    @Test
+    void testPackedIntersectionDistance() {
+        double[] boxes = new double[12];
+        box.copyTo(boxes, 6);
+        Ray ray = new Ray(new Point(-5, 0.5, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A packed box gives the same entry distance as the box itself
+        assertEquals(box.intersectionDistance(ray, Double.POSITIVE_INFINITY),
+                BoundingBox.intersectionDistance(boxes, 6, BoundingBox.rayData(ray, new double[6]), Double.POSITIVE_INFINITY), 1e-12,
+                "Wrong entry distance");
+
+        // TC02: Ray misses the packed box
+        assertEquals(Double.POSITIVE_INFINITY,
+                BoundingBox.intersectionDistance(boxes, 6, BoundingBox.rayData(new Ray(new Point(-5, 2, 0), new Vector(1, 0, 0)), new double[6]),
+                        Double.POSITIVE_INFINITY),
+                "Ray misses the box");
+    }
+}
@@ -2,6 +2,8 @@ package geometries;
 
 import primitives.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -60,4 +62,72 @@ class CylinderTest {
         assertEquals(new Vector(1, 0, 0), c.getNormal(p5), "ERROR: not the correct normal");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Cylinder#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // Cylinder along the x axis
+        Cylinder c = new Cylinder(1.0, new Ray(new Point(1, 1, 1), new Vector(1, 0, 0)), 2.0);
+        assertEquals(new Point(1, 0, 0), c.getBoundingBox().getMin(), "ERROR: wrong minimal corner");
+        assertEquals(new Point(3, 2, 2), c.getBoundingBox().getMax(), "ERROR: wrong maximal corner");
+
+        // =============== Boundary Values Tests ==================
+        // An infinite tube is unbounded
+        assertNull(new Tube(1.0, new Ray(new Point(1, 1, 1), new Vector(1, 0, 0))).getBoundingBox(),
+                "ERROR: a tube must be unbounded");
+    }
+
+    /**
+     * Test method for {@link geometries.Cylinder#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Cylinder cylinder = new Cylinder(1.0, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), 2.0);
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the side twice (2 points)
+        assertEquals(List.of(new Point(-1, 0, 1), new Point(1, 0, 1)),
+                cylinder.findIntersections(new Ray(new Point(-3, 0, 1), new Vector(1, 0, 0))), "Ray crosses the side");
+
+        // TC02: Ray crosses both bases (2 points)
+        assertEquals(List.of(new Point(0.5, 0, 2), new Point(0.5, 0, 0)),
+                cylinder.findIntersections(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1))), "Ray crosses the bases");
+        assertTrue(cylinder.intersect(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Intersection not found");
+        assertEquals(new Point(0.5, 0, 2), hit.toGeoPoint().point, "Wrong closest intersection");
+
+        // TC03: Ray enters through the side and leaves through a base (2 points)
+        assertEquals(List.of(new Point(-1, 0, 1), new Point(0, 0, 2)),
+                cylinder.findIntersections(new Ray(new Point(-2, 0, 0), new Vector(1, 0, 1))), "Ray from side to base");
+
+        // TC04: Ray passes above the cylinder, crossing only the infinite tube (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(-3, 0, 3), new Vector(1, 0, 0))), "Ray above the cylinder");
+        assertFalse(cylinder.intersect(new Ray(new Point(-3, 0, 3), new Vector(1, 0, 0)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Ray above the cylinder");
+
+        // TC05: Ray starts inside the cylinder (1 point)
+        assertEquals(List.of(new Point(1, 0, 1)),
+                cylinder.findIntersections(new Ray(new Point(0, 0, 1), new Vector(1, 0, 0))), "Ray from inside");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Ray through the rim of a base (the circle between the side and the base) (0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Point(1, 0, 3), new Vector(0, 0, -1))), "Ray along the side");
+        assertNull(cylinder.findIntersections(new Ray(new Point(-3, 0, 2), new Vector(1, 0, 0))), "Ray in the top base plane");
+
+        // TC11: Only the points up to the max distance are found
+        assertEquals(1, cylinder.findGeoIntersections(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1)), 4).size(),
+                "Points beyond the distance must be ignored");
+
+        // TC12: The closest hit keeps a closer intersection in the record
+        assertFalse(cylinder.intersect(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1)), hit.reset(2)),
+                "Intersection beyond the record distance");
+
+        // TC13: An intersection exactly at the record distance does not replace the record
+        assertFalse(cylinder.intersect(new Ray(new Point(0.5, 0, 5), new Vector(0, 0, -1)), hit.reset(3)),
+                "Intersection at the record distance");
+    }
+}
@@ -50,4 +50,194 @@ class GeometriesTest {
                 geometries.findIntersections(new Ray(new Point(0, 3, 6), new Vector(0, 0, -12)))
                         .size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindClosestGeoIntersection() {
+        Geometries geometries = new Geometries();
+
+        // ============ Boundary Value Test ==============
+        //checks for an empty geometry list.
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0, 1, 0), new Vector(1, 0, 0))),
+                "empty collection");
+
+        Sphere sphere = new Sphere(new Point(1, 0, 0), 4.0);
+        Triangle triangle = new Triangle(new Point(-1, 0, 0), new Point(1, 0, 0), new Point(0, 1, 0));
+        Plane plane = new Plane(new Point(1, 0, 0), new Vector(0, 0, 1));
+        geometries.add(plane, triangle, sphere);
+
+        // ============ Equivalence Partitions Tests ==============
+        //the closest of all the shapes is the sphere
+        Ray ray = new Ray(new Point(0, 0.5, 6), new Vector(0, 0, -12));
+        var closest = geometries.findClosestGeoIntersection(ray);
+        assertEquals(sphere, closest.geometry, "wrong closest geometry");
+        assertEquals(ray.findClosestPoint(geometries.findIntersections(ray)), closest.point, "wrong closest point");
+
+        //the sphere is behind the max distance, the closest is not found
+        assertNull(geometries.findClosestGeoIntersection(ray, 2), "closest beyond the max distance");
+    }
+
+    @Test
+    void testIntersect() {
+        Geometries geometries = new Geometries();
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+        // ============ Boundary Value Test ==============
+        //checks for an empty geometry list.
+        assertFalse(geometries.intersect(new Ray(new Point(0, 1, 0), new Vector(1, 0, 0)), hit.reset(100)),
+                "empty collection");
+        assertNull(hit.toGeoPoint(), "empty collection");
+
+        Sphere sphere = new Sphere(new Point(1, 0, 0), 4.0);
+        Triangle triangle = new Triangle(new Point(-1, 0, 0), new Point(1, 0, 0), new Point(0, 1, 0));
+        Plane plane = new Plane(new Point(1, 0, 0), new Vector(0, 0, 1));
+        geometries.add(plane, triangle, sphere);
+
+        // ============ Equivalence Partitions Tests ==============
+        //the hit record gets the same closest point as the allocating query, for every kind of geometry
+        Ray[] rays = {
+                new Ray(new Point(0, 0.5, 6), new Vector(0, 0, -1)),
+                new Ray(new Point(0, 0.5, -6), new Vector(0, 0, 1)),
+                new Ray(new Point(0.1, 0.2, 0.3), new Vector(0, 0, -1)),
+                new Ray(new Point(10, 10, 1), new Vector(0, 0, -1))
+        };
+        for (Ray ray : rays) {
+            assertTrue(geometries.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "intersection not found");
+            var closest = geometries.findClosestGeoIntersection(ray);
+            assertEquals(closest, hit.toGeoPoint(), "wrong closest point");
+            assertEquals(ray.getHead().distance(closest.point), hit.t, 0.000001, "wrong distance");
+        }
+
+        //a hit record that already holds a closer point is not changed
+        assertFalse(geometries.intersect(rays[0], hit.reset(1)), "closer point was replaced");
+        assertNull(hit.toGeoPoint(), "closer point was replaced");
+    }
+
+    @Test
+    void testFindTransparency() {
+        Geometries geometries = new Geometries();
+        Ray ray = new Ray(new Point(0, 0.5, 6), new Vector(0, 0, -1));
+
+        // ============ Boundary Value Test ==============
+        //nothing blocks the ray in an empty collection
+        assertEquals(Double3.ONE, geometries.findTransparency(ray, 100, 0.001), "empty collection");
+
+        Sphere sphere = new Sphere(new Point(1, 0, 0), 4.0);
+        sphere.setMaterial(new Material().setKT(0.5));
+        Triangle triangle = new Triangle(new Point(-1, 0, 0), new Point(1, 0, 0), new Point(0, 1, 0));
+        triangle.setMaterial(new Material().setKT(0.5));
+        Plane plane = new Plane(new Point(1, 0, 0), new Vector(0, 0, 1));
+        geometries.add(sphere, triangle, plane);
+
+        // ============ Equivalence Partitions Tests ==============
+        //the ray passes through both sides of the transparent sphere and the transparent triangle,
+        //but the opaque plane (the same plane as the triangle) blocks it
+        assertEquals(Double3.ZERO, geometries.findTransparency(ray, 100, 0.001), "opaque plane");
+
+        //before the plane, only the two sides of the sphere block the ray
+        geometries = new Geometries(sphere, triangle);
+        assertEquals(new Double3(0.125), geometries.findTransparency(ray, 100, 0.001), "transparent geometries");
+
+        //the max distance leaves only the first side of the sphere
+        assertEquals(new Double3(0.5), geometries.findTransparency(ray, 5, 0.001), "max distance");
+    }
+
+    @Test
+    void testGetBoundingBox() {
+        Geometries geometries = new Geometries();
+
+        // =============== Boundary Values Tests ==================
+        // empty collection is not bounded
+        assertNull(geometries.getBoundingBox(), "empty collection");
+
+        // ============ Equivalence Partitions Tests ==============
+        // the box encloses all the geometries
+        geometries.add(new Sphere(new Point(1, 0, 0), 1d),
+                new Triangle(new Point(-3, 0, 0), new Point(0, 5, 0), new Point(0, 0, 2)));
+        BoundingBox box = geometries.getBoundingBox();
+        assertEquals(new Point(-3, -1, -1), box.getMin(), "Wrong minimal corner");
+        assertEquals(new Point(2, 5, 2), box.getMax(), "Wrong maximal corner");
+
+        // a plane makes the collection unbounded
+        geometries.add(new Plane(new Point(1, 0, 0), new Vector(0, 0, 1)));
+        assertNull(geometries.getBoundingBox(), "collection with a plane");
+    }
+
+    @Test
+    void testUnboundedGeometries() {
+        Sphere sphere = new Sphere(new Point(0, 0, 5), 1d);
+        Plane plane = new Plane(new Point(0, 0, 0), new Vector(0, 0, 1));
+        Geometries geometries = new Geometries(sphere, plane);
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        //a ray that misses the box of the bounded geometries still hits the plane
+        Ray ray = new Ray(new Point(10, 10, 10), new Vector(0, 0, -1));
+        assertEquals(List.of(new Point(10, 10, 0)), geometries.findIntersections(ray), "plane out of the box");
+        assertEquals(plane, geometries.findClosestGeoIntersection(ray).geometry, "plane out of the box");
+        assertTrue(geometries.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "plane out of the box");
+        assertEquals(new Point(10, 10, 0), hit.toGeoPoint().point, "plane out of the box");
+
+        //a ray through the box finds both the bounded and the unbounded geometries
+        ray = new Ray(new Point(0, 0, 10), new Vector(0, 0, -1));
+        assertEquals(3, geometries.findIntersections(ray).size(), "sphere and plane");
+        assertEquals(new Point(0, 0, 6), geometries.findClosestGeoIntersection(ray).point, "sphere before the plane");
+
+        // =============== Boundary Values Tests ==================
+        //the plane in front of the bounded geometries hides them
+        ray = new Ray(new Point(0, 0, -5), new Vector(0, 0, 1));
+        assertTrue(geometries.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "plane before the sphere");
+        assertEquals(plane, hit.geometry, "plane before the sphere");
+
+        //a collection of unbounded geometries only
+        geometries = new Geometries(plane);
+        assertNull(geometries.getBoundingBox(), "unbounded collection");
+        assertEquals(Double3.ONE, geometries.findTransparency(new Ray(new Point(0, 0, 1), new Vector(1, 0, 0)), 100, 0.001),
+                "ray parallel to the plane");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#refit()}.
+     */
+    @Test
+    void testRefit() {
+        Sphere sphere = new Sphere(new Point(0, 0, 5), 1d);
+        Geometries nested = new Geometries(new Sphere(new Point(0, 5, 0), 1d));
+        BVH bvh = new BVH(new Sphere(new Point(5, 0, 0), 1d));
+        Geometries geometries = new Geometries(sphere, nested, bvh, new Instance(nested, Transform.translation(new Vector(0, 0, 20))));
+        geometries.getBoundingBox();
+
+        // ============ Equivalence Partitions Tests ==============
+        //a sphere moved after it was added is found at its new center
+        sphere.setCenter(new Point(20, 20, -20));
+        assertFalse(geometries.refit(), "refit of collections without hierarchies to rebuild");
+        Ray ray = new Ray(new Point(20, 20, -30), new Vector(0, 0, 1));
+        assertEquals(new Point(20, 20, -21), geometries.findClosestGeoIntersection(ray).point, "moved sphere");
+
+        //a geometry added to a nested collection after the collection was added is found
+        nested.add(new Sphere(new Point(-20, 0, 0), 1d));
+        geometries.refit();
+        ray = new Ray(new Point(-30, 0, 0), new Vector(1, 0, 0));
+        assertEquals(new Point(-21, 0, 0), geometries.findClosestGeoIntersection(ray).point, "geometry added to a nested collection");
+
+        //an instance of a nested collection follows the changes of the collection
+        ray = new Ray(new Point(-30, 0, 20), new Vector(1, 0, 0));
+        assertEquals(new Point(-21, 0, 20), geometries.findClosestGeoIntersection(ray).point, "instance of a changed collection");
+
+        //a geometry moved inside a nested hierarchy is found at its new place
+        Sphere moving = new Sphere(new Point(5, 5, 5), 1d);
+        bvh.add(moving);
+        bvh.getBoundingBox();
+        moving.setCenter(new Point(30, 0, 0));
+        geometries.refit();
+        ray = new Ray(new Point(40, 0, 0), new Vector(-1, 0, 0));
+        assertEquals(new Point(31, 0, 0), geometries.findClosestGeoIntersection(ray).point, "geometry moved in a nested hierarchy");
+
+        // =============== Boundary Values Tests ==================
+        //the collection keeps the box of a changed child until it is refitted
+        assertEquals(new Point(-21, -1, -21), geometries.getBoundingBox().getMin(), "box after the changes");
+        nested.add(new Sphere(new Point(0, -40, 0), 1d));
+        assertEquals(new Point(-21, -1, -21), geometries.getBoundingBox().getMin(), "box before the refit");
+        geometries.refit();
+        assertEquals(new Point(-21, -41, -21), geometries.getBoundingBox().getMin(), "box after the refit");
+    }
+}
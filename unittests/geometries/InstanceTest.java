@@ -0,0 +1,132 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Instance class.
+ */
+class InstanceTest {
+
+    /** A unit sphere, shared by the instances */
+    private final Sphere sphere = (Sphere) new Sphere(new Point(0, 0, 0), 1d).setMaterial(new Material().setKd(0.5));
+    /** The sphere scaled by 2 and moved to (5, 0, 0) */
+    private final Instance instance = new Instance(sphere,
+            Transform.scaling(2).then(Transform.translation(new Vector(5, 0, 0))));
+
+    /**
+     * Test method for {@link geometries.Instance#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box of the transformed child
+        assertEquals(new Point(3, -2, -2), instance.getBoundingBox().getMin(), "Wrong minimal corner");
+        assertEquals(new Point(7, 2, 2), instance.getBoundingBox().getMax(), "Wrong maximal corner");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Instance of an unbounded child
+        assertNull(new Instance(new Plane(new Point(0, 0, 0), new Vector(0, 0, 1)), Transform.IDENTITY).getBoundingBox(),
+                "Instance of a plane must be unbounded");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#findGeoIntersections(Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The intersections are moved to world space, with world space normals and the child's material
+        List<Intersectable.GeoPoint> result = instance.findGeoIntersections(ray);
+        assertEquals(List.of(new Point(3, 0, 0), new Point(7, 0, 0)), result.stream().map(gp -> gp.point).toList(),
+                "Wrong intersection points");
+        assertEquals(new Vector(-1, 0, 0), result.get(0).geometry.getNormal(result.get(0).point), "Wrong normal");
+        assertSame(sphere.getMaterial(), result.get(0).geometry.getMaterial(), "Instance must use the child material");
+
+        // TC02: Non-uniform scaling transforms the normal
+        Instance ellipsoid = new Instance(sphere, Transform.scaling(1, 2, 1));
+        Ray diagonal = new Ray(new Point(0, 0, 0), new Vector(1, 2, 0));
+        Intersectable.GeoPoint geoPoint = ellipsoid.findGeoIntersections(diagonal).get(0);
+        assertEquals(new Point(Math.sqrt(0.5), Math.sqrt(2), 0), geoPoint.point, "Wrong point on the ellipsoid");
+        assertEquals(new Vector(2, 1, 0).normalize(), geoPoint.geometry.getNormal(geoPoint.point), "Wrong ellipsoid normal");
+
+        // TC03: Ray that misses the instance
+        assertNull(instance.findGeoIntersections(new Ray(new Point(0, 5, 0), new Vector(1, 0, 0))), "Ray misses the instance");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: The maximal distance is measured in world space
+        assertEquals(1, instance.findGeoIntersections(ray, 5).size(), "Only the near point is within the distance");
+    }
+
+    /**
+     * Test method for {@link geometries.Instance#intersect(Ray, Intersectable.HitRecord)}.
+     */
+    @Test
+    void testIntersect() {
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+        Ray ray = new Ray(new Point(0, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The hit record gets the world space distance and point
+        assertTrue(instance.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Intersection not found");
+        assertEquals(3, hit.t, 1e-10, "Wrong world distance");
+        assertEquals(new Point(3, 0, 0), hit.toGeoPoint().point, "Wrong intersection point");
+        assertEquals(new Vector(-1, 0, 0), hit.geometry.getNormal(hit.toGeoPoint().point), "Wrong normal");
+
+        // TC02: A closer hit is kept unchanged
+        assertFalse(instance.intersect(ray, hit.reset(2)), "Farther intersection must be ignored");
+        assertEquals(2, hit.t, "The record distance must not change");
+    }
+
+    /**
+     * Test of a top-level hierarchy over instances of a shared mesh, compared with copies of its triangles.
+     */
+    @Test
+    void testTopLevelHierarchy() {
+        double[] vertices = {0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1};
+        int[] indices = {0, 2, 1, 0, 1, 3, 0, 3, 2, 1, 2, 3};
+        TriangleMesh tetrahedron = new TriangleMesh(vertices, indices);
+
+        Random random = new Random(5784);
+        BVH instances = new BVH();
+        Geometries copies = new Geometries();
+        for (int i = 0; i < 200; i++) {
+            Transform transform = Transform.rotation(new Vector(random.nextDouble() + 0.1, random.nextDouble(), random.nextDouble()), random.nextDouble() * 360)
+                    .then(Transform.scaling(1 + random.nextDouble() * 2))
+                    .then(Transform.translation(new Vector(random.nextDouble() * 60 - 30, random.nextDouble() * 60 - 30, random.nextDouble() * 60 - 30)));
+            instances.add(new Instance(tetrahedron, transform));
+            for (int k = 0; k < indices.length; k += 3) {
+                Point[] corners = new Point[3];
+                for (int c = 0; c < 3; c++) {
+                    int v = 3 * indices[k + c];
+                    corners[c] = transform.applyToPoint(new Point(vertices[v], vertices[v + 1], vertices[v + 2]));
+                }
+                copies.add(new Triangle(corners[0], corners[1], corners[2]));
+            }
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The instances give the same closest intersections and normals as copies of the geometry
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+        int found = 0;
+        for (int i = 0; i < 500; i++) {
+            Ray ray = new Ray(new Point(0, 0, 100), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            Intersectable.GeoPoint expected = copies.findClosestGeoIntersection(ray);
+            if (expected == null)
+                continue; // the ray may hit an edge, which only the mesh counts
+            found++;
+            assertTrue(instances.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Intersection not found");
+            Intersectable.GeoPoint actual = hit.toGeoPoint();
+            assertEquals(expected.point, actual.point, "Wrong closest intersection");
+            assertEquals(expected.geometry.getNormal(expected.point), actual.geometry.getNormal(actual.point), "Wrong normal");
+        }
+        assertTrue(found > 10, "Too few rays hit the instances");
+    }
+}
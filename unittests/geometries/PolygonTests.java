@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
 import geometries.Polygon;
+import java.util.List;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -110,5 +111,45 @@ public class PolygonTests {
    /** Test method for {@link geometries.Polygon#findIntersections(Ray)} indIntersections(primitives.Point)}. */
    @Test
    void testFindIntersections() {
+      Polygon square = new Polygon(new Point(0, 0, 1), new Point(2, 0, 1), new Point(2, 2, 1), new Point(0, 2, 1));
+      Polygon pentagon = new Polygon(new Point(0, 0, 0), new Point(2, 0, 0), new Point(3, 2, 0), new Point(1, 3, 0),
+                                     new Point(-1, 2, 0));
+
+      // ============ Equivalence Partitions Tests ==============
+      // TC01: Inside the polygon (1 point)
+      assertEquals(List.of(new Point(1, 1.5, 1)),
+                   square.findIntersections(new Ray(new Point(1, 1.5, 3), new Vector(0, 0, -1))), "Bad intersection");
+      assertEquals(List.of(new Point(2.5, 2, 0)),
+                   pentagon.findIntersections(new Ray(new Point(0.5, 1, 2), new Vector(1, 0.5, -1))),
+                   "Bad intersection");
+
+      // TC02: Against an edge, outside the polygon (0 points)
+      assertNull(square.findIntersections(new Ray(new Point(1, -1, 3), new Vector(0, 0, -1))), "Ray against edge");
+
+      // TC03: Against a vertex, outside the polygon (0 points)
+      assertNull(pentagon.findIntersections(new Ray(new Point(4, 3, 1), new Vector(0, 0, -1))), "Ray against vertex");
+
+      // TC04: Polygon behind the ray's head (0 points)
+      assertNull(square.findIntersections(new Ray(new Point(1, 1, 3), new Vector(0, 0, 1))), "Polygon behind the ray");
+
+      // =============== Boundary Values Tests ==================
+      // TC10: Point on an edge (0 points)
+      assertNull(square.findIntersections(new Ray(new Point(2, 1, 3), new Vector(0, 0, -1))), "Point on edge");
+
+      // TC11: Point in a vertex (0 points)
+      assertNull(pentagon.findIntersections(new Ray(new Point(1, 3, 2), new Vector(0, 0, -1))), "Point in vertex");
+
+      // TC12: Point on an edge's continuation (0 points)
+      assertNull(square.findIntersections(new Ray(new Point(3, 0, 3), new Vector(0, 0, -1))),
+                 "Point on edge's continuation");
+
+      // TC13: Ray parallel to the polygon (0 points)
+      assertNull(square.findIntersections(new Ray(new Point(1, 1, 2), new Vector(1, 0, 0))), "Parallel ray");
+
+      // TC14: Polygon at the max distance (0 points)
+      assertNull(square.findGeoIntersections(new Ray(new Point(1, 1, 3), new Vector(0, 0, -1)), 2),
+                 "Point at the max distance");
+      assertEquals(1, square.findGeoIntersections(new Ray(new Point(1, 1, 3), new Vector(0, 0, -1)), 2.5).size(),
+                   "Point before the max distance");
    }
 }
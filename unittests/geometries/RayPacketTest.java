@@ -0,0 +1,92 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RayPacket class.
+ */
+class RayPacketTest {
+
+    /**
+     * Builds a grid of rays from the origin through the pixels of a view plane at z = -10.
+     *
+     * @param size the number of rays in a row and in a column
+     * @param x    the x of the first column
+     * @param y    the y of the first row
+     * @return the rays, row by row
+     */
+    private static Ray[] grid(int size, double x, double y) {
+        Ray[] rays = new Ray[size * size];
+        for (int i = 0; i < size; i++)
+            for (int j = 0; j < size; j++)
+                rays[i * size + j] = new Ray(Point.ZERO, new Vector(x + j, y - i, -10));
+        return rays;
+    }
+
+    /**
+     * Test method for {@link geometries.RayPacket#RayPacket(Ray[], int)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct packet
+        assertEquals(16, new RayPacket(grid(4, -2, 2), 4).size(), "Wrong number of rays");
+
+        // TC02: The rays don't fill whole rows
+        assertThrows(IllegalArgumentException.class, () -> new RayPacket(grid(4, -2, 2), 5), "Partial row");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Empty packet
+        assertThrows(IllegalArgumentException.class, () -> new RayPacket(new Ray[0], 1), "Empty packet");
+    }
+
+    /**
+     * Test method for {@link geometries.RayPacket#hasFrustum()}.
+     */
+    @Test
+    void testHasFrustum() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A grid of rays from a common head
+        assertTrue(new RayPacket(grid(4, -2, 2), 4).hasFrustum(), "Grid from a common head");
+
+        // TC02: Rays from different heads
+        Ray[] rays = grid(2, -1, 1);
+        rays[3] = new Ray(new Point(1, 0, 0), new Vector(0, 0, -1));
+        assertFalse(new RayPacket(rays, 2).hasFrustum(), "Rays from different heads");
+
+        // TC03: A ray outside the planes of the corner rays
+        rays = grid(3, -1, 1);
+        rays[4] = new Ray(Point.ZERO, new Vector(5, 0, -10));
+        assertFalse(new RayPacket(rays, 3).hasFrustum(), "Ray outside the corners");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: A single row has no frustum
+        assertFalse(new RayPacket(grid(4, -2, 2), 16).hasFrustum(), "Single row");
+    }
+
+    /**
+     * Test method for {@link geometries.RayPacket#culls(double[], int)}.
+     */
+    @Test
+    void testCulls() {
+        RayPacket packet = new RayPacket(grid(4, -2, 2), 4);
+        double[] boxes = new double[6];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Box in front of the packet
+        new BoundingBox(-1, -1, -20, 1, 1, -19).copyTo(boxes, 0);
+        assertFalse(packet.culls(boxes, 0), "Box inside the frustum");
+
+        // TC02: Box beside the packet
+        new BoundingBox(10, -1, -20, 12, 1, -19).copyTo(boxes, 0);
+        assertTrue(packet.culls(boxes, 0), "Box outside the frustum");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Box that contains the common head
+        new BoundingBox(-1, -1, -1, 1, 1, 1).copyTo(boxes, 0);
+        assertFalse(packet.culls(boxes, 0), "Box around the head");
+    }
+}
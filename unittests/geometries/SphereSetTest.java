@@ -0,0 +1,218 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the SphereSet class.
+ */
+class SphereSetTest {
+
+    /** The number of random spheres */
+    private static final int COUNT = 1000;
+    /** The coordinates of the random sphere centers */
+    private final double[] centers = new double[3 * COUNT];
+    /** The radii of the random spheres */
+    private final double[] radii = new double[COUNT];
+    /** The random spheres as separate geometries */
+    private final Sphere[] spheres = new Sphere[COUNT];
+
+    {
+        Random random = new Random(1640);
+        for (int i = 0; i < COUNT; i++) {
+            for (int k = 0; k < 3; k++)
+                centers[3 * i + k] = random.nextDouble() * 100 - 50;
+            radii[i] = 0.5 + random.nextDouble() * 2;
+            spheres[i] = new Sphere(new Point(centers[3 * i], centers[3 * i + 1], centers[3 * i + 2]), radii[i]);
+        }
+    }
+
+    /**
+     * Builds pseudo random rays through the spheres.
+     *
+     * @param count the number of rays
+     * @return the rays
+     */
+    private static Ray[] randomRays(int count) {
+        Random random = new Random(9917);
+        Ray[] rays = new Ray[count];
+        for (int i = 0; i < count; i++)
+            rays[i] = new Ray(new Point(0, 0, 100), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+        return rays;
+    }
+
+    /**
+     * Test method for {@link geometries.SphereSet#SphereSet(double[], double[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct set
+        assertEquals(COUNT, new SphereSet(centers, radii).size(), "Wrong number of spheres");
+
+        // TC02: Not positive radius
+        assertThrows(IllegalArgumentException.class, () -> new SphereSet(new double[]{0, 0, 0}, new double[]{0}),
+                "Zero radius");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Empty set
+        assertThrows(IllegalArgumentException.class, () -> new SphereSet(new double[0], new double[0]), "Empty set");
+
+        // TC04: Centers don't match the radii
+        assertThrows(IllegalArgumentException.class, () -> new SphereSet(new double[]{0, 0, 0, 1}, new double[]{1}),
+                "Wrong number of coordinates");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereSet#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Box of all the spheres
+        SphereSet set = new SphereSet(new double[]{0, 0, 0, 5, 0, 0}, new double[]{1, 2});
+        assertEquals(new Point(-1, -2, -2), set.getBoundingBox().getMin(), "Wrong minimal corner");
+        assertEquals(new Point(7, 2, 2), set.getBoundingBox().getMax(), "Wrong maximal corner");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereSet#findGeoIntersections(Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        SphereSet set = new SphereSet(centers, radii);
+        Geometries separate = new Geometries(spheres);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The set finds the same intersections as separate spheres
+        for (Ray ray : randomRays(500)) {
+            List<Point> expected = separate.findIntersections(ray);
+            List<Point> actual = set.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "Wrong number of intersections");
+        }
+
+        // TC02: The member geometry gives the normal of its sphere and the material of the set
+        set.setMaterial(new Material().setKd(0.5));
+        SphereSet pair = (SphereSet) new SphereSet(new double[]{0, 0, 0, 5, 0, 0}, new double[]{1, 2})
+                .setMaterial(set.getMaterial());
+        List<Intersectable.GeoPoint> result = pair.findGeoIntersections(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)));
+        assertEquals(List.of(new Point(-1, 0, 0), new Point(1, 0, 0), new Point(3, 0, 0), new Point(7, 0, 0)),
+                result.stream().map(gp -> gp.point).sorted((a, b) -> Double.compare(a.getX(), b.getX())).toList(),
+                "Wrong intersection points");
+        for (Intersectable.GeoPoint geoPoint : result) {
+            double x = geoPoint.point.getX();
+            assertEquals(new Vector(x == -1 || x == 3 ? -1 : 1, 0, 0), geoPoint.geometry.getNormal(geoPoint.point),
+                    "Wrong normal");
+            assertSame(set.getMaterial(), geoPoint.geometry.getMaterial(), "Member must use the set material");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Ray that starts inside a sphere finds only the far point
+        assertEquals(List.of(new Point(0, 0, 1)), pair.findIntersections(new Ray(new Point(0, 0, 0), new Vector(0, 0, 1))),
+                "Ray from inside a sphere");
+
+        // TC04: Only the points within the maximal distance are found
+        assertEquals(1, pair.findGeoIntersections(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), 4).size(),
+                "Points beyond the distance must be ignored");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereSet#intersect(Ray, Intersectable.HitRecord)}.
+     */
+    @Test
+    void testIntersect() {
+        SphereSet set = new SphereSet(centers, radii);
+        Geometries separate = new Geometries(spheres);
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The set finds the same closest intersections and normals as separate spheres
+        for (Ray ray : randomRays(500)) {
+            Intersectable.GeoPoint expected = separate.findClosestGeoIntersection(ray);
+            assertEquals(expected != null, set.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Wrong intersection result");
+            if (expected == null)
+                continue;
+            Intersectable.GeoPoint actual = hit.toGeoPoint();
+            assertEquals(expected.point, actual.point, "Wrong closest intersection");
+            assertEquals(expected.geometry.getNormal(expected.point), actual.geometry.getNormal(actual.point), "Wrong normal");
+            assertEquals(actual.point, set.findClosestGeoIntersection(ray).point, "Wrong closest intersection");
+        }
+
+        // TC02: The record holds the set and the index of the hit sphere, not a member of the set
+        SphereSet pair = new SphereSet(new double[]{0, 0, 0, 5, 0, 0}, new double[]{1, 2});
+        assertTrue(pair.intersect(new Ray(new Point(10, 0, 0), new Vector(-1, 0, 0)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Intersection not found");
+        assertSame(pair, hit.geometry, "The record must hold the set");
+        assertEquals(1, hit.part, "Wrong index of the hit sphere");
+        assertEquals(new Vector(1, 0, 0), hit.getGeometry().getNormal(hit.toGeoPoint().point), "Wrong normal of the member");
+    }
+
+    /**
+     * Test method for {@link geometries.SphereSet#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        SphereSet pair = new SphereSet(new double[]{0, 0, 0, 5, 0, 0}, new double[]{1, 2});
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Point on the first sphere
+        assertEquals(new Vector(-1, 0, 0), pair.getNormal(new Point(-1, 0, 0)), "Wrong normal of the first sphere");
+
+        // TC02: Point on the second sphere
+        assertEquals(new Vector(1, 0, 0), pair.getNormal(new Point(7, 0, 0)), "Wrong normal of the second sphere");
+
+        // TC03: Point off the set gets the normal of the sphere with the nearest surface
+        assertEquals(new Vector(0, 1, 0), pair.getNormal(new Point(5, 3, 0)), "Wrong normal of the nearest sphere");
+    }
+
+    /**
+     * Test method for the Vector API kernel of {@link geometries.SphereSet}, which is used only if the
+     * incubator module was added to the runtime.
+     */
+    @Test
+    void testKernel() {
+        assumeTrue(Intersectable.VECTOR_API, "The Vector API module is not added to the runtime");
+        Random random = new Random(9917);
+        double[] r2 = new double[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            r2[i] = radii[i] * radii[i];
+        double[] lanes = new double[2 * COUNT];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The kernel has exactly the results of the scalar calculation, including the remainder
+        // of a block that is not a whole number of vectors
+        for (int round = 0; round < 100; round++) {
+            double hx = random.nextDouble() * 100, hy = random.nextDouble() * 100, hz = random.nextDouble() * 100;
+            Vector d = new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, random.nextDouble() - 0.5).normalize();
+            double dx = d.getX(), dy = d.getY(), dz = d.getZ();
+            int from = random.nextInt(COUNT), to = from + random.nextInt(COUNT - from + 1);
+            SphereSetKernel.discriminants(lane(0), lane(1), lane(2), r2, from, to, hx, hy, hz, dx, dy, dz, lanes, COUNT);
+            for (int i = from, k = 0; i < to; i++, k++) {
+                double ux = centers[3 * i] - hx, uy = centers[3 * i + 1] - hy, uz = centers[3 * i + 2] - hz;
+                double tm = dx * ux + dy * uy + dz * uz;
+                assertEquals(tm, lanes[k], 0, "Wrong Tm value");
+                assertEquals(r2[i] - (ux * ux + uy * uy + uz * uz - tm * tm), lanes[COUNT + k], 0, "Wrong discriminant");
+            }
+        }
+    }
+
+    /**
+     * Returns a coordinate of the random sphere centers as a lane.
+     *
+     * @param axis the coordinate index
+     * @return the lane of the coordinate
+     */
+    private double[] lane(int axis) {
+        double[] lane = new double[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            lane[i] = centers[3 * i + axis];
+        return lane;
+    }
+}
@@ -144,4 +144,21 @@ class SphereTest {
                 sphere.findIntersections(new Ray(new Point(3, 0, 0), new Vector(0, 0, 1))),
                 "Ray orthogonal to ray head -> O line");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Sphere#setCenter(primitives.Point)}.
+     */
+    @Test
+    void testSetCenter() {
+        Sphere sphere = new Sphere(new Point(0, 0, 0), 1d);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The box and the intersections follow the new center
+        sphere.setCenter(new Point(5, 0, 0));
+        assertEquals(new Point(4, -1, -1), sphere.getBoundingBox().getMin(), "Wrong minimal corner");
+        assertEquals(new Point(6, 1, 1), sphere.getBoundingBox().getMax(), "Wrong maximal corner");
+        assertEquals(List.of(new Point(4, 0, 0), new Point(6, 0, 0)),
+                sphere.findIntersections(new Ray(new Point(0, 0, 0), new Vector(1, 0, 0))),
+                "Wrong intersections with a moved sphere");
+    }
+}
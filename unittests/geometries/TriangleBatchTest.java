@@ -0,0 +1,272 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the TriangleBatch class.
+ */
+class TriangleBatchTest {
+
+    /** The random triangles, in groups of a full batch */
+    private final Triangle[] triangles = new Triangle[TriangleBatch.MAX_SIZE * 100];
+
+    {
+        Random random = new Random(1640);
+        for (int i = 0; i < triangles.length; i++) {
+            Point p1 = new Point(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10);
+            triangles[i] = new Triangle(p1,
+                    p1.add(new Vector(random.nextDouble() * 8 + 1, random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1)),
+                    p1.add(new Vector(random.nextDouble() * 2 - 1, random.nextDouble() * 8 + 1, random.nextDouble() * 2 - 1)));
+        }
+    }
+
+    /**
+     * Returns a group of the random triangles.
+     *
+     * @param group the group index
+     * @return the triangles of the group
+     */
+    private Triangle[] group(int group) {
+        Triangle[] result = new Triangle[TriangleBatch.MAX_SIZE];
+        System.arraycopy(triangles, group * TriangleBatch.MAX_SIZE, result, 0, TriangleBatch.MAX_SIZE);
+        return result;
+    }
+
+    /**
+     * Builds pseudo random rays through the triangles.
+     *
+     * @param count the number of rays
+     * @return the rays
+     */
+    private static Ray[] randomRays(int count) {
+        Random random = new Random(9917);
+        Ray[] rays = new Ray[count];
+        for (int i = 0; i < count; i++)
+            rays[i] = new Ray(new Point(0, 0, 30), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+        return rays;
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleBatch#TriangleBatch(Triangle...)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct batch
+        assertEquals(TriangleBatch.MAX_SIZE, new TriangleBatch(group(0)).size(), "Wrong number of triangles");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: Empty batch
+        assertThrows(IllegalArgumentException.class, () -> new TriangleBatch(), "Empty batch");
+
+        // TC03: Too many triangles
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleBatch(new Triangle[TriangleBatch.MAX_SIZE + 1]), "Too many triangles");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleBatch#findGeoIntersections(Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        Triangle triangle1 = new Triangle(new Point(0, 0, 0), new Point(2, 0, 0), new Point(0, 2, 0));
+        Triangle triangle2 = new Triangle(new Point(0, 0, 1), new Point(2, 0, 1), new Point(0, 2, 1));
+        TriangleBatch pair = new TriangleBatch(triangle1, triangle2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The batch finds the same intersections as separate triangles
+        for (int group = 0; group < triangles.length / TriangleBatch.MAX_SIZE; group++) {
+            TriangleBatch batch = new TriangleBatch(group(group));
+            Geometries separate = new Geometries(group(group));
+            for (Ray ray : randomRays(20)) {
+                List<Point> expected = separate.findIntersections(ray);
+                List<Point> actual = batch.findIntersections(ray);
+                assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                        "Wrong number of intersections");
+            }
+        }
+
+        // TC02: The geometry of each point is its triangle
+        List<Intersectable.GeoPoint> result = pair.findGeoIntersections(new Ray(new Point(0.5, 0.5, -1), new Vector(0, 0, 1)));
+        assertEquals(2, result.size(), "Wrong number of intersections");
+        for (Intersectable.GeoPoint geoPoint : result)
+            assertSame(geoPoint.point.getZ() == 0 ? triangle1 : triangle2, geoPoint.geometry, "Wrong geometry");
+
+        // TC03: Ray misses all the triangles
+        assertNull(pair.findIntersections(new Ray(new Point(3, 3, -1), new Vector(0, 0, 1))), "Ray misses the batch");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Ray through an edge, like a single triangle
+        assertNull(pair.findIntersections(new Ray(new Point(1, 0, -1), new Vector(0, 0, 1))), "Ray through an edge");
+
+        // TC05: Ray parallel to the triangles
+        assertNull(pair.findIntersections(new Ray(new Point(-1, 0.5, 0.5), new Vector(1, 0, 0))), "Parallel ray");
+
+        // TC06: Only the points before the maximal distance are found
+        assertEquals(1, pair.findGeoIntersections(new Ray(new Point(0.5, 0.5, -1), new Vector(0, 0, 1)), 1.5).size(),
+                "Points beyond the distance must be ignored");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleBatch#intersect(Ray, Intersectable.HitRecord)}.
+     */
+    @Test
+    void testIntersect() {
+        Intersectable.HitRecord expected = new Intersectable.HitRecord();
+        Intersectable.HitRecord actual = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The batch finds the same closest intersections and barycentric coordinates as separate triangles
+        for (int group = 0; group < triangles.length / TriangleBatch.MAX_SIZE; group++) {
+            TriangleBatch batch = new TriangleBatch(group(group));
+            Geometries separate = new Geometries(group(group));
+            for (Ray ray : randomRays(20)) {
+                boolean found = separate.intersect(ray, expected.reset(Double.POSITIVE_INFINITY));
+                assertEquals(found, batch.intersect(ray, actual.reset(Double.POSITIVE_INFINITY)), "Wrong intersection result");
+                if (!found)
+                    continue;
+                assertSame(expected.geometry, actual.geometry, "Wrong triangle");
+                assertEquals(expected.t, actual.t, 1e-10, "Wrong distance");
+                assertEquals(expected.u, actual.u, 1e-10, "Wrong barycentric coordinate");
+                assertEquals(expected.v, actual.v, 1e-10, "Wrong barycentric coordinate");
+                assertEquals(actual.toGeoPoint().point, batch.findClosestGeoIntersection(ray).point, "Wrong closest intersection");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: A closer intersection in the record is kept
+        TriangleBatch batch = new TriangleBatch(new Triangle(new Point(0, 0, 0), new Point(2, 0, 0), new Point(0, 2, 0)));
+        Ray ray = new Ray(new Point(0.5, 0.5, -1), new Vector(0, 0, 1));
+        assertFalse(batch.intersect(ray, actual.reset(1)), "Intersection at the record distance must be ignored");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleBatch#findTransparency(Ray, double, double)}.
+     */
+    @Test
+    void testFindTransparency() {
+        Triangle near = new Triangle(new Point(0, 0, 0), new Point(2, 0, 0), new Point(0, 2, 0));
+        Triangle far = new Triangle(new Point(0, 0, 1), new Point(2, 0, 1), new Point(0, 2, 1));
+        near.setMaterial(new Material().setKT(0.5));
+        far.setMaterial(new Material().setKT(0.5));
+        TriangleBatch batch = new TriangleBatch(near, far);
+        Ray ray = new Ray(new Point(0.5, 0.5, -1), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The transparency of all the hit triangles
+        assertEquals(new Double3(0.25), batch.findTransparency(ray, 100, 0.001), "Wrong transparency");
+
+        // TC02: An opaque triangle blocks the ray
+        far.setMaterial(new Material());
+        assertEquals(Double3.ZERO, batch.findTransparency(ray, 100, 0.001), "An opaque triangle must block the ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Only the triangles before the maximal distance
+        assertEquals(new Double3(0.5), batch.findTransparency(ray, 1.5, 0.001), "Triangles beyond the distance must be ignored");
+    }
+
+    /**
+     * Test that a BVH of triangles, whose small sub-hierarchies are compiled into batches,
+     * finds the same closest intersections as the plain collection.
+     */
+    @Test
+    void testBVH() {
+        Geometries flat = new Geometries(triangles);
+        BVH bvh = new BVH(triangles).setBatching(true);
+        Intersectable.HitRecord expected = new Intersectable.HitRecord();
+        Intersectable.HitRecord actual = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Same closest intersections as the plain collection
+        for (Ray ray : randomRays(500)) {
+            boolean found = flat.intersect(ray, expected.reset(Double.POSITIVE_INFINITY));
+            assertEquals(found, bvh.intersect(ray, actual.reset(Double.POSITIVE_INFINITY)), "Wrong intersection result");
+            if (found)
+                assertSame(expected.geometry, actual.geometry, "Wrong triangle");
+            List<Point> points = flat.findIntersections(ray);
+            List<Point> bvhPoints = bvh.findIntersections(ray);
+            assertEquals(points == null ? 0 : points.size(), bvhPoints == null ? 0 : bvhPoints.size(),
+                    "Wrong number of intersections");
+        }
+
+        // TC02: A subclass of a triangle keeps its own intersections and is not batched
+        Triangle hidden = new Triangle(new Point(0, 0, 0), new Point(2, 0, 0), new Point(0, 2, 0)) {
+            @Override
+            protected boolean intersectHelper(Ray ray, HitRecord hit) {
+                return false;
+            }
+        };
+        BVH pair = new BVH(hidden, new Triangle(new Point(0, 0, 1), new Point(2, 0, 1), new Point(0, 2, 1)))
+                .setBatching(true);
+        Ray ray = new Ray(new Point(0.5, 0.5, -1), new Vector(0, 0, 1));
+        assertTrue(pair.intersect(ray, actual.reset(Double.POSITIVE_INFINITY)), "Ray must hit the plain triangle");
+        assertEquals(2, actual.t, 1e-10, "The subclass must not be intersected as a plain triangle");
+    }
+
+    /**
+     * Test method for the Vector API kernel of {@link geometries.TriangleBatch}, which is used only if the
+     * incubator module was added to the runtime.
+     */
+    @Test
+    void testKernel() {
+        assumeTrue(Intersectable.VECTOR_API, "The Vector API module is not added to the runtime");
+        int size = TriangleBatch.MAX_SIZE;
+        double[][] lanes = new double[10][size];
+        for (int i = 0; i < size; i++) {
+            Point p1 = triangles[i].vertices.get(0), p2 = triangles[i].vertices.get(1), p3 = triangles[i].vertices.get(2);
+            lanes[0][i] = p1.getX();
+            lanes[1][i] = p1.getY();
+            lanes[2][i] = p1.getZ();
+            lanes[3][i] = p2.getX() - p1.getX();
+            lanes[4][i] = p2.getY() - p1.getY();
+            lanes[5][i] = p2.getZ() - p1.getZ();
+            lanes[6][i] = p3.getX() - p1.getX();
+            lanes[7][i] = p3.getY() - p1.getY();
+            lanes[8][i] = p3.getZ() - p1.getZ();
+            lanes[9][i] = 1.0 / (i + 1);
+        }
+        double[] results = new double[4 * size];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The kernel has exactly the results of the scalar calculation, for batches of every size,
+        // and every hit triangle is a candidate
+        for (Ray ray : randomRays(100)) {
+            Point head = ray.getHead();
+            Vector direction = ray.getDirection();
+            double hx = head.getX(), hy = head.getY(), hz = head.getZ();
+            double vx = direction.getX(), vy = direction.getY(), vz = direction.getZ();
+            for (int count = 1; count <= size; count++) {
+                int candidates = TriangleBatchKernel.compute(count, lanes[0], lanes[1], lanes[2], lanes[3], lanes[4], lanes[5],
+                        lanes[6], lanes[7], lanes[8], lanes[9], hx, hy, hz, vx, vy, vz, results);
+                assertEquals(0, candidates >> count, "Only the triangles of the batch may be candidates");
+                for (int i = 0; i < count; i++) {
+                    double qx = vy * lanes[8][i] - vz * lanes[7][i];
+                    double qy = vz * lanes[6][i] - vx * lanes[8][i];
+                    double qz = vx * lanes[7][i] - vy * lanes[6][i];
+                    double det = lanes[3][i] * qx + lanes[4][i] * qy + lanes[5][i] * qz;
+                    double invDet = 1 / det;
+                    double tx = hx - lanes[0][i], ty = hy - lanes[1][i], tz = hz - lanes[2][i];
+                    double rx = ty * lanes[5][i] - tz * lanes[4][i];
+                    double ry = tz * lanes[3][i] - tx * lanes[5][i];
+                    double rz = tx * lanes[4][i] - ty * lanes[3][i];
+                    double u = (tx * qx + ty * qy + tz * qz) * invDet;
+                    double v = (vx * rx + vy * ry + vz * rz) * invDet;
+                    double t = (lanes[6][i] * rx + lanes[7][i] * ry + lanes[8][i] * rz) * invDet;
+                    assertEquals(det * lanes[9][i], results[i], 0, "Wrong determinant");
+                    assertEquals(u, results[size + i], 0, "Wrong u");
+                    assertEquals(v, results[2 * size + i], 0, "Wrong v");
+                    assertEquals(t, results[3 * size + i], 0, "Wrong distance");
+                    if (u > 0 && v > 0 && u + v < 1 && t > 0)
+                        assertEquals(1, candidates >> i & 1, "A hit triangle must be a candidate");
+                }
+            }
+        }
+    }
+}
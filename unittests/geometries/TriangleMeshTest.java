@@ -0,0 +1,182 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TriangleMesh class.
+ */
+class TriangleMeshTest {
+
+    /** A unit square in the xy plane, made of two triangles sharing the diagonal from (0,0,0) to (1,1,0) */
+    private final TriangleMesh square = new TriangleMesh(
+            new double[]{0, 0, 0, 1, 0, 0, 1, 1, 0, 0, 1, 0},
+            new int[]{0, 1, 2, 0, 2, 3});
+
+    /**
+     * Builds a height field mesh of size x size quads over [0, size] x [0, size].
+     *
+     * @param size the number of quads along each axis
+     * @return the coordinates and indices of the height field
+     */
+    private static Object[] heightField(int size) {
+        Random random = new Random(9917);
+        double[] vertices = new double[3 * (size + 1) * (size + 1)];
+        for (int j = 0, k = 0; j <= size; j++)
+            for (int i = 0; i <= size; i++) {
+                vertices[k++] = i;
+                vertices[k++] = j;
+                vertices[k++] = random.nextDouble() * 2;
+            }
+        int[] indices = new int[6 * size * size];
+        for (int j = 0, k = 0; j < size; j++)
+            for (int i = 0; i < size; i++) {
+                int corner = j * (size + 1) + i;
+                indices[k++] = corner;
+                indices[k++] = corner + 1;
+                indices[k++] = corner + size + 2;
+                indices[k++] = corner;
+                indices[k++] = corner + size + 2;
+                indices[k++] = corner + size + 1;
+            }
+        return new Object[]{vertices, indices};
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Correct mesh
+        assertEquals(2, square.getTriangleCount(), "Wrong number of triangles");
+
+        // TC02: Index out of the vertices range
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 3}),
+                "Index out of range");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: No triangles
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0}, new int[0]), "Mesh without triangles");
+
+        // TC04: Indices that are not triples
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1}),
+                "Incomplete triangle");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Box of all the vertices
+        BoundingBox box = square.getBoundingBox();
+        assertEquals(new Point(0, 0, 0), box.getMin(), "Wrong minimal corner");
+        assertEquals(new Point(1, 1, 0), box.getMax(), "Wrong maximal corner");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        // two faces of a tetrahedron corner: one in the xy plane and one in the yz plane
+        TriangleMesh corner = new TriangleMesh(
+                new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1},
+                new int[]{0, 1, 2, 0, 2, 3});
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Point on the first triangle
+        assertEquals(new Vector(0, 0, 1), corner.getNormal(new Point(0.2, 0.2, 0)), "Wrong normal of the first triangle");
+
+        // TC02: Point on the second triangle
+        assertEquals(new Vector(1, 0, 0), corner.getNormal(new Point(0, 0.2, 0.2)), "Wrong normal of the second triangle");
+
+        // TC03: Point off the mesh gets the normal of the nearest triangle
+        assertEquals(new Vector(1, 0, 0), corner.getNormal(new Point(0.2, 0.2, 0.5)), "Wrong normal of the nearest triangle");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findGeoIntersections(Ray)}.
+     */
+    @Test
+    void testFindGeoIntersections() {
+        square.setMaterial(new Material().setKd(0.5));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Inside a triangle, the face gives the normal and the mesh material
+        List<Intersectable.GeoPoint> result = square.findGeoIntersections(new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1)));
+        assertEquals(1, result.size(), "Wrong number of points");
+        assertEquals(new Point(0.75, 0.25, 0), result.get(0).point, "Wrong intersection point");
+        assertEquals(new Vector(0, 0, 1), result.get(0).geometry.getNormal(result.get(0).point), "Wrong normal");
+        assertSame(square.getMaterial(), result.get(0).geometry.getMaterial(), "Face must use the mesh material");
+
+        // TC02: Ray outside the mesh
+        assertNull(square.findGeoIntersections(new Ray(new Point(2, 2, 1), new Vector(0, 0, -1))), "Ray out of the mesh");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Ray through the edge shared by both triangles hits the mesh
+        result = square.findGeoIntersections(new Ray(new Point(0.5, 0.5, 1), new Vector(0, 0, -1)));
+        assertNotNull(result, "Ray through a shared edge must not slip through the mesh");
+        assertEquals(new Point(0.5, 0.5, 0), result.get(0).point, "Wrong intersection point");
+
+        // TC04: Ray parallel to the mesh
+        assertNull(square.findGeoIntersections(new Ray(new Point(-1, 0.5, 0), new Vector(1, 0, 0))), "Parallel ray");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#intersect(Ray, Intersectable.HitRecord)}.
+     */
+    @Test
+    void testIntersect() {
+        Object[] field = heightField(20);
+        double[] vertices = (double[]) field[0];
+        int[] indices = (int[]) field[1];
+        TriangleMesh mesh = new TriangleMesh(vertices, indices);
+        Geometries triangles = new Geometries();
+        for (int i = 0; i < indices.length; i += 3)
+            triangles.add(new Triangle(
+                    new Point(vertices[3 * indices[i]], vertices[3 * indices[i] + 1], vertices[3 * indices[i] + 2]),
+                    new Point(vertices[3 * indices[i + 1]], vertices[3 * indices[i + 1] + 1], vertices[3 * indices[i + 1] + 2]),
+                    new Point(vertices[3 * indices[i + 2]], vertices[3 * indices[i + 2] + 1], vertices[3 * indices[i + 2] + 2])));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The mesh finds the same closest intersections as separate triangles
+        Random random = new Random(5784);
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+        for (int i = 0; i < 500; i++) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 20, random.nextDouble() * 20, 10),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            Intersectable.GeoPoint expected = triangles.findClosestGeoIntersection(ray);
+            boolean found = mesh.intersect(ray, hit.reset(Double.POSITIVE_INFINITY));
+            if (expected == null)
+                continue; // the ray may hit an edge, which only the mesh counts
+            assertTrue(found, "Intersection not found");
+            Intersectable.GeoPoint actual = hit.toGeoPoint();
+            assertEquals(expected.point, actual.point, "Wrong closest intersection");
+            assertEquals(expected.geometry.getNormal(expected.point), actual.geometry.getNormal(actual.point),
+                    "Wrong normal");
+            assertEquals(actual.point, mesh.findClosestGeoIntersection(ray).point, "Wrong closest intersection");
+        }
+
+        // TC02: Barycentric coordinates of the hit point
+        assertTrue(square.intersect(new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1)),
+                hit.reset(Double.POSITIVE_INFINITY)), "Intersection not found");
+        assertEquals(0.5, hit.u, 1e-10, "Wrong barycentric coordinate of the second vertex");
+        assertEquals(0.25, hit.v, 1e-10, "Wrong barycentric coordinate of the third vertex");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: Intersection beyond the closest hit found so far
+        assertFalse(square.intersect(new Ray(new Point(0.75, 0.25, 1), new Vector(0, 0, -1)), hit.reset(1)),
+                "Farther intersection must be ignored");
+    }
+}
@@ -82,4 +82,50 @@ class TriangleTest {
         assertNull(triangle.findIntersections(new Ray(new Point(0, -6, -4), new Vector(0, 10, 5)))
                 ,"Point on edge's continuation");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Triangle#intersect(Ray, Intersectable.HitRecord)}.
+     */
+    @Test
+    void testIntersect() {
+        Triangle triangle = new Triangle(new Point(0, 0, 1), new Point(1, 0, 0), new Point(0, 1, 0));
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Inside triangle, the hit has the distance and the barycentric coordinates
+        assertTrue(triangle.intersect(new Ray(new Point(1, 1, 1), new Vector(-1, -1, -1)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Intersection not found");
+        assertEquals(new Point(1d / 3, 1d / 3, 1d / 3), hit.toGeoPoint().point, "Wrong intersection point");
+        assertEquals(2 / Math.sqrt(3), hit.t, 1e-10, "Wrong intersection distance");
+        assertEquals(1d / 3, hit.u, 1e-10, "Wrong barycentric coordinate of the second vertex");
+        assertEquals(1d / 3, hit.v, 1e-10, "Wrong barycentric coordinate of the third vertex");
+
+        // TC02: Ray from the other side of the triangle
+        assertTrue(triangle.intersect(new Ray(new Point(0, 0, 0), new Vector(1, 2, 1)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Intersection not found");
+        assertEquals(new Point(0.25, 0.5, 0.25), hit.toGeoPoint().point, "Wrong intersection point");
+        assertEquals(0.25, hit.u, 1e-10, "Wrong barycentric coordinate of the second vertex");
+        assertEquals(0.5, hit.v, 1e-10, "Wrong barycentric coordinate of the third vertex");
+
+        // TC03: Intersection beyond the closest hit found so far
+        assertFalse(triangle.intersect(new Ray(new Point(1, 1, 1), new Vector(-1, -1, -1)), hit.reset(1)),
+                "Farther intersection must be ignored");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Ray parallel to the triangle
+        assertFalse(triangle.intersect(new Ray(new Point(0, 0, 2), new Vector(1, -1, 0)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Parallel ray");
+
+        // TC05: Point on edge
+        assertFalse(triangle.intersect(new Ray(new Point(0, -6, 0.5), new Vector(-0.5, 10, -0.5)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Point on edge");
+
+        // TC06: A tiny triangle hit at a slant angle (the determinant is below the accuracy,
+        // but the cosine of the angle between the ray and the normal is 0.2)
+        Triangle tiny = new Triangle(new Point(0, 0, 0), new Point(2e-6, 0, 0), new Point(0, 2e-6, 0));
+        assertTrue(tiny.intersect(new Ray(new Point(5e-7, 5e-7 - Math.sqrt(24), 1), new Vector(0, Math.sqrt(24), -1)),
+                        hit.reset(Double.POSITIVE_INFINITY)),
+                "Intersection with a tiny triangle not found");
+        assertEquals(5, hit.t, 1e-10, "Wrong intersection distance");
+    }
+}
@@ -3,6 +3,8 @@ package geometries;
 import org.junit.jupiter.api.Test;
 import primitives.*;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -48,5 +50,40 @@ class TubeTest {
      */
     @Test
     void testFindIntersections() {
+        Tube tube = new Tube(1.0, new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)));
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray crosses the tube (2 points)
+        assertEquals(List.of(new Point(-1, 0, 2), new Point(1, 0, 2)),
+                tube.findIntersections(new Ray(new Point(-3, 0, 2), new Vector(1, 0, 0))), "Ray crosses the tube");
+        assertTrue(tube.intersect(new Ray(new Point(-3, 0, 2), new Vector(1, 0, 0)), hit.reset(Double.POSITIVE_INFINITY)),
+                "Intersection not found");
+        assertEquals(new Point(-1, 0, 2), hit.toGeoPoint().point, "Wrong closest intersection");
+
+        // TC02: Slanted ray starts inside the tube (1 point)
+        assertEquals(List.of(new Point(1, 0, 6)),
+                tube.findIntersections(new Ray(new Point(0, 0, 5), new Vector(1, 0, 1))), "Ray from inside the tube");
+
+        // TC03: Ray misses the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(-3, 2, 2), new Vector(1, 0, 0))), "Ray misses the tube");
+
+        // TC04: Tube behind the ray (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(3, 0, 2), new Vector(1, 0, 0))), "Tube behind the ray");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: Ray parallel to the axis (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(0.5, 0, 0), new Vector(0, 0, 1))), "Ray parallel to the axis");
+
+        // TC11: Ray tangent to the tube (0 points)
+        assertNull(tube.findIntersections(new Ray(new Point(-3, 1, 2), new Vector(1, 0, 0))), "Tangent ray");
+
+        // TC12: Ray starts on the tube and goes inside (1 point)
+        assertEquals(List.of(new Point(1, 0, 2)),
+                tube.findIntersections(new Ray(new Point(-1, 0, 2), new Vector(1, 0, 0))), "Ray from the surface");
+
+        // TC13: Only the points up to the max distance are found
+        assertEquals(1, tube.findGeoIntersections(new Ray(new Point(-3, 0, 2), new Vector(1, 0, 0)), 2).size(),
+                "Points beyond the distance must be ignored");
     }
 }
\ No newline at end of file
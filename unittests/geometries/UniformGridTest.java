@@ -0,0 +1,155 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the UniformGrid class.
+ */
+class UniformGridTest {
+
+    /**
+     * Builds a pseudo random set of spheres and triangles.
+     *
+     * @param count the number of geometries to create
+     * @return the created geometries
+     */
+    private static Intersectable[] randomGeometries(int count) {
+        Random random = new Random(5784);
+        Intersectable[] result = new Intersectable[count];
+        for (int i = 0; i < count; i++) {
+            Point p = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50);
+            result[i] = i % 2 == 0
+                    ? new Sphere(p, 0.5 + random.nextDouble() * 3)
+                    : new Triangle(p, p.add(new Vector(2 + random.nextDouble(), 0, 1)), p.add(new Vector(0, 2 + random.nextDouble(), 1)));
+        }
+        return result;
+    }
+
+    /**
+     * Test method for {@link geometries.UniformGrid#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Box of bounded geometries
+        UniformGrid grid = new UniformGrid(new Sphere(new Point(0, 0, 0), 1d), new Sphere(new Point(5, 0, 0), 2d));
+        BoundingBox box = grid.getBoundingBox();
+        assertEquals(new Point(-1, -2, -2), box.getMin(), "Wrong minimal corner");
+        assertEquals(new Point(7, 2, 2), box.getMax(), "Wrong maximal corner");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: An unbounded geometry makes the whole collection unbounded
+        grid.add(new Plane(new Point(0, 0, -5), new Vector(0, 0, 1)));
+        assertNull(grid.getBoundingBox(), "Collection with a plane must be unbounded");
+    }
+
+    /**
+     * Test method for {@link geometries.UniformGrid#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Intersectable[] shapes = randomGeometries(500);
+        Geometries geometries = new Geometries(shapes);
+        UniformGrid grid = new UniformGrid(geometries);
+        Plane plane = new Plane(new Point(0, 0, -60), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The grid finds exactly the intersections of a flat collection
+        Random random = new Random(1640);
+        Intersectable.HitRecord hit = new Intersectable.HitRecord();
+        for (int i = 0; i < 1000; i++) {
+            Ray ray = new Ray(new Point(0, 0, 100),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            List<Point> expected = geometries.findIntersections(ray);
+            List<Point> actual = grid.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "Wrong number of intersections");
+            if (expected != null) {
+                assertEquals(ray.findClosestPoint(expected), ray.findClosestPoint(actual), "Wrong closest intersection");
+                assertEquals(ray.findClosestPoint(expected), grid.findClosestGeoIntersection(ray).point,
+                        "Wrong closest intersection");
+                assertTrue(grid.intersect(ray, hit.reset(Double.POSITIVE_INFINITY)), "Intersection not found");
+                assertEquals(ray.findClosestPoint(expected), hit.toGeoPoint().point, "Wrong closest intersection");
+            } else
+                assertNull(grid.findClosestGeoIntersection(ray), "Ray without intersections");
+        }
+
+        // TC02: Geometries added after the first query are found
+        grid.add(plane);
+        assertEquals(List.of(new Point(0, 0, -60)),
+                grid.findIntersections(new Ray(new Point(0, 0, -55), new Vector(0, 0, -1))),
+                "Added plane was not found");
+
+        // TC03: A geometry that overlaps many cells is tested once per ray
+        UniformGrid large = new UniformGrid(randomGeometries(100));
+        large.add(new Sphere(new Point(200, 0, 0), 40d));
+        assertEquals(List.of(new Point(200, 0, 40), new Point(200, 0, -40)),
+                large.findIntersections(new Ray(new Point(200, 0, 100), new Vector(0, 0, -1))),
+                "Wrong intersections with a geometry in many cells");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Ray that misses the whole grid
+        assertNull(grid.findIntersections(new Ray(new Point(0, 0, 100), new Vector(0, 0, 1))),
+                "Ray out of the grid");
+
+        // TC05: Empty grid
+        assertNull(new UniformGrid().findIntersections(new Ray(new Point(0, 0, 0), new Vector(1, 0, 0))),
+                "empty grid");
+    }
+
+    /**
+     * Test method for {@link geometries.UniformGrid#refit()}.
+     */
+    @Test
+    void testRefit() throws InterruptedException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A moved geometry is found where it moved to after the refit
+        Sphere sphere = new Sphere(new Point(0, 0, 0), 1d);
+        UniformGrid grid = new UniformGrid(randomGeometries(100));
+        grid.add(sphere);
+        Ray ray = new Ray(new Point(300, 0, 100), new Vector(0, 0, -1));
+        assertNull(grid.findIntersections(ray), "Ray out of the grid");
+        sphere.setCenter(new Point(300, 0, 0));
+        assertTrue(grid.refit(), "A refit of a grid builds it again");
+        assertEquals(List.of(new Point(300, 0, 1), new Point(300, 0, -1)), grid.findIntersections(ray),
+                "Moved sphere was not found");
+
+        // TC02: Queries running while the grid is built again see a whole grid
+        Intersectable[] shapes = randomGeometries(500);
+        Geometries geometries = new Geometries(shapes);
+        UniformGrid shared = new UniformGrid(shapes);
+        Ray[] rays = new Ray[200];
+        List<List<Point>> expected = new ArrayList<>();
+        Random random = new Random(2024);
+        for (int i = 0; i < rays.length; i++) {
+            rays[i] = new Ray(new Point(0, 0, 100), new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            expected.add(geometries.findIntersections(rays[i]));
+        }
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] workers = new Thread[4];
+        for (int w = 0; w < workers.length; w++) {
+            workers[w] = new Thread(() -> {
+                for (int round = 0; round < 20; round++)
+                    for (int i = 0; i < rays.length; i++) {
+                        List<Point> actual = shared.findIntersections(rays[i]);
+                        if ((expected.get(i) == null ? 0 : expected.get(i).size()) != (actual == null ? 0 : actual.size()))
+                            failures.incrementAndGet();
+                    }
+            });
+            workers[w].start();
+        }
+        for (int i = 0; i < 50; i++)
+            shared.refit();
+        for (Thread worker : workers)
+            worker.join();
+        assertEquals(0, failures.get(), "Wrong intersections while the grid was built again");
+    }
+}
@@ -0,0 +1,47 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ColorAccumulator class.
+ */
+class ColorAccumulatorTest {
+
+    /** A color */
+    private final Color color = new Color(100, 40, 3);
+    /** Factors of the color components */
+    private final Double3 k1 = new Double3(0.5, 0.25, 0.1), k2 = new Double3(0.3, 0.7, 0.9);
+
+    /**
+     * Test method for the add methods of {@link primitives.ColorAccumulator}.
+     */
+    @Test
+    void testAdd() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The sum of scaled colors is the same as adding immutable scaled colors
+        Color expected = new Color(7, 8, 9).add(color, color.scale(0.3), color.scale(k1), color.scale(k1).scale(k2));
+        Color actual = new ColorAccumulator(new Color(7, 8, 9))
+                .add(color).add(color, 0.3).add(color, k1).add(color, k1, k2).toColor();
+        assertEquals(expected.toString(), actual.toString(), "Wrong sum of colors");
+
+        // TC02: A sum of triads of values
+        assertEquals(k1.add(k2), new ColorAccumulator().add(k1).add(k2).toDouble3(), "Wrong sum of values");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: An empty sum is black
+        assertEquals(Color.BLACK.toString(), new ColorAccumulator().toColor().toString(), "Empty sum must be black");
+    }
+
+    /**
+     * Test method for {@link primitives.ColorAccumulator#toColor()}.
+     */
+    @Test
+    void testToColor() {
+        // =============== Boundary Values Tests ==================
+        // TC11: A negative sum is not a color
+        ColorAccumulator sum = new ColorAccumulator().add(color, -1);
+        assertThrows(IllegalArgumentException.class, sum::toColor, "Negative sum must not be converted to a color");
+    }
+}
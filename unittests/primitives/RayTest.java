@@ -56,4 +56,47 @@ class RayTest {
         assertEquals(new Point(2, 1, 1), ray.findClosestPoint(points),
                 "The closest point is not found correctly");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link primitives.Ray#Ray(Point, Vector, boolean)}.
+     */
+    @Test
+    void testUnitConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: A unit direction is used as is
+        Vector unit = new Vector(0, 0.6, -0.8);
+        assertSame(unit, new Ray(Point.ZERO, unit, true).getDirection(), "Unit direction must not be copied");
+
+        // TC02: A direction that is not known to be a unit vector is normalized
+        assertEquals(unit, new Ray(Point.ZERO, new Vector(0, 3, -4), false).getDirection(), "Direction not normalized");
+
+        // TC03: The ray moved off a surface is the same as with a direction that is normalized
+        Vector normal = new Vector(0, 0, 1);
+        assertEquals(new Ray(new Point(1, 2, 3), new Vector(0, 3, -4), normal),
+                new Ray(new Point(1, 2, 3), unit, normal, true), "Wrong moved ray");
+    }
+
+    /**
+     * Test method for {@link primitives.Ray#getInvX()}, {@link primitives.Ray#getInvY()},
+     * {@link primitives.Ray#getInvZ()} and {@link primitives.Ray#getOctant()}.
+     */
+    @Test
+    void testInverseDirection() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Direction with components of both signs
+        Ray ray = new Ray(Point.ZERO, new Vector(2, -3, 6));
+        assertEquals(7 / 2d, ray.getInvX(), 1e-12, "Wrong inverse x");
+        assertEquals(-7 / 3d, ray.getInvY(), 1e-12, "Wrong inverse y");
+        assertEquals(7 / 6d, ray.getInvZ(), 1e-12, "Wrong inverse z");
+        assertEquals(2, ray.getOctant(), "Wrong octant");
+
+        // TC02: All the components are negative
+        assertEquals(7, new Ray(Point.ZERO, new Vector(-1, -1, -1)).getOctant(), "Wrong octant");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: A zero component has an infinite inverse
+        ray = new Ray(Point.ZERO, new Vector(1, 0, 0));
+        assertEquals(Double.POSITIVE_INFINITY, ray.getInvY(), "Zero component must have an infinite inverse");
+        assertEquals(0, ray.getOctant(), "Wrong octant");
+    }
+}
@@ -0,0 +1,81 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link primitives.Transform} class.
+ */
+class TransformTest {
+
+    /**
+     * Test method for {@link primitives.Transform#applyToPoint(primitives.Point)}.
+     */
+    @Test
+    void testApplyToPoint() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Translation
+        assertEquals(new Point(2, 3, 4), Transform.translation(new Vector(1, 1, 1)).applyToPoint(new Point(1, 2, 3)),
+                "Wrong translated point");
+        // TC02: Rotation of 90 degrees around the z axis
+        assertEquals(new Point(-2, 1, 3), Transform.rotation(new Vector(0, 0, 1), 90).applyToPoint(new Point(1, 2, 3)),
+                "Wrong rotated point");
+        // TC03: Scaling and then translation
+        Transform transform = Transform.scaling(2, 3, 4).then(Transform.translation(new Vector(1, 0, 0)));
+        assertEquals(new Point(3, 6, 12), transform.applyToPoint(new Point(1, 2, 3)), "Wrong combined transformation");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: Identity
+        assertEquals(new Point(1, 2, 3), Transform.IDENTITY.applyToPoint(new Point(1, 2, 3)), "Identity must not move points");
+        // TC05: Zero scale factor
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1), "Zero scale factor");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#applyInverseToPoint(primitives.Point)}.
+     */
+    @Test
+    void testApplyInverseToPoint() {
+        Transform transform = Transform.rotation(new Vector(1, 1, 0), 30)
+                .then(Transform.scaling(2, 3, 4))
+                .then(Transform.translation(new Vector(-1, 5, 2)));
+        Point point = new Point(1, 2, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The inverse transformation returns the original point
+        assertEquals(point, transform.applyInverseToPoint(transform.applyToPoint(point)), "Wrong inverse transformation");
+        // TC02: The inverse object is the same transformation
+        assertEquals(transform.applyInverseToPoint(point), transform.inverse().applyToPoint(point), "Wrong inverse object");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#applyToVector(primitives.Vector)}.
+     */
+    @Test
+    void testApplyToVector() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Vectors are not translated
+        Transform transform = Transform.scaling(2).then(Transform.translation(new Vector(5, 5, 5)));
+        assertEquals(new Vector(2, 4, 6), transform.applyToVector(new Vector(1, 2, 3)), "Wrong transformed vector");
+        assertEquals(new Vector(1, 2, 3), transform.applyInverseToVector(new Vector(2, 4, 6)), "Wrong inverse vector");
+    }
+
+    /**
+     * Test method for {@link primitives.Transform#applyToNormal(primitives.Vector)}.
+     */
+    @Test
+    void testApplyToNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Non-uniform scaling keeps the normal perpendicular to the surface
+        Transform transform = Transform.scaling(1, 2, 1);
+        Vector tangent = transform.applyToVector(new Vector(1, -1, 0));
+        Vector normal = transform.applyToNormal(new Vector(1, 1, 0));
+        assertEquals(0, normal.dotProduct(tangent), 1e-10, "Normal must stay perpendicular to the surface");
+        assertEquals(1, normal.length(), 1e-10, "Normal must be normalized");
+
+        // TC02: Rotation rotates the normal
+        assertEquals(new Vector(0, 1, 0), Transform.rotation(new Vector(0, 0, 1), 90).applyToNormal(new Vector(1, 0, 0)),
+                "Wrong rotated normal");
+    }
+}
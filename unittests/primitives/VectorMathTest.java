@@ -0,0 +1,51 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the VectorMath class.
+ */
+class VectorMathTest {
+
+    /** A unit vector */
+    private final Vector v = new Vector(1, 2, -2).normalize();
+    /** A unit normal */
+    private final Vector n = new Vector(0, 0.6, 0.8);
+    /** Two points */
+    private final Point p1 = new Point(1, 2, 3), p2 = new Point(-2, 0.5, 4);
+
+    /**
+     * Test method for the operations of {@link primitives.VectorMath} that have a validated counterpart.
+     */
+    @Test
+    void testSameAsValidated() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Every operation has the exact result of the validated chain of calls
+        assertEquals(new Vector(1, -2, 3), VectorMath.vector(1, -2, 3), "Wrong vector");
+        assertEquals(new Vector(3, 4, 12).normalize(), VectorMath.unit(3, 4, 12), "Wrong unit vector");
+        assertEquals(p1.subtract(p2), VectorMath.difference(p1, p2), "Wrong difference");
+        assertEquals(p1.subtract(p2).normalize(), VectorMath.unitDifference(p1, p2), "Wrong unit difference");
+        assertEquals(n.dotProduct(p1.subtract(p2)), VectorMath.dotDifference(n, p1, p2), 0, "Wrong dot product");
+        assertEquals(p1.add(v.scale(2.5)), VectorMath.moved(p1, v, 2.5), "Wrong moved point");
+        double vn = v.dotProduct(n);
+        assertEquals(v.subtract(n.scale(2 * vn)).normalize(), VectorMath.reflect(v, n, vn), "Wrong reflection");
+        assertEquals(v.scale(-1), VectorMath.negate(v), "Wrong opposite vector");
+    }
+
+    /**
+     * Test method for {@link primitives.VectorMath#difference(Point, Point)} and
+     * {@link primitives.VectorMath#dotDifference(Vector, Point, Point)}.
+     */
+    @Test
+    void testEqualPoints() {
+        // =============== Boundary Values Tests ==================
+        // TC11: The difference of equal points does not throw, unlike the validated subtraction
+        assertThrows(IllegalArgumentException.class, () -> p1.subtract(p1), "Validated subtraction must throw");
+        assertEquals(0, VectorMath.difference(p1, p1).lengthSquared(), "Difference of equal points");
+
+        // TC12: The dot product with the difference of equal points is zero
+        assertEquals(0, VectorMath.dotDifference(n, p1, p1), "Dot product with the difference of equal points");
+    }
+}
@@ -7,6 +7,9 @@ import org.junit.jupiter.api.Test;
 import primitives.*;
 import renderer.*;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 /**
  * Testing Camera Class
@@ -65,4 +68,68 @@ class CameraTest {
 
     }
 
+    /**
+     * Test method for {@link renderer.Camera#renderImage()}.
+     */
+    @Test
+    void testRenderImage() throws CloneNotSupportedException {
+        AtomicInteger counter = new AtomicInteger();
+        RayTracerBase countingTracer = new RayTracerBase(new scene.Scene("Test")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                counter.incrementAndGet();
+                return Color.BLACK;
+            }
+
+            @Override
+            public Color traceBeamRay(List<Ray> rays) {
+                return traceRay(rays.get(0));
+            }
+        };
+        cameraBuilder.setVpSize(8, 8).setRayTracer(countingTracer);
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: Every pixel is traced once without threads
+        cameraBuilder.setImageWriter(new ImageWriter("Test", 37, 23)).build().renderImage();
+        assertEquals(37 * 23, counter.get(), "Wrong number of traced pixels");
+
+        // EP02: Every pixel is traced once with threads and partial tiles at the edges
+        counter.set(0);
+        cameraBuilder.setCountThread(3).setTileSize(8).build().renderImage();
+        assertEquals(37 * 23, counter.get(), "Wrong number of traced pixels");
+
+        // EP03: A shared render executor is reused by several cameras and frames
+        counter.set(0);
+        try (RenderExecutor executor = new RenderExecutor(2)) {
+            Camera camera3 = cameraBuilder.setRenderExecutor(executor).build();
+            Camera camera4 = cameraBuilder.setImageWriter(new ImageWriter("Test", 10, 10)).build();
+            camera3.renderImage();
+            camera4.renderImage();
+            camera3.renderImage();
+        }
+        assertEquals(2 * 37 * 23 + 10 * 10, counter.get(), "Wrong number of traced pixels");
+        cameraBuilder.setRenderExecutor(null).setImageWriter(new ImageWriter("Test", 37, 23));
+
+        // EP04: Every pixel is traced once on virtual threads
+        counter.set(0);
+        cameraBuilder.setVirtualThreads(true).build().renderImage();
+        assertEquals(37 * 23, counter.get(), "Wrong number of traced pixels");
+        cameraBuilder.setVirtualThreads(false);
+
+        // EP05: Every pixel is traced once in packets, without threads and in tiles
+        counter.set(0);
+        cameraBuilder.setCountThread(0).setPacketSize(8).build().renderImage();
+        assertEquals(37 * 23, counter.get(), "Wrong number of traced pixels");
+        counter.set(0);
+        cameraBuilder.setCountThread(3).setTileSize(12).build().renderImage();
+        assertEquals(37 * 23, counter.get(), "Wrong number of traced pixels");
+        cameraBuilder.setPacketSize(0).setTileSize(8);
+
+        // =============== Boundary Values Tests ==================
+        // BV01: A single tile bigger than the image
+        counter.set(0);
+        cameraBuilder.setTileSize(64).build().renderImage();
+        assertEquals(37 * 23, counter.get(), "Wrong number of traced pixels");
+    }
+
 }
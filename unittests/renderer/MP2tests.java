@@ -283,4 +283,34 @@ public class MP2tests {
         long durationHours = TimeUnit.MILLISECONDS.toHours(durationMillis); // המרת מילישניות לשעות
         System.out.println("Runtime with two improvements: " + durationHours + " hours and " + (durationMinutes % 60) + " minutes");
     }
-}
\ No newline at end of file
+
+    /**
+     * Benchmark that renders the scene with the tiles on platform threads (countThread)
+     * and then on virtual threads, and prints the runtime of both modes.
+     */
+    @Test
+    public void megaTest2_platform_vs_virtual_threads() throws CloneNotSupportedException {
+        cameraBuilder
+                .setRayTracer((new SimpleRayTracer(scene)))
+                .setLocation(new Point(0, 0, 1000))
+                .setVpDistance(1000)
+                .setVpSize(200, 200);
+
+        long startTime = System.currentTimeMillis();
+        cameraBuilder
+                .setCountThread(Runtime.getRuntime().availableProcessors())
+                .setImageWriter(new ImageWriter("image_MP2_platform_threads", 1000, 1000))
+                .build().renderImage().writeToImage();
+        long platformMillis = System.currentTimeMillis() - startTime;
+
+        startTime = System.currentTimeMillis();
+        cameraBuilder
+                .setVirtualThreads(true)
+                .setImageWriter(new ImageWriter("image_MP2_virtual_threads", 1000, 1000))
+                .build().renderImage().writeToImage();
+        long virtualMillis = System.currentTimeMillis() - startTime;
+
+        System.out.println("Runtime with platform threads: " + platformMillis + " ms");
+        System.out.println("Runtime with virtual threads: " + virtualMillis + " ms");
+    }
+}
@@ -0,0 +1,149 @@
+package renderer;
+
+import geometries.RayPacket;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SimpleRayTracer class.
+ */
+class SimpleRayTracerTest {
+    /** The number of pixels along each side of the image */
+    private static final int SIZE = 96;
+    /** The number of pixels along each side of a packet */
+    private static final int PACKET = 8;
+
+    /** A scene with reflections and refractions several bounces deep */
+    private final Scene scene = new Scene("Test scene");
+
+    {
+        scene.geometries.add(
+                new Sphere(new Point(-950, -900, -1000), 400d).setEmission(new Color(0, 50, 100))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)
+                                .setKT(new Double3(0.5, 0, 0))),
+                new Sphere(new Point(-950, -900, -1000), 200d).setEmission(new Color(100, 50, 20))
+                        .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(670, 670, 3000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKR(1)),
+                new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                        new Point(-1500, -1500, -2000))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKR(new Double3(0.5, 0, 0.4))));
+        scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150), new Vector(-1, -1, -4))
+                .setKl(0.00001).setKq(0.000005));
+    }
+
+    /**
+     * Builds a camera that views the whole scene.
+     *
+     * @return the camera
+     */
+    private Camera camera() throws CloneNotSupportedException {
+        return Camera.getBuilder()
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setLocation(new Point(0, 0, 10000)).setVpDistance(10000)
+                .setVpSize(2500, 2500)
+                .setImageWriter(new ImageWriter("Test", SIZE, SIZE))
+                .build();
+    }
+
+    /**
+     * Builds the packets of primary rays of the whole image.
+     *
+     * @return the packets, block by block
+     */
+    private RayPacket[] packets() throws CloneNotSupportedException {
+        Camera camera = camera();
+        int blocks = SIZE / PACKET;
+        RayPacket[] packets = new RayPacket[blocks * blocks];
+        for (int block = 0; block < packets.length; block++) {
+            Ray[] rays = new Ray[PACKET * PACKET];
+            for (int i = 0; i < PACKET; i++)
+                for (int j = 0; j < PACKET; j++)
+                    rays[i * PACKET + j] = camera.constructRay(SIZE, SIZE,
+                            block % blocks * PACKET + j, block / blocks * PACKET + i);
+            packets[block] = new RayPacket(rays, PACKET);
+        }
+        return packets;
+    }
+
+    /**
+     * Checks that colors traced breadth first are the colors of single rays, up to a difference
+     * of 1 in each channel, since the wavefront sums the contributions in another order.
+     *
+     * @param expected the color of a single ray
+     * @param actual   the color traced breadth first
+     */
+    private static void assertWavefrontColor(Color expected, Color actual) {
+        java.awt.Color e = expected.getColor(), a = actual.getColor();
+        assertTrue(Math.abs(e.getRed() - a.getRed()) <= 1
+                        && Math.abs(e.getGreen() - a.getGreen()) <= 1
+                        && Math.abs(e.getBlue() - a.getBlue()) <= 1,
+                "Wrong wavefront color: " + e + " " + a);
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#tracePacket(RayPacket)}.
+     */
+    @Test
+    void testTracePacket() throws CloneNotSupportedException {
+        SimpleRayTracer depthFirst = new SimpleRayTracer(scene);
+        SimpleRayTracer wavefront = new SimpleRayTracer(scene).setWavefront(true);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Packets traced depth first and breadth first give the colors of single rays
+        for (RayPacket packet : packets()) {
+            Color[] depthFirstColors = depthFirst.tracePacket(packet);
+            Color[] wavefrontColors = wavefront.tracePacket(packet);
+            for (int i = 0; i < packet.size(); i++) {
+                Color expected = depthFirst.traceRay(packet.getRay(i));
+                assertEquals(expected.getColor(), depthFirstColors[i].getColor(), "Wrong depth first color");
+                assertWavefrontColor(expected, wavefrontColors[i]);
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#tracePackets(RayPacket[])}.
+     */
+    @Test
+    void testTracePackets() throws CloneNotSupportedException {
+        RayPacket[] packets = packets();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: The packets of the whole image traced together, a bounce at a time, give the colors of single rays
+        SimpleRayTracer depthFirst = new SimpleRayTracer(scene);
+        Color[][] colors = new SimpleRayTracer(scene).setWavefront(true).tracePackets(packets);
+        assertEquals(packets.length, colors.length, "Wrong number of packets");
+        for (int p = 0; p < packets.length; p++)
+            for (int i = 0; i < packets[p].size(); i++)
+                assertWavefrontColor(depthFirst.traceRay(packets[p].getRay(i)), colors[p][i]);
+
+        // TC02: The queued beams of soft shadow rays give the colors of single rays
+        // (a beam of a single ray toward the light, since larger beams are random)
+        SimpleRayTracer softShadows = new SimpleRayTracer(scene, true).setCountBeam(1);
+        colors = new SimpleRayTracer(scene, true).setCountBeam(1).setWavefront(true).tracePackets(packets);
+        for (int p = 0; p < packets.length; p++)
+            for (int i = 0; i < packets[p].size(); i++)
+                assertWavefrontColor(softShadows.traceRay(packets[p].getRay(i)), colors[p][i]);
+
+        // TC03: Without the wavefront mode the packets are traced one by one
+        colors = depthFirst.tracePackets(packets);
+        for (int p = 0; p < packets.length; p++) {
+            Color[] expected = depthFirst.tracePacket(packets[p]);
+            for (int i = 0; i < expected.length; i++)
+                assertEquals(expected[i].getColor(), colors[p][i].getColor(), "Wrong depth first color");
+        }
+    }
+}